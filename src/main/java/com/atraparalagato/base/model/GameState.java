@@ -1,6 +1,8 @@
 package com.atraparalagato.base.model;
 
 import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Consumer;
 
 /**
@@ -24,19 +26,28 @@ import java.util.function.Consumer;
 public abstract class GameState<T extends Position> {
     
     protected final String gameId;
-    protected final LocalDateTime createdAt;
+    // No es final para que las subclases lo restauren al cargar una partida guardada
+    protected LocalDateTime createdAt;
     protected GameStatus status;
     protected int moveCount;
     
+    // Semilla de la partida: toda decisión aleatoria se deriva de ella para poder reproducirla
+    protected long seed;
+    
     // Functional Programming: Callbacks para eventos
     protected Consumer<GameState<T>> onStateChanged;
     protected Consumer<GameState<T>> onGameEnded;
     
     protected GameState(String gameId) {
+        this(gameId, ThreadLocalRandom.current().nextLong());
+    }
+    
+    protected GameState(String gameId, long seed) {
         this.gameId = gameId;
         this.createdAt = LocalDateTime.now();
         this.status = GameStatus.IN_PROGRESS;
         this.moveCount = 0;
+        this.seed = seed;
     }
     
     /**
@@ -166,6 +177,33 @@ public abstract class GameState<T extends Position> {
         return moveCount;
     }
     
+    public final long getSeed() {
+        return seed;
+    }
+    
+    /**
+     * Generador aleatorio para el movimiento actual de la partida.
+     * Depende solo de la semilla y del número de movimientos, así que una partida
+     * restaurada o repetida produce exactamente las mismas decisiones, y cada
+     * partida tiene su propio generador sin compartir estado entre hilos.
+     */
+    public final SplittableRandom newMoveRandom() {
+        return new SplittableRandom(mixSeed(seed, moveCount));
+    }
+    
+    /**
+     * Semilla del flujo aleatorio número stream derivado de seed (un movimiento, una
+     * partida de una simulación...). Los bits se mezclan con la función final de
+     * SplittableRandom: con seed + stream * GAMMA sin mezclar, cada flujo sería el
+     * anterior desplazado un valor y repetiría sus decisiones.
+     */
+    public static long mixSeed(long seed, long stream) {
+        long z = seed + (stream + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
     protected final void incrementMoveCount() {
         this.moveCount++;
     }
@@ -1,5 +1,7 @@
 package com.atraparalagato.base.repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
@@ -30,6 +32,19 @@ public abstract class DataRepository<T, ID> {
      */
     public abstract T save(T entity);
     
+    /**
+     * Guarda varias entidades.
+     * Por defecto llama a save para cada una; las implementaciones pueden
+     * sobrescribirlo para guardarlas en un solo lote.
+     */
+    public List<T> saveAll(Collection<T> entities) {
+        List<T> saved = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+    
     /**
      * Busca una entidad por su identificador.
      * Retorna Optional para manejar casos donde no existe.
@@ -117,6 +132,14 @@ public abstract class DataRepository<T, ID> {
      */
     protected abstract void cleanup();
     
+    /**
+     * Libera los recursos del repositorio (cleanup) desde fuera de su jerarquía,
+     * p. ej. el servicio que lo creó al apagarse.
+     */
+    public void close() {
+        cleanup();
+    }
+    
     /**
      * Valida una entidad antes de persistirla.
      * Hook method para validaciones específicas.
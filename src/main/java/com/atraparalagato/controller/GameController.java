@@ -1,14 +1,27 @@
 package com.atraparalagato.controller;
 
+import com.atraparalagato.example.model.ExampleGameState;
 import com.atraparalagato.example.service.ExampleGameService;
+import com.atraparalagato.impl.model.HexGameState;
 import com.atraparalagato.impl.model.HexPosition;
+import com.atraparalagato.impl.repository.DurabilityMode;
+import com.atraparalagato.impl.service.GameEngineMode;
+import com.atraparalagato.impl.service.GameIdGenerator;
+import com.atraparalagato.impl.service.HexGameService;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controlador del juego que alterna entre implementaciones de ejemplo y de estudiantes.
@@ -22,13 +35,64 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class GameController {
     
-    @Value("${game.use-example-implementation:true}")
-    private boolean useExampleImplementation;
+    private final boolean useExampleImplementation;
     
     private final ExampleGameService exampleGameService;
+    // Solo existe con la implementación 'impl': sus bucles, temporizadores y bases H2 no se arrancan si no se usan
+    private final HexGameService hexGameService;
+    // /block, /suggestion y /statistics no ocupan el hilo de Tomcat mientras calculan o esperan a la base de datos
+    private final GameRequestExecutors requestExecutors;
     
-    public GameController() {
-        this.exampleGameService = new ExampleGameService();
+    public GameController(@Value("${game.use-example-implementation:true}") boolean useExampleImplementation,
+                          @Value("${game.persistence.durability:MEMORY}") DurabilityMode durability,
+                          @Value("${game.persistence.flush-interval-ms:250}") long flushIntervalMillis,
+                          @Value("${game.persistence.off-heap-arena:false}") boolean offHeapArena,
+                          @Value("${game.persistence.shards:1}") int shards,
+                          @Value("${game.engine.mode:LOCKED}") GameEngineMode engineMode,
+                          @Value("${game.async.compute-threads:0}") int computeThreads,
+                          @Value("${game.async.compute-queue:256}") int computeQueue,
+                          @Value("${game.async.io-threads:16}") int ioThreads,
+                          @Value("${game.async.io-queue:1024}") int ioQueue,
+                          @Value("${game.id.node:-1}") int idNode,
+                          @Value("${game.persistence.shared-database:false}") boolean sharedDatabase) {
+        checkSharedDatabase(durability, sharedDatabase);
+        // Un solo generador de gameId para los dos servicios
+        GameIdGenerator gameIdGenerator = gameIdGenerator(idNode, sharedDatabase);
+        this.useExampleImplementation = useExampleImplementation;
+        this.exampleGameService = new ExampleGameService(gameIdGenerator);
+        this.hexGameService = useExampleImplementation ? null
+                : new HexGameService(durability, flushIntervalMillis, offHeapArena, shards, engineMode, gameIdGenerator);
+        this.requestExecutors = new GameRequestExecutors(
+                computeThreads > 0 ? computeThreads : Runtime.getRuntime().availableProcessors(),
+                computeQueue, ioThreads, ioQueue);
+    }
+    
+    // Con una base compartida, el nodo derivado del nombre de la máquina puede coincidir con el de otra instancia
+    private static GameIdGenerator gameIdGenerator(int idNode, boolean sharedDatabase) {
+        if (idNode >= 0) {
+            return new GameIdGenerator(idNode);
+        }
+        if (sharedDatabase && !GameIdGenerator.hasConfiguredNode()) {
+            throw new IllegalStateException("game.id.node must be set when game.persistence.shared-database is true");
+        }
+        return GameIdGenerator.shared();
+    }
+    
+    // Solo SYNC comprueba la versión al escribir: la escritura diferida vuelca el último estado sin
+    // versión y, con otras instancias escribiendo en la misma base, la última escritura ganaría
+    private static void checkSharedDatabase(DurabilityMode durability, boolean sharedDatabase) {
+        if (sharedDatabase && durability != DurabilityMode.SYNC) {
+            throw new IllegalStateException("game.persistence.shared-database requires game.persistence.durability=SYNC, not "
+                    + durability);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        requestExecutors.shutdown();
+        if (hexGameService != null) {
+            hexGameService.close();
+        }
     }
     
     /**
@@ -49,14 +113,17 @@ public class GameController {
     }
     
     /**
-     * Ejecuta un movimiento del jugador.
+     * Ejecuta un movimiento del jugador. Se responde desde el pool de E/S: el movimiento
+     * no termina hasta que está guardado. La respuesta del gato se calcula en el mismo turno
+     * de la partida que la escritura (no se puede soltar la partida entre las dos), así que
+     * va también en este pool; con el motor por lotes son microsegundos por movimiento.
      */
     @PostMapping("/block")
-    public ResponseEntity<Map<String, Object>> blockPosition(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> blockPosition(
             @RequestParam String gameId,
             @RequestParam int q,
             @RequestParam int r) {
-        try {
+        return respond(requestExecutors.io(() -> {
             HexPosition position = new HexPosition(q, r);
             
             if (useExampleImplementation) {
@@ -64,9 +131,37 @@ public class GameController {
             } else {
                 return blockPositionWithStudentImplementation(gameId, position);
             }
+        }), "Error al ejecutar movimiento: ");
+    }
+    
+    /**
+     * Calcula el movimiento del gato para varios juegos en una sola llamada.
+     * Pensado para torneos y pruebas con bots que avanzan muchos juegos a la vez.
+     */
+    @PostMapping("/cat-moves")
+    public ResponseEntity<Map<String, Object>> computeCatMoves(@RequestBody List<String> gameIds) {
+        try {
+            if (useExampleImplementation) {
+                return ResponseEntity.ok(Map.of(
+                    "error", "Batch cat moves are only available with the 'impl' implementation",
+                    "implementation", "example"
+                ));
+            }
+            
+            List<Map<String, Object>> games = hexGameService.executeCatMoves(gameIds).stream()
+                    .map(this::toBatchMoveResponse)
+                    .toList();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("games", games);
+            response.put("requested", gameIds.size());
+            response.put("processed", games.size());
+            response.put("implementation", "impl");
+            
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Error al ejecutar movimiento: " + e.getMessage()));
+                    .body(Map.of("error", "Error al calcular movimientos del gato: " + e.getMessage()));
         }
     }
     
@@ -88,46 +183,93 @@ public class GameController {
     }
     
     /**
-     * Obtiene estadísticas del juego.
+     * Obtiene estadísticas del juego. Lee del repositorio: pool de E/S.
      */
     @GetMapping("/statistics/{gameId}")
-    public ResponseEntity<Map<String, Object>> getGameStatistics(@PathVariable String gameId) {
-        try {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getGameStatistics(@PathVariable String gameId) {
+        return respond(requestExecutors.io(() -> {
             if (useExampleImplementation) {
                 Map<String, Object> stats = exampleGameService.getGameStatistics(gameId);
                 return ResponseEntity.ok(stats);
             } else {
-                return ResponseEntity.ok(Map.of("error", "Student implementation not available yet"));
+                @SuppressWarnings("unchecked")
+                Map<String, Object> stats = (Map<String, Object>) hexGameService.getGameStatistics(gameId);
+                return ResponseEntity.ok(stats);
+            }
+        }), "Error al obtener estadísticas: ");
+    }
+    
+    /**
+     * Obtiene sugerencia de movimiento. Es cálculo de la estrategia: pool de cómputo.
+     */
+    @GetMapping("/suggestion/{gameId}")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getSuggestion(@PathVariable String gameId) {
+        return respond(requestExecutors.compute(() -> {
+            Optional<HexPosition> suggestion = useExampleImplementation
+                    ? exampleGameService.getSuggestedMove(gameId)
+                    : hexGameService.getSuggestedMove(gameId);
+            if (suggestion.isPresent()) {
+                HexPosition pos = suggestion.get();
+                return ResponseEntity.ok(Map.of(
+                    "suggestion", Map.of("q", pos.getQ(), "r", pos.getR()),
+                    "message", "Sugerencia: bloquear posición adyacente al gato"
+                ));
+            } else {
+                return ResponseEntity.ok(Map.of("message", "No hay sugerencias disponibles"));
+            }
+        }), "Error al obtener sugerencia: ");
+    }
+    
+    /**
+     * Mejores puntuaciones de las partidas terminadas.
+     */
+    @GetMapping("/high-scores")
+    public ResponseEntity<List<Map<String, Object>>> getHighScores(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            if (useExampleImplementation) {
+                return ResponseEntity.ok(topExampleScores(exampleGameService.getFinishedGames(), limit));
             }
+            return ResponseEntity.ok(hexGameService.getHighScores(limit).stream().map(this::toScoreResponse).toList());
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Error al obtener estadísticas: " + e.getMessage()));
+                    .body(List.of(Map.of("error", "Error al obtener puntuaciones: " + e.getMessage())));
         }
     }
     
     /**
-     * Obtiene sugerencia de movimiento.
+     * Mejores puntuaciones de las partidas ganadas.
      */
-    @GetMapping("/suggestion/{gameId}")
-    public ResponseEntity<Map<String, Object>> getSuggestion(@PathVariable String gameId) {
+    @GetMapping("/winning-scores")
+    public ResponseEntity<List<Map<String, Object>>> getWinningScores(@RequestParam(defaultValue = "10") int limit) {
         try {
             if (useExampleImplementation) {
-                Optional<HexPosition> suggestion = exampleGameService.getSuggestedMove(gameId);
-                if (suggestion.isPresent()) {
-                    HexPosition pos = suggestion.get();
-                    return ResponseEntity.ok(Map.of(
-                        "suggestion", Map.of("q", pos.getQ(), "r", pos.getR()),
-                        "message", "Sugerencia: bloquear posición adyacente al gato"
-                    ));
-                } else {
-                    return ResponseEntity.ok(Map.of("message", "No hay sugerencias disponibles"));
-                }
-            } else {
-                return ResponseEntity.ok(Map.of("error", "Student implementation not available yet"));
+                return ResponseEntity.ok(topExampleScores(exampleGameService.getWonGames(), limit));
+            }
+            return ResponseEntity.ok(hexGameService.getLeaderboard(limit).stream().map(this::toScoreResponse).toList());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(List.of(Map.of("error", "Error al obtener puntuaciones: " + e.getMessage())));
+        }
+    }
+    
+    /**
+     * Métricas de persistencia de la implementación 'impl' (escritura diferida).
+     */
+    @GetMapping("/persistence-metrics")
+    public ResponseEntity<Map<String, Object>> getPersistenceMetrics() {
+        try {
+            if (useExampleImplementation) {
+                return ResponseEntity.ok(Map.of(
+                    "error", "Persistence metrics are only available with the 'impl' implementation",
+                    "implementation", "example"
+                ));
             }
+            Map<String, Object> metrics = new HashMap<>(hexGameService.getPersistenceMetrics());
+            metrics.put("requestPools", requestExecutors.getStats());
+            return ResponseEntity.ok(metrics);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Error al obtener sugerencia: " + e.getMessage()));
+                    .body(Map.of("error", "Error al obtener métricas de persistencia: " + e.getMessage()));
         }
     }
     
@@ -146,6 +288,20 @@ public class GameController {
         return ResponseEntity.ok(info);
     }
     
+    // Un pool saturado responde 503 enseguida; cualquier otro error, 500 como en el resto de endpoints
+    static CompletableFuture<ResponseEntity<Map<String, Object>>> respond(
+            CompletableFuture<ResponseEntity<Map<String, Object>>> response, String errorPrefix) {
+        return response.exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(Map.of("error", "Servidor ocupado, inténtalo de nuevo"));
+            }
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", errorPrefix + cause.getMessage()));
+        });
+    }
+    
     // Métodos privados para implementación de ejemplo
     
     private ResponseEntity<Map<String, Object>> startGameWithExample(int boardSize) {
@@ -203,32 +359,74 @@ public class GameController {
         return ResponseEntity.ok(response);
     }
     
-    // Métodos privados para implementación de estudiantes (placeholder)
+    private Map<String, Object> toBatchMoveResponse(HexGameState gameState) {
+        Map<String, Object> game = new HashMap<>();
+        game.put("gameId", gameState.getGameId());
+        game.put("status", gameState.getStatus().toString());
+        game.put("catPosition", Map.of("q", gameState.getCatPosition().getQ(), "r", gameState.getCatPosition().getR()));
+        game.put("movesCount", gameState.getMoveCount());
+        return game;
+    }
+    
+    private List<Map<String, Object>> topExampleScores(List<ExampleGameState> games, int limit) {
+        return games.stream()
+                .sorted(Comparator.comparingInt(ExampleGameState::calculateScore).reversed())
+                .limit(Math.max(0, limit))
+                .map(gameState -> {
+                    Map<String, Object> score = new HashMap<>();
+                    score.put("playerName", gameState.getGameId());
+                    score.put("playerWon", gameState.hasPlayerWon());
+                    score.put("movesCount", gameState.getMoveCount());
+                    score.put("boardSize", gameState.getBoardSize());
+                    score.put("score", gameState.calculateScore());
+                    score.put("gameDurationSeconds", 0);
+                    return score;
+                })
+                .toList();
+    }
+    
+    // Nombres de campo que espera el frontend; aún no hay nombres de jugador, se muestra el gameId
+    private Map<String, Object> toScoreResponse(Map<String, Object> entry) {
+        Map<String, Object> score = new HashMap<>();
+        score.put("playerName", entry.get("gameId"));
+        score.put("playerWon", entry.get("playerWon"));
+        score.put("movesCount", entry.get("moveCount"));
+        score.put("boardSize", entry.get("boardSize"));
+        score.put("score", entry.get("score"));
+        score.put("gameDurationSeconds", entry.get("durationSeconds"));
+        return score;
+    }
     
+    // Métodos privados para la implementación 'impl'
+    
+    // Nadie más conoce aún el gameId: se puede leer la partida recién creada fuera de su turno
     private ResponseEntity<Map<String, Object>> startGameWithStudentImplementation(int boardSize) {
-        // TODO: Los estudiantes deben implementar esto usando sus propias clases
-        return ResponseEntity.ok(Map.of(
-            "error", "Student implementation not available yet",
-            "message", "Los estudiantes deben completar sus implementaciones en el paquete 'impl'",
-            "implementation", "impl"
-        ));
+        HexGameState gameState = hexGameService.createGame(boardSize, null, null);
+        Map<String, Object> response = toImplGameResponse(gameState);
+        response.put("boardSize", boardSize);
+        return ResponseEntity.ok(response);
     }
     
     private ResponseEntity<Map<String, Object>> blockPositionWithStudentImplementation(String gameId, HexPosition position) {
-        // TODO: Los estudiantes deben implementar esto usando sus propias clases
-        return ResponseEntity.ok(Map.of(
-            "error", "Student implementation not available yet",
-            "message", "Los estudiantes deben completar sus implementaciones en el paquete 'impl'",
-            "implementation", "impl"
-        ));
+        return hexGameService.executePlayerMove(gameId, position, null, this::toImplGameResponse)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
     private ResponseEntity<Map<String, Object>> getGameStateWithStudentImplementation(String gameId) {
-        // TODO: Los estudiantes deben implementar esto usando sus propias clases
-        return ResponseEntity.ok(Map.of(
-            "error", "Student implementation not available yet",
-            "message", "Los estudiantes deben completar sus implementaciones en el paquete 'impl'",
-            "implementation", "impl"
-        ));
-    }
-} 
\ No newline at end of file
+        return hexGameService.getGameState(gameId, this::toImplGameResponse)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    private Map<String, Object> toImplGameResponse(HexGameState gameState) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("gameId", gameState.getGameId());
+        response.put("status", gameState.getStatus().toString());
+        response.put("catPosition", Map.of("q", gameState.getCatPosition().getQ(), "r", gameState.getCatPosition().getR()));
+        response.put("blockedCells", gameState.getGameBoard().getBlockedPositions());
+        response.put("movesCount", gameState.getMoveCount());
+        response.put("implementation", "impl");
+        return response;
+    }
+}
@@ -0,0 +1,97 @@
+package com.atraparalagato.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pools acotados donde el controlador ejecuta el trabajo de las peticiones asíncronas.
+ *
+ * El cálculo (estrategias del gato, sugerencias) va al pool de cómputo, con tantos hilos
+ * como núcleos; lo que espera a la base de datos va al pool de E/S, con más hilos. Cada
+ * pool tiene una cola limitada: si está llena, la petición se rechaza enseguida en vez
+ * de acumularse, y el hilo de Tomcat queda libre para las peticiones rápidas.
+ */
+class GameRequestExecutors {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ThreadPoolExecutor compute;
+    private final ThreadPoolExecutor io;
+    private final AtomicLong rejected = new AtomicLong();
+
+    GameRequestExecutors(int computeThreads, int computeQueue, int ioThreads, int ioQueue) {
+        this.compute = boundedPool("game-compute", computeThreads, computeQueue);
+        this.io = boundedPool("game-io", ioThreads, ioQueue);
+    }
+
+    /**
+     * Ejecuta el cálculo en el pool de cómputo. Si el pool está saturado, el futuro
+     * termina con RejectedExecutionException.
+     */
+    <T> CompletableFuture<T> compute(Supplier<T> task) {
+        return submit(compute, task);
+    }
+
+    /**
+     * Ejecuta la operación bloqueante en el pool de E/S. Si el pool está saturado, el
+     * futuro termina con RejectedExecutionException.
+     */
+    <T> CompletableFuture<T> io(Supplier<T> task) {
+        return submit(io, task);
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("compute", poolStats(compute));
+        stats.put("io", poolStats(io));
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    void shutdown() {
+        compute.shutdown();
+        io.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(ThreadPoolExecutor pool, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, pool);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static ThreadPoolExecutor boundedPool(String name, int threads, int queueCapacity) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid " + name + " pool: " + threads + " threads, queue " + queueCapacity);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static Map<String, Object> poolStats(ThreadPoolExecutor pool) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("threads", pool.getMaximumPoolSize());
+        stats.put("active", pool.getActiveCount());
+        stats.put("queued", pool.getQueue().size());
+        stats.put("queueCapacity", pool.getQueue().size() + pool.getQueue().remainingCapacity());
+        stats.put("completed", pool.getCompletedTaskCount());
+        return stats;
+    }
+}
@@ -5,6 +5,7 @@ import com.atraparalagato.impl.model.HexPosition;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Implementación de ejemplo de GameState para tableros hexagonales.
@@ -24,7 +25,11 @@ public class ExampleGameState extends GameState<HexPosition> {
     private final int boardSize;
     
     public ExampleGameState(String gameId, int boardSize) {
-        super(gameId);
+        this(gameId, boardSize, ThreadLocalRandom.current().nextLong());
+    }
+    
+    public ExampleGameState(String gameId, int boardSize, long seed) {
+        super(gameId, seed);
         this.boardSize = boardSize;
         this.gameBoard = new ExampleGameBoard(boardSize);
         this.catPosition = new HexPosition(0, 0); // Gato empieza en el centro
@@ -97,6 +102,7 @@ public class ExampleGameState extends GameState<HexPosition> {
         state.put("status", getStatus().toString());
         state.put("moveCount", getMoveCount());
         state.put("boardSize", boardSize);
+        state.put("seed", getSeed());
         return state;
     }
     
@@ -119,6 +125,12 @@ public class ExampleGameState extends GameState<HexPosition> {
             if (statusStr != null) {
                 setStatus(GameStatus.valueOf(statusStr));
             }
+            
+            // Restaurar semilla para que los movimientos aleatorios sigan siendo reproducibles
+            Object seedValue = state.get("seed");
+            if (seedValue instanceof Number number) {
+                this.seed = number.longValue();
+            }
         }
     }
     
@@ -5,6 +5,7 @@ import com.atraparalagato.example.model.ExampleGameState;
 import com.atraparalagato.example.repository.InMemoryGameRepository;
 import com.atraparalagato.example.strategy.SimpleCatMovement;
 import com.atraparalagato.impl.model.HexPosition;
+import com.atraparalagato.impl.service.GameIdGenerator;
 
 import java.util.*;
 
@@ -23,16 +24,25 @@ import java.util.*;
 public class ExampleGameService {
     
     private final InMemoryGameRepository gameRepository;
+    private final GameIdGenerator gameIdGenerator;
     
     public ExampleGameService() {
+        this(GameIdGenerator.shared());
+    }
+    
+    /**
+     * @param gameIdGenerator el generador del proceso, compartido con los demás servicios
+     */
+    public ExampleGameService(GameIdGenerator gameIdGenerator) {
         this.gameRepository = new InMemoryGameRepository();
+        this.gameIdGenerator = gameIdGenerator;
     }
     
     /**
      * Inicia un nuevo juego.
      */
     public ExampleGameState startNewGame(int boardSize) {
-        String gameId = UUID.randomUUID().toString();
+        String gameId = gameIdGenerator.get();
         ExampleGameState gameState = new ExampleGameState(gameId, boardSize);
         
         // Configurar callbacks básicos
@@ -166,8 +176,8 @@ public class ExampleGameService {
         HexPosition currentPosition = gameState.getCatPosition();
         ExampleGameBoard board = gameState.getGameBoard();
         
-        // Crear estrategia de movimiento simple
-        SimpleCatMovement strategy = new SimpleCatMovement(board);
+        // Crear estrategia de movimiento simple con el generador de la partida (reproducible)
+        SimpleCatMovement strategy = new SimpleCatMovement(board, gameState.newMoveRandom());
         
         // Objetivo: cualquier posición en el borde del tablero
         HexPosition targetPosition = new HexPosition(gameState.getBoardSize(), 0);
@@ -25,10 +25,19 @@ import java.util.function.Predicate;
  */
 public class SimpleCatMovement extends CatMovementStrategy<HexPosition> {
     
-    private final Random random = new Random();
+    private final SplittableRandom random;
     
     public SimpleCatMovement(GameBoard<HexPosition> board) {
+        this(board, new SplittableRandom());
+    }
+    
+    /**
+     * Crea la estrategia con el generador de la partida (ver GameState.newMoveRandom)
+     * para que los movimientos aleatorios sean reproducibles.
+     */
+    public SimpleCatMovement(GameBoard<HexPosition> board, SplittableRandom random) {
         super(board);
+        this.random = random;
     }
     
     @Override
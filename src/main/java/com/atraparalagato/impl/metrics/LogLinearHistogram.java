@@ -0,0 +1,165 @@
+package com.atraparalagato.impl.metrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Histograma log-lineal de valores enteros no negativos (estilo HDR).
+ *
+ * Cada potencia de dos se divide en 16 sub-buckets, con lo que los percentiles
+ * tienen un error relativo máximo de ~6% usando memoria constante (~8 KB),
+ * sin importar cuántos valores se registren. Dos histogramas se combinan
+ * sumando sus contadores, lo que permite agregar resultados por hilo.
+ * Con un valor máximo conocido (p. ej. puntuaciones) se reservan solo los buckets
+ * necesarios, y el histograma puede guardarse y leerse en binario.
+ *
+ * No es thread-safe: cada hilo debe usar su propia instancia y combinarlas con merge.
+ */
+public class LogLinearHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    private final long[] counts;
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public LogLinearHistogram() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Histograma para valores hasta maxValue; los mayores cuentan en el último bucket.
+     */
+    public LogLinearHistogram(long maxValue) {
+        if (maxValue < 0) {
+            throw new IllegalArgumentException("Histogram max value must be non-negative: " + maxValue);
+        }
+        this.counts = new long[indexOf(maxValue) + 1];
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Histogram values must be non-negative: " + value);
+        }
+        counts[Math.min(indexOf(value), counts.length - 1)]++;
+        totalCount++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(LogLinearHistogram other) {
+        if (other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Cannot merge histograms with different ranges");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Valor aproximado del percentil indicado (0-100).
+     */
+    public long getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * totalCount);
+        rank = Math.max(1, Math.min(totalCount, rank));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, Math.max(min, valueAt(i)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Guarda el histograma: totales y solo los buckets no vacíos.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(counts.length);
+        out.writeLong(totalCount);
+        out.writeLong(sum);
+        out.writeLong(min);
+        out.writeLong(max);
+        int used = 0;
+        for (long count : counts) {
+            if (count != 0) used++;
+        }
+        out.writeInt(used);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                out.writeShort(i);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    public static LogLinearHistogram readFrom(DataInput in) throws IOException {
+        int buckets = in.readInt();
+        LogLinearHistogram histogram = new LogLinearHistogram(valueAt(buckets - 1));
+        if (histogram.counts.length != buckets) {
+            throw new IOException("Invalid histogram size: " + buckets);
+        }
+        histogram.totalCount = in.readLong();
+        histogram.sum = in.readLong();
+        histogram.min = in.readLong();
+        histogram.max = in.readLong();
+        int used = in.readInt();
+        for (int i = 0; i < used; i++) {
+            int index = in.readUnsignedShort();
+            if (index >= buckets) {
+                throw new IOException("Invalid histogram bucket: " + index);
+            }
+            histogram.counts[index] = in.readLong();
+        }
+        return histogram;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS + 1;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    // Punto medio del bucket
+    private static long valueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long lower = (long) (index - shift * HALF) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+}
@@ -0,0 +1,47 @@
+package com.atraparalagato.impl.model;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Una entrada del registro de movimientos de una partida: la celda que bloqueó
+ * el jugador y, si el gato pudo moverse, la celda a la que respondió.
+ *
+ * seq es el número de movimiento tras aplicarlo (1 para el primero), así que
+ * coincide con getMoveCount() de la partida después de reproducirlo.
+ */
+public final class GameMove {
+
+    private final int seq;
+    private final HexPosition blockedCell;
+    private final HexPosition catDestination;
+
+    public GameMove(int seq, HexPosition blockedCell, HexPosition catDestination) {
+        if (seq <= 0) {
+            throw new IllegalArgumentException("Move sequence must be positive: " + seq);
+        }
+        this.seq = seq;
+        this.blockedCell = Objects.requireNonNull(blockedCell, "blockedCell");
+        this.catDestination = catDestination;
+    }
+
+    public int getSeq() {
+        return seq;
+    }
+
+    public HexPosition getBlockedCell() {
+        return blockedCell;
+    }
+
+    /**
+     * Celda a la que se movió el gato, o vacío si no pudo moverse.
+     */
+    public Optional<HexPosition> getCatDestination() {
+        return Optional.ofNullable(catDestination);
+    }
+
+    @Override
+    public String toString() {
+        return "GameMove(seq=" + seq + ", blocked=" + blockedCell + ", cat=" + catDestination + ")";
+    }
+}
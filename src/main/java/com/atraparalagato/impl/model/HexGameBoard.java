@@ -23,6 +23,14 @@ public class HexGameBoard extends GameBoard<HexPosition> {
         super(size);
     }
     
+    /**
+     * Crea el tablero con celdas ya bloqueadas (tableros iniciales generados).
+     */
+    public HexGameBoard(int size, Collection<HexPosition> preBlockedPositions) {
+        super(size);
+        blockedPositions.addAll(preBlockedPositions);
+    }
+    
     @Override
     protected Set<HexPosition> initializeBlockedPositions() {
         return new HashSet<>();
@@ -2,8 +2,15 @@ package com.atraparalagato.impl.model;
 
 import com.atraparalagato.base.model.GameState;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Implementación esqueleto de GameState para tableros hexagonales.
@@ -22,17 +29,33 @@ public class HexGameState extends GameState<HexPosition> {
     private HexPosition catPosition;
     private HexGameBoard gameBoard;
     private final int boardSize;
-    
+    // Versión de la fila guardada de la que viene este estado; 0 si no se conoce (partida nueva)
+    private long version;
+
     // TODO: Los estudiantes pueden agregar más campos según necesiten
     // Ejemplos: tiempo de juego, dificultad, power-ups, etc.
     
     public HexGameState(String gameId, int boardSize) {
-        super(gameId);
+        this(gameId, boardSize, ThreadLocalRandom.current().nextLong());
+    }
+    
+    public HexGameState(String gameId, int boardSize, long seed) {
+        super(gameId, seed);
         this.boardSize = boardSize;
         this.gameBoard = new HexGameBoard(boardSize);
         this.catPosition = new HexPosition(0, 0); // Gato empieza en el centro
     }
     
+    /**
+     * Crea la partida a partir de un tablero inicial generado (celdas prebloqueadas).
+     */
+    public HexGameState(String gameId, PuzzleLayout layout, long seed) {
+        super(gameId, seed);
+        this.boardSize = layout.getBoardSize();
+        this.gameBoard = new HexGameBoard(boardSize, layout.getBlockedCells());
+        this.catPosition = new HexPosition(0, 0); // Gato empieza en el centro
+    }
+    
     @Override
     protected boolean canExecuteMove(HexPosition position) {
         // Validación básica: posición válida y no bloqueada
@@ -56,6 +79,18 @@ public class HexGameState extends GameState<HexPosition> {
         // Si no, el juego continúa (IN_PROGRESS)
     }
     
+    /**
+     * Da la partida por perdida sin mover al gato (p. ej. se agotó el tiempo del jugador).
+     * No hace nada si la partida ya había terminado.
+     */
+    public void forfeit() {
+        if (isGameFinished()) {
+            return;
+        }
+        setStatus(GameStatus.PLAYER_LOST);
+        notifyStateChanged();
+    }
+
     @Override
     public HexPosition getCatPosition() {
         // Retorna la posición actual del gato
@@ -64,9 +99,14 @@ public class HexGameState extends GameState<HexPosition> {
     
     @Override
     public void setCatPosition(HexPosition position) {
+        boolean wasFinished = isGameFinished();
         this.catPosition = position;
         // IMPORTANTE: Verificar estado del juego después de mover el gato
         updateGameStatus();
+        // Si el gato escapa o queda atrapado al moverse, se avisa igual que tras un movimiento del jugador
+        if (!wasFinished && isGameFinished()) {
+            notifyStateChanged();
+        }
     }
     
     @Override
@@ -103,6 +143,8 @@ public class HexGameState extends GameState<HexPosition> {
         state.put("status", getStatus().toString());
         state.put("moveCount", getMoveCount());
         state.put("boardSize", boardSize);
+        state.put("seed", getSeed());
+        state.put("createdAt", createdAt.toInstant(ZoneOffset.UTC).toEpochMilli());
         return state;
     }
 
@@ -115,10 +157,27 @@ public class HexGameState extends GameState<HexPosition> {
             Map<String, Object> state = (Map<String, Object>) serializedState;
             
             // Restaurar posición del gato
-            @SuppressWarnings("unchecked")
-            Map<String, Integer> catPos = (Map<String, Integer>) state.get("catPosition");
-            if (catPos != null) {
-                this.catPosition = new HexPosition(catPos.get("q"), catPos.get("r"));
+            HexPosition restoredCat = toPosition(state.get("catPosition"));
+            if (restoredCat != null) {
+                this.catPosition = restoredCat;
+            }
+            
+            // Restaurar celdas bloqueadas (HexPosition en memoria, mapas q/r si viene de JSON)
+            Object blockedValue = state.get("blockedCells");
+            if (blockedValue instanceof Collection<?> blockedCells) {
+                List<HexPosition> blocked = new ArrayList<>(blockedCells.size());
+                for (Object cell : blockedCells) {
+                    HexPosition position = toPosition(cell);
+                    if (position != null) {
+                        blocked.add(position);
+                    }
+                }
+                this.gameBoard = new HexGameBoard(boardSize, blocked);
+            }
+            
+            Object moveCountValue = state.get("moveCount");
+            if (moveCountValue instanceof Number number) {
+                this.moveCount = number.intValue();
             }
             
             // Restaurar estado del juego
@@ -126,9 +185,46 @@ public class HexGameState extends GameState<HexPosition> {
             if (statusStr != null) {
                 setStatus(GameStatus.valueOf(statusStr));
             }
+            
+            // Restaurar semilla para que los movimientos aleatorios sigan siendo reproducibles
+            Object seedValue = state.get("seed");
+            if (seedValue instanceof Number number) {
+                this.seed = number.longValue();
+            }
+            
+            // Fecha de creación en milisegundos (UTC); los datos antiguos no la traen
+            Object createdAtValue = state.get("createdAt");
+            if (createdAtValue instanceof Number number) {
+                this.createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(number.longValue()), ZoneOffset.UTC);
+            }
         }
     }
     
+    /**
+     * Reaplica un movimiento del registro: bloquea la celda y mueve el gato a su destino.
+     * No valida reglas ni dispara callbacks; el movimiento ya se validó al jugarse.
+     */
+    public void replayMove(GameMove move) {
+        if (move.getSeq() != getMoveCount() + 1) {
+            throw new IllegalStateException("Move " + move.getSeq() + " cannot follow move "
+                    + getMoveCount() + " in game " + getGameId());
+        }
+        gameBoard.makeMove(move.getBlockedCell());
+        incrementMoveCount();
+        updateGameStatus();
+        move.getCatDestination().ifPresent(this::setCatPosition);
+    }
+
+    private static HexPosition toPosition(Object value) {
+        if (value instanceof HexPosition position) {
+            return position;
+        }
+        if (value instanceof Map<?, ?> map && map.get("q") instanceof Number q && map.get("r") instanceof Number r) {
+            return new HexPosition(q.intValue(), r.intValue());
+        }
+        return null;
+    }
+    
     // Métodos auxiliares que los estudiantes pueden implementar
     
     /**
@@ -174,7 +270,23 @@ public class HexGameState extends GameState<HexPosition> {
     public int getBoardSize() {
         return boardSize;
     }
-    
+
+    /** Versión de una partida recién creada: su primera escritura la inserta y falla si el gameId ya existe. */
+    public static final long NEW_VERSION = -1;
+
+    /**
+     * Versión con la que se leyó o guardó por última vez la partida. La mantiene el
+     * repositorio: una escritura con versión positiva solo se aplica si la fila sigue en
+     * esa versión; con NEW_VERSION se inserta; con 0 (desconocida) se escribe sin comprobar.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     // TODO: Los estudiantes pueden agregar más métodos según necesiten
     // Ejemplos: getDifficulty(), getTimeElapsed(), getPowerUps(), etc.
 } 
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.atraparalagato.impl.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Topología precalculada de un tablero hexagonal de tamaño fijo.
+ *
+ * Asigna a cada celda dentro de los límites (incluyendo el borde) un índice
+ * denso 0..cellCount-1 y guarda en arreglos planos sus vecinos y si es borde.
+ * Los algoritmos que trabajan por índice evitan crear HexPosition y hacer
+ * búsquedas en HashSet en cada paso.
+ *
+ * Las instancias son inmutables y se comparten por tamaño mediante {@link #of(int)}.
+ */
+public final class HexTopology {
+
+    /**
+     * Direcciones hexagonales en el mismo orden que HexGameBoard.getAdjacentPositions:
+     * Este, Noreste, Noroeste, Oeste, Suroeste, Sureste.
+     */
+    public static final int DIRECTIONS = 6;
+    private static final int[] DIRECTION_Q = {1, 1, 0, -1, -1, 0};
+    private static final int[] DIRECTION_R = {0, -1, -1, 0, 1, 1};
+
+    /**
+     * Mayor tamaño de tablero admitido. Acota la memoria de una topología, también cuando
+     * el tamaño viene de datos guardados que pueden estar dañados.
+     */
+    public static final int MAX_SIZE = 255;
+
+    private static final Map<Integer, HexTopology> CACHE = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int span;
+    private final int[] indexByCoordinates;
+    private final HexPosition[] positions;
+    private final int[] neighbors;
+    private final boolean[] border;
+
+    private HexTopology(int size) {
+        this.size = size;
+        this.span = 2 * size + 1;
+        this.indexByCoordinates = new int[span * span];
+        Arrays.fill(indexByCoordinates, -1);
+
+        int count = 3 * size * (size + 1) + 1;
+        this.positions = new HexPosition[count];
+        this.border = new boolean[count];
+
+        int index = 0;
+        for (int q = -size; q <= size; q++) {
+            int rMin = Math.max(-size, -q - size);
+            int rMax = Math.min(size, -q + size);
+            for (int r = rMin; r <= rMax; r++) {
+                HexPosition position = new HexPosition(q, r);
+                positions[index] = position;
+                border[index] = Math.abs(q) == size || Math.abs(r) == size || Math.abs(position.getS()) == size;
+                indexByCoordinates[slot(q, r)] = index;
+                index++;
+            }
+        }
+
+        this.neighbors = new int[count * DIRECTIONS];
+        for (int i = 0; i < count; i++) {
+            HexPosition position = positions[i];
+            for (int d = 0; d < DIRECTIONS; d++) {
+                neighbors[i * DIRECTIONS + d] = indexOf(position.getQ() + DIRECTION_Q[d], position.getR() + DIRECTION_R[d]);
+            }
+        }
+    }
+
+    /**
+     * Obtiene la topología compartida para un tamaño de tablero.
+     */
+    public static HexTopology of(int size) {
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_SIZE + ": " + size);
+        }
+        return CACHE.computeIfAbsent(size, HexTopology::new);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Número total de celdas, incluyendo el borde.
+     */
+    public int getCellCount() {
+        return positions.length;
+    }
+
+    /**
+     * Índice denso de una coordenada axial, o -1 si está fuera del tablero.
+     */
+    public int indexOf(int q, int r) {
+        if (q < -size || q > size || r < -size || r > size) {
+            return -1;
+        }
+        return indexByCoordinates[slot(q, r)];
+    }
+
+    public int indexOf(HexPosition position) {
+        return indexOf(position.getQ(), position.getR());
+    }
+
+    public HexPosition positionAt(int index) {
+        return positions[index];
+    }
+
+    /**
+     * Vecino de una celda en la dirección d (0..5), o -1 si cae fuera del tablero.
+     */
+    public int neighbor(int index, int direction) {
+        return neighbors[index * DIRECTIONS + direction];
+    }
+
+    public boolean isBorder(int index) {
+        return border[index];
+    }
+
+    private int slot(int q, int r) {
+        return (q + size) * span + (r + size);
+    }
+}
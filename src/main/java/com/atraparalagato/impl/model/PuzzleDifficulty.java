@@ -0,0 +1,55 @@
+package com.atraparalagato.impl.model;
+
+/**
+ * Dificultad de un tablero inicial con celdas prebloqueadas.
+ *
+ * Se mide con la presión = corte mínimo / distancia de escape: la fracción de los
+ * turnos que tarda el gato en llegar al borde que el jugador necesita para encerrarlo
+ * bloqueando perfectamente. Más presión, más difícil; por encima de 1 el tablero
+ * no tiene solución. La proporción de celdas prebloqueadas guía al generador.
+ */
+public enum PuzzleDifficulty {
+    EASY(0.0, 0.55, 0.25, 0.35),
+    MEDIUM(0.55, 0.8, 0.15, 0.30),
+    HARD(0.8, Double.POSITIVE_INFINITY, 0.05, 0.20);
+
+    private final double minPressure;
+    private final double maxPressure;
+    private final double minBlockedFraction;
+    private final double maxBlockedFraction;
+
+    PuzzleDifficulty(double minPressure, double maxPressure, double minBlockedFraction, double maxBlockedFraction) {
+        this.minPressure = minPressure;
+        this.maxPressure = maxPressure;
+        this.minBlockedFraction = minBlockedFraction;
+        this.maxBlockedFraction = maxBlockedFraction;
+    }
+
+    /**
+     * Indica si un tablero con este corte mínimo y esta distancia de escape corresponde a la dificultad.
+     * Los tableros sin solución (presión mayor que 1) se descartan antes en el generador.
+     */
+    public boolean accepts(int minCut, int escapeDistance) {
+        double pressure = (double) minCut / escapeDistance;
+        return pressure >= minPressure && pressure < maxPressure;
+    }
+
+    public double getMinBlockedFraction() {
+        return minBlockedFraction;
+    }
+
+    public double getMaxBlockedFraction() {
+        return maxBlockedFraction;
+    }
+
+    /**
+     * Convierte el nombre recibido por la API ("easy", "medium", "hard").
+     */
+    public static PuzzleDifficulty fromString(String difficulty) {
+        try {
+            return valueOf(difficulty.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown difficulty: " + difficulty, e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.atraparalagato.impl.model;
+
+import java.util.List;
+
+/**
+ * Tablero inicial validado: celdas prebloqueadas más las métricas con que se aceptó.
+ * Inmutable, así que un mismo layout puede compartirse entre hilos y partidas.
+ */
+public final class PuzzleLayout {
+
+    private final int boardSize;
+    private final PuzzleDifficulty difficulty;
+    private final long seed;
+    private final List<HexPosition> blockedCells;
+    private final int escapeDistance;
+    private final int minCut;
+
+    public PuzzleLayout(int boardSize, PuzzleDifficulty difficulty, long seed,
+                        List<HexPosition> blockedCells, int escapeDistance, int minCut) {
+        this.boardSize = boardSize;
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.blockedCells = List.copyOf(blockedCells);
+        this.escapeDistance = escapeDistance;
+        this.minCut = minCut;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public PuzzleDifficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Semilla con la que el generador produjo este layout (permite regenerarlo).
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public List<HexPosition> getBlockedCells() {
+        return blockedCells;
+    }
+
+    public int getEscapeDistance() {
+        return escapeDistance;
+    }
+
+    public int getMinCut() {
+        return minCut;
+    }
+}
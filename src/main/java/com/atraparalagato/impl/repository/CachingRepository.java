@@ -0,0 +1,308 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.repository.DataRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Caché de lectura acotada delante de cualquier DataRepository.
+ *
+ * findById consulta primero la caché: un acierto cuesta una búsqueda en un mapa.
+ * Los fallos cargan del repositorio subyacente y guardan el resultado. save y
+ * deleteById invalidan la entrada; las operaciones masivas invalidan toda la caché.
+ *
+ * Expulsión por LRU segmentado: una entrada nueva entra en el segmento de prueba y
+ * solo pasa al protegido si se vuelve a leer, así que un recorrido de partidas que se
+ * leen una sola vez no desplaza a las partidas activas. Para no serializar todos los
+ * hilos en un candado, la caché se divide en particiones por hash, cada una con su
+ * propio LRU segmentado.
+ *
+ * Las entidades devueltas son compartidas: quien las modifique debe coordinarse con
+ * otros hilos que trabajen sobre la misma entidad.
+ */
+public class CachingRepository<T, ID> extends DataRepository<T, ID> {
+
+    private static final int PARTITIONS = 16;
+    // Fracción de cada partición reservada a entradas leídas más de una vez
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final DataRepository<T, ID> delegate;
+    private final Function<T, ID> idExtractor;
+    private final Partition<ID, T>[] partitions;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public CachingRepository(DataRepository<T, ID> delegate, Function<T, ID> idExtractor, int maximumSize) {
+        if (maximumSize < PARTITIONS) {
+            throw new IllegalArgumentException("Maximum size must be at least " + PARTITIONS + ": " + maximumSize);
+        }
+        this.delegate = delegate;
+        this.idExtractor = idExtractor;
+        @SuppressWarnings("unchecked")
+        Partition<ID, T>[] created = (Partition<ID, T>[]) new Partition<?, ?>[PARTITIONS];
+        int partitionSize = maximumSize / PARTITIONS;
+        for (int i = 0; i < PARTITIONS; i++) {
+            created[i] = new Partition<>(partitionSize);
+        }
+        this.partitions = created;
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        if (id == null) return Optional.empty();
+        Partition<ID, T> partition = partitionFor(id);
+        long generation;
+        synchronized (partition) {
+            T cached = partition.get(id);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            generation = partition.generation;
+        }
+
+        misses.increment();
+        Optional<T> loaded = delegate.findById(id);
+        loaded.ifPresent(entity -> {
+            synchronized (partition) {
+                // Si hubo una invalidación durante la carga, el valor podría ser obsoleto
+                if (partition.generation == generation) {
+                    evictions.add(partition.put(id, entity));
+                }
+            }
+        });
+        return loaded;
+    }
+
+    @Override
+    public T save(T entity) {
+        T saved = delegate.save(entity);
+        invalidate(idExtractor.apply(entity));
+        return saved;
+    }
+
+    @Override
+    public List<T> saveAll(Collection<T> entities) {
+        List<T> saved = delegate.saveAll(entities);
+        entities.forEach(entity -> invalidate(idExtractor.apply(entity)));
+        return saved;
+    }
+
+    @Override
+    public boolean deleteById(ID id) {
+        boolean deleted = delegate.deleteById(id);
+        invalidate(id);
+        return deleted;
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        if (id == null) return false;
+        Partition<ID, T> partition = partitionFor(id);
+        synchronized (partition) {
+            if (partition.contains(id)) {
+                return true;
+            }
+        }
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public long deleteWhere(Predicate<T> condition) {
+        long deleted = delegate.deleteWhere(condition);
+        invalidateAll();
+        return deleted;
+    }
+
+    @Override
+    public <R> R executeInTransaction(Function<DataRepository<T, ID>, R> operation) {
+        // La transacción escribe directamente en el repositorio subyacente
+        try {
+            return delegate.executeInTransaction(operation);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public List<T> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<T> findWhere(Predicate<T> condition) {
+        return delegate.findWhere(condition);
+    }
+
+    @Override
+    public <R> List<R> findAndTransform(Predicate<T> condition, Function<T, R> transformer) {
+        return delegate.findAndTransform(condition, transformer);
+    }
+
+    @Override
+    public long countWhere(Predicate<T> condition) {
+        return delegate.countWhere(condition);
+    }
+
+    @Override
+    public List<T> findWithPagination(int page, int size) {
+        return delegate.findWithPagination(page, size);
+    }
+
+    @Override
+    public List<T> findAllSorted(Function<T, ? extends Comparable<?>> sortKeyExtractor, boolean ascending) {
+        return delegate.findAllSorted(sortKeyExtractor, ascending);
+    }
+
+    @Override
+    public <R> List<R> executeCustomQuery(String query, Function<Object, R> resultMapper) {
+        return delegate.executeCustomQuery(query, resultMapper);
+    }
+
+    /**
+     * Descarta la entrada de una entidad (p. ej. si se modificó fuera de este repositorio).
+     */
+    public void invalidate(ID id) {
+        if (id == null) return;
+        Partition<ID, T> partition = partitionFor(id);
+        synchronized (partition) {
+            if (partition.remove(id)) {
+                invalidations.increment();
+            }
+            partition.generation++;
+        }
+    }
+
+    public void invalidateAll() {
+        for (Partition<ID, T> partition : partitions) {
+            synchronized (partition) {
+                invalidations.add(partition.size());
+                partition.clear();
+                partition.generation++;
+            }
+        }
+    }
+
+    /**
+     * Aciertos, fallos, expulsiones, invalidaciones y tamaño actual.
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long size = 0;
+        for (Partition<ID, T> partition : partitions) {
+            synchronized (partition) {
+                size += partition.size();
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("size", size);
+        return stats;
+    }
+
+    @Override
+    protected void initialize() {
+        // Sin estado que inicializar
+    }
+
+    @Override
+    protected void cleanup() {
+        invalidateAll();
+    }
+
+    private Partition<ID, T> partitionFor(ID id) {
+        int hash = id.hashCode();
+        return partitions[(hash ^ (hash >>> 16)) & (PARTITIONS - 1)];
+    }
+
+    /**
+     * LRU segmentado de una partición. Se protege con synchronized sobre la propia partición.
+     */
+    private static final class Partition<K, V> {
+        // Ambos en orden de acceso: el primero de cada mapa es el menos reciente
+        private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maximumSize;
+        private final int protectedCapacity;
+        long generation;
+
+        Partition(int maximumSize) {
+            this.maximumSize = maximumSize;
+            this.protectedCapacity = Math.max(1, (int) (maximumSize * PROTECTED_RATIO));
+        }
+
+        V get(K id) {
+            V value = protectedSegment.get(id);
+            if (value != null) {
+                return value;
+            }
+            value = probation.remove(id);
+            if (value != null) {
+                // Segunda lectura: pasa al segmento protegido
+                protectedSegment.put(id, value);
+                if (protectedSegment.size() > protectedCapacity) {
+                    Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+                    probation.put(demoted.getKey(), demoted.getValue());
+                }
+            }
+            return value;
+        }
+
+        // Devuelve cuántas entradas se expulsaron
+        int put(K id, V value) {
+            if (protectedSegment.containsKey(id)) {
+                protectedSegment.put(id, value);
+                return 0;
+            }
+            probation.put(id, value);
+            int evicted = 0;
+            while (size() > maximumSize && !probation.isEmpty()) {
+                removeEldest(probation);
+                evicted++;
+            }
+            return evicted;
+        }
+
+        boolean contains(K id) {
+            return protectedSegment.containsKey(id) || probation.containsKey(id);
+        }
+
+        boolean remove(K id) {
+            return protectedSegment.remove(id) != null | probation.remove(id) != null;
+        }
+
+        int size() {
+            return probation.size() + protectedSegment.size();
+        }
+
+        void clear() {
+            probation.clear();
+            protectedSegment.clear();
+        }
+
+        private Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> segment) {
+            Iterator<Map.Entry<K, V>> iterator = segment.entrySet().iterator();
+            Map.Entry<K, V> eldest = iterator.next();
+            Map.Entry<K, V> copy = Map.entry(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            return copy;
+        }
+    }
+}
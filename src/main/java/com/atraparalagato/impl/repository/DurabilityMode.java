@@ -0,0 +1,25 @@
+package com.atraparalagato.impl.repository;
+
+/**
+ * Nivel de durabilidad de las partidas guardadas, de más seguro a más rápido.
+ */
+public enum DurabilityMode {
+
+    /**
+     * Base de datos en fichero; cada escritura está en disco antes de volver.
+     * Las escrituras concurrentes comparten un único commit (GroupCommitGameRepository).
+     */
+    SYNC,
+
+    /**
+     * Base de datos en fichero; las escrituras se acumulan en memoria y se vuelcan
+     * cada pocos milisegundos (WriteBehindGameRepository). Un fallo del proceso pierde
+     * como mucho ese intervalo.
+     */
+    ASYNC,
+
+    /**
+     * Base de datos en memoria: nada sobrevive a un reinicio.
+     */
+    MEMORY
+}
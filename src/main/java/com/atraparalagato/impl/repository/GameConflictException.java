@@ -0,0 +1,28 @@
+package com.atraparalagato.impl.repository;
+
+/**
+ * La partida se guardó desde otro sitio después de leerla: la fila ya no está en la
+ * versión esperada y la escritura no se aplicó. Hay que volver a leer la partida y
+ * repetir la operación sobre el estado actual.
+ */
+public class GameConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String gameId;
+    private final long expectedVersion;
+
+    public GameConflictException(String gameId, long expectedVersion) {
+        super("Game " + gameId + " is no longer at version " + expectedVersion);
+        this.gameId = gameId;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+}
@@ -0,0 +1,44 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.impl.model.GameMove;
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Registro de movimientos de solo-añadir para partidas hexagonales.
+ *
+ * En vez de reescribir la partida completa en cada jugada se añade una entrada
+ * pequeña con la celda bloqueada y la respuesta del gato. Cargar una partida es
+ * leer la última instantánea y reproducir los movimientos posteriores.
+ */
+public interface GameMoveLog {
+
+    /**
+     * Registra el movimiento que acaba de aplicarse a la partida.
+     * El número de secuencia es el getMoveCount() actual de la partida.
+     *
+     * @param catDestination celda a la que se movió el gato, o null si no se movió
+     */
+    default void appendMove(HexGameState gameState, HexPosition blockedCell, HexPosition catDestination) {
+        appendMoves(gameState, List.of(new GameMove(gameState.getMoveCount(), blockedCell, catDestination)));
+    }
+
+    /**
+     * Registra de una vez los últimos movimientos aplicados a la partida, en orden.
+     * El último debe ser el movimiento getMoveCount() actual de la partida.
+     */
+    void appendMoves(HexGameState gameState, List<GameMove> moves);
+
+    /**
+     * Movimientos de la partida en orden de secuencia (vacío si no existe).
+     */
+    List<GameMove> findMoves(String gameId);
+
+    /**
+     * Estado de la partida justo después del movimiento seq (0 = estado inicial).
+     */
+    Optional<HexGameState> loadAt(String gameId, int seq);
+}
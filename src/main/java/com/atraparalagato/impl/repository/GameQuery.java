@@ -0,0 +1,160 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.model.GameState.GameStatus;
+import com.atraparalagato.impl.model.HexGameState;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Consulta tipada sobre partidas hexagonales: estado, rango de tamaño de tablero,
+ * puntuación mínima y fecha de creación, combinados con AND.
+ *
+ * Es un Predicate, así que cualquier repositorio la puede evaluar en memoria. Los
+ * repositorios que la reconocen (H2GameRepository) la traducen a SQL sobre columnas
+ * indexadas en vez de cargar y filtrar todas las partidas. Las capas intermedias
+ * (caché, write-behind) la pasan sin cambios al repositorio subyacente.
+ *
+ * Es inmutable: cada with* devuelve una consulta nueva.
+ *
+ *   GameQuery.all().withStatus(GameStatus.PLAYER_WON).orderByScoreDescending().limit(10)
+ */
+public final class GameQuery implements Predicate<HexGameState> {
+
+    // Mismo orden que ORDER BY score DESC, game_id en SQL
+    private static final Comparator<HexGameState> BY_SCORE_DESCENDING =
+            Comparator.comparingInt(HexGameState::calculateScore).reversed()
+                    .thenComparing(HexGameState::getGameId);
+
+    private static final GameQuery ALL = new GameQuery(null, null, null, null, null, false, 0);
+
+    private final GameStatus status;
+    private final Integer minBoardSize;
+    private final Integer maxBoardSize;
+    private final Integer minScore;
+    private final LocalDateTime createdAfter;
+    private final boolean orderByScoreDescending;
+    private final int limit;
+
+    private GameQuery(GameStatus status, Integer minBoardSize, Integer maxBoardSize, Integer minScore,
+                      LocalDateTime createdAfter, boolean orderByScoreDescending, int limit) {
+        this.status = status;
+        this.minBoardSize = minBoardSize;
+        this.maxBoardSize = maxBoardSize;
+        this.minScore = minScore;
+        this.createdAfter = createdAfter;
+        this.orderByScoreDescending = orderByScoreDescending;
+        this.limit = limit;
+    }
+
+    /**
+     * Consulta sin criterios: todas las partidas.
+     */
+    public static GameQuery all() {
+        return ALL;
+    }
+
+    public GameQuery withStatus(GameStatus status) {
+        if (status == null) throw new IllegalArgumentException("Status cannot be null");
+        return new GameQuery(status, minBoardSize, maxBoardSize, minScore, createdAfter, orderByScoreDescending, limit);
+    }
+
+    public GameQuery withBoardSizeBetween(int min, int max) {
+        if (min > max) throw new IllegalArgumentException("Invalid board size range: " + min + ".." + max);
+        return new GameQuery(status, min, max, minScore, createdAfter, orderByScoreDescending, limit);
+    }
+
+    public GameQuery withMinScore(int minScore) {
+        return new GameQuery(status, minBoardSize, maxBoardSize, minScore, createdAfter, orderByScoreDescending, limit);
+    }
+
+    /**
+     * Partidas creadas estrictamente después del instante dado.
+     */
+    public GameQuery createdAfter(LocalDateTime time) {
+        if (time == null) throw new IllegalArgumentException("Time cannot be null");
+        return new GameQuery(status, minBoardSize, maxBoardSize, minScore, time, orderByScoreDescending, limit);
+    }
+
+    /**
+     * Ordena los resultados por puntuación descendente (empates por gameId).
+     */
+    public GameQuery orderByScoreDescending() {
+        return new GameQuery(status, minBoardSize, maxBoardSize, minScore, createdAfter, true, limit);
+    }
+
+    /**
+     * Como mucho maxResults partidas (0 = sin límite).
+     */
+    public GameQuery limit(int maxResults) {
+        if (maxResults < 0) throw new IllegalArgumentException("Limit cannot be negative: " + maxResults);
+        return new GameQuery(status, minBoardSize, maxBoardSize, minScore, createdAfter, orderByScoreDescending, maxResults);
+    }
+
+    public Optional<GameStatus> getStatus() {
+        return Optional.ofNullable(status);
+    }
+
+    public Optional<Integer> getMinBoardSize() {
+        return Optional.ofNullable(minBoardSize);
+    }
+
+    public Optional<Integer> getMaxBoardSize() {
+        return Optional.ofNullable(maxBoardSize);
+    }
+
+    public Optional<Integer> getMinScore() {
+        return Optional.ofNullable(minScore);
+    }
+
+    public Optional<LocalDateTime> getCreatedAfter() {
+        return Optional.ofNullable(createdAfter);
+    }
+
+    public boolean isOrderedByScoreDescending() {
+        return orderByScoreDescending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Evalúa los criterios de filtrado. El orden y el límite no forman parte del
+     * predicado: los aplica el repositorio o, en memoria, select().
+     */
+    @Override
+    public boolean test(HexGameState gameState) {
+        if (status != null && gameState.getStatus() != status) return false;
+        if (minBoardSize != null && gameState.getBoardSize() < minBoardSize) return false;
+        if (maxBoardSize != null && gameState.getBoardSize() > maxBoardSize) return false;
+        if (minScore != null && gameState.calculateScore() < minScore) return false;
+        return createdAfter == null || gameState.getCreatedAt().isAfter(createdAfter);
+    }
+
+    /**
+     * Aplica la consulta completa (filtro, orden y límite) a partidas ya cargadas.
+     */
+    public List<HexGameState> select(Collection<HexGameState> games) {
+        Stream<HexGameState> selected = games.stream().filter(this);
+        if (orderByScoreDescending) {
+            selected = selected.sorted(BY_SCORE_DESCENDING);
+        }
+        if (limit > 0) {
+            selected = selected.limit(limit);
+        }
+        return selected.toList();
+    }
+
+    @Override
+    public String toString() {
+        return "GameQuery{status=" + status + ", boardSize=" + minBoardSize + ".." + maxBoardSize
+                + ", minScore=" + minScore + ", createdAfter=" + createdAfter
+                + ", orderByScoreDescending=" + orderByScoreDescending + ", limit=" + limit + "}";
+    }
+}
@@ -0,0 +1,178 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.model.GameState.GameStatus;
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import com.atraparalagato.impl.model.HexTopology;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro de tamaño fijo de una partida hexagonal dentro de un ByteBuffer.
+ *
+ *   ocupada (1) | longitud del gameId (1) | gameId UTF-8 (48) | boardSize (2)
+ *   | gato q, r (2 + 2) | status (1) | moveCount (4) | seed (8) | createdAt (8)
+ *   | versión (8) | bitset de bloqueadas para maxBoardSize
+ *
+ * Los campos van en posiciones fijas: leer o escribir uno es un acceso absoluto al
+ * buffer, sin codificación de longitud variable. El bitset usa el índice denso de
+ * HexTopology del tablero de la partida; el tamaño de ranura lo fija maxBoardSize.
+ */
+final class GameSlotLayout {
+
+    static final int MAX_ID_BYTES = 48;
+
+    private static final int OFFSET_USED = 0;
+    private static final int OFFSET_ID_LENGTH = 1;
+    private static final int OFFSET_ID = 2;
+    private static final int OFFSET_BOARD_SIZE = OFFSET_ID + MAX_ID_BYTES;
+    private static final int OFFSET_CAT_Q = OFFSET_BOARD_SIZE + 2;
+    private static final int OFFSET_CAT_R = OFFSET_CAT_Q + 2;
+    private static final int OFFSET_STATUS = OFFSET_CAT_R + 2;
+    private static final int OFFSET_MOVE_COUNT = OFFSET_STATUS + 1;
+    private static final int OFFSET_SEED = OFFSET_MOVE_COUNT + 4;
+    private static final int OFFSET_CREATED_AT = OFFSET_SEED + 8;
+    private static final int OFFSET_VERSION = OFFSET_CREATED_AT + 8;
+    private static final int OFFSET_BLOCKED = OFFSET_VERSION + 8;
+
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    private final int maxBoardSize;
+    private final int bitsetBytes;
+    private final int slotSize;
+
+    GameSlotLayout(int maxBoardSize) {
+        if (maxBoardSize <= 0) {
+            throw new IllegalArgumentException("Invalid maximum board size: " + maxBoardSize);
+        }
+        this.maxBoardSize = maxBoardSize;
+        this.bitsetBytes = (HexTopology.of(maxBoardSize).getCellCount() + 7) / 8;
+        this.slotSize = (OFFSET_BLOCKED + bitsetBytes + 7) & ~7;
+    }
+
+    int getMaxBoardSize() {
+        return maxBoardSize;
+    }
+
+    int getSlotSize() {
+        return slotSize;
+    }
+
+    /**
+     * gameId en UTF-8, comprobando que la partida cabe en una ranura.
+     */
+    byte[] checkFits(HexGameState gameState) {
+        if (gameState.getBoardSize() > maxBoardSize) {
+            throw new IllegalArgumentException("Board size " + gameState.getBoardSize()
+                    + " does not fit in slots for size " + maxBoardSize);
+        }
+        byte[] id = gameState.getGameId().getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Game id longer than " + MAX_ID_BYTES + " bytes: " + gameState.getGameId());
+        }
+        return id;
+    }
+
+    /**
+     * Escribe una partida en una ranura libre. Se marca ocupada al final: una ranura
+     * a medio escribir sigue viéndose libre.
+     */
+    void writeNew(ByteBuffer buffer, int offset, byte[] id, HexGameState gameState) {
+        buffer.put(offset + OFFSET_ID_LENGTH, (byte) id.length);
+        buffer.put(offset + OFFSET_ID, id);
+        writeFields(buffer, offset, gameState);
+        buffer.put(offset + OFFSET_USED, (byte) 1);
+    }
+
+    /**
+     * Sobrescribe el estado de la partida que ya ocupa la ranura.
+     */
+    void writeFields(ByteBuffer buffer, int offset, HexGameState gameState) {
+        HexTopology topology = HexTopology.of(gameState.getBoardSize());
+        byte[] bitset = new byte[bitsetBytes];
+        for (HexPosition cell : gameState.getGameBoard().getBlockedPositions()) {
+            int index = topology.indexOf(cell);
+            if (index >= 0) {
+                bitset[index >>> 3] |= (byte) (1 << (index & 7));
+            }
+        }
+        buffer.putShort(offset + OFFSET_BOARD_SIZE, (short) gameState.getBoardSize());
+        buffer.putShort(offset + OFFSET_CAT_Q, (short) gameState.getCatPosition().getQ());
+        buffer.putShort(offset + OFFSET_CAT_R, (short) gameState.getCatPosition().getR());
+        buffer.put(offset + OFFSET_STATUS, (byte) gameState.getStatus().ordinal());
+        buffer.putInt(offset + OFFSET_MOVE_COUNT, gameState.getMoveCount());
+        buffer.putLong(offset + OFFSET_SEED, gameState.getSeed());
+        buffer.putLong(offset + OFFSET_CREATED_AT, gameState.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        buffer.putLong(offset + OFFSET_VERSION, gameState.getVersion());
+        buffer.put(offset + OFFSET_BLOCKED, bitset);
+    }
+
+    /**
+     * Reconstruye la partida de la ranura por el camino de restoreFromSerializable.
+     */
+    HexGameState read(ByteBuffer buffer, int offset) {
+        int boardSize = buffer.getShort(offset + OFFSET_BOARD_SIZE);
+        if (boardSize <= 0 || boardSize > maxBoardSize) {
+            throw new IllegalArgumentException("Invalid board size " + boardSize + " in game slot");
+        }
+        HexTopology topology = HexTopology.of(boardSize);
+        byte[] bitset = new byte[(topology.getCellCount() + 7) / 8];
+        buffer.get(offset + OFFSET_BLOCKED, bitset);
+        List<HexPosition> blockedCells = new ArrayList<>();
+        for (int i = 0; i < topology.getCellCount(); i++) {
+            if ((bitset[i >>> 3] & (1 << (i & 7))) != 0) {
+                blockedCells.add(topology.positionAt(i));
+            }
+        }
+
+        long seed = buffer.getLong(offset + OFFSET_SEED);
+        Map<String, Object> state = new HashMap<>();
+        state.put("catPosition", Map.of("q", (int) buffer.getShort(offset + OFFSET_CAT_Q),
+                "r", (int) buffer.getShort(offset + OFFSET_CAT_R)));
+        state.put("blockedCells", blockedCells);
+        state.put("status", readStatus(buffer, offset).toString());
+        state.put("moveCount", buffer.getInt(offset + OFFSET_MOVE_COUNT));
+        state.put("seed", seed);
+        state.put("createdAt", buffer.getLong(offset + OFFSET_CREATED_AT));
+        HexGameState gameState = new HexGameState(readId(buffer, offset), boardSize, seed);
+        gameState.restoreFromSerializable(state);
+        gameState.setVersion(buffer.getLong(offset + OFFSET_VERSION));
+        return gameState;
+    }
+
+    static boolean isUsed(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + OFFSET_USED) != 0;
+    }
+
+    static void markFree(ByteBuffer buffer, int offset) {
+        buffer.put(offset + OFFSET_USED, (byte) 0);
+    }
+
+    static GameStatus readStatus(ByteBuffer buffer, int offset) {
+        return STATUSES[buffer.get(offset + OFFSET_STATUS)];
+    }
+
+    static String readId(ByteBuffer buffer, int offset) {
+        byte[] id = new byte[buffer.get(offset + OFFSET_ID_LENGTH)];
+        buffer.get(offset + OFFSET_ID, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    static boolean sameId(ByteBuffer buffer, int offset, byte[] id) {
+        if (buffer.get(offset + OFFSET_ID_LENGTH) != id.length) {
+            return false;
+        }
+        for (int i = 0; i < id.length; i++) {
+            if (buffer.get(offset + OFFSET_ID + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
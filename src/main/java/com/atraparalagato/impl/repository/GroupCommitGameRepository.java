@@ -0,0 +1,326 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.metrics.LogLinearHistogram;
+import com.atraparalagato.impl.model.GameMove;
+import com.atraparalagato.impl.model.HexGameState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Commit agrupado delante de un repositorio de partidas hexagonales.
+ *
+ * save y appendMove no vuelven hasta que la escritura está confirmada, igual que
+ * escribiendo directamente, pero un solo hilo hace los commits: toma todo lo que
+ * haya en cola (esperando como mucho maxWaitMicros a que llegue más) y lo escribe en
+ * una transacción. Con el repositorio en modo SYNC cada commit sincroniza el disco,
+ * así que N escrituras concurrentes cuestan un fsync en vez de N.
+ *
+ * Si la transacción del grupo falla, cada escritura se reintenta en su propia
+ * transacción: solo fallan las que fallarían solas. Lecturas, borrados y
+ * executeInTransaction van directamente al repositorio subyacente.
+ */
+public class GroupCommitGameRepository extends DataRepository<HexGameState, String> implements GameMoveLog {
+
+    private final DataRepository<HexGameState, String> delegate;
+    private final GameMoveLog delegateLog;
+    private final long maxWaitNanos;
+    private final int maxGroupSize;
+
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    // Protege running frente a las escrituras que se encolan: tras shutdown no entra nada
+    private final Object lifecycle = new Object();
+    private volatile boolean running = true;
+
+    // Métricas (el histograma se protege con synchronized)
+    private final LogLinearHistogram commitLatencyMicros = new LogLinearHistogram();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong committedWrites = new AtomicLong();
+    private final AtomicLong groupFailures = new AtomicLong();
+
+    public GroupCommitGameRepository(DataRepository<HexGameState, String> delegate,
+                                     long maxWaitMicros, int maxGroupSize) {
+        if (maxWaitMicros < 0 || maxGroupSize <= 0) {
+            throw new IllegalArgumentException("Invalid group commit window: " + maxWaitMicros + "us, " + maxGroupSize);
+        }
+        this.delegate = delegate;
+        this.delegateLog = delegate instanceof GameMoveLog log ? log : null;
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.maxGroupSize = maxGroupSize;
+        this.committer = new Thread(this::commitLoop, "game-group-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    @Override
+    public HexGameState save(HexGameState entity) {
+        if (!validateEntity(entity)) {
+            throw new IllegalArgumentException("Invalid game state entity");
+        }
+        submit(new PendingWrite(entity, List.of()));
+        return entity;
+    }
+
+    @Override
+    public void appendMoves(HexGameState gameState, List<GameMove> moves) {
+        if (moves.isEmpty()) return;
+        submit(new PendingWrite(gameState, List.copyOf(moves)));
+    }
+
+    @Override
+    public Optional<HexGameState> findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<GameMove> findMoves(String gameId) {
+        return requireDelegateLog().findMoves(gameId);
+    }
+
+    @Override
+    public Optional<HexGameState> loadAt(String gameId, int seq) {
+        return requireDelegateLog().loadAt(gameId, seq);
+    }
+
+    @Override
+    public List<HexGameState> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<HexGameState> findWhere(Predicate<HexGameState> condition) {
+        return delegate.findWhere(condition);
+    }
+
+    @Override
+    public <R> List<R> findAndTransform(Predicate<HexGameState> condition, Function<HexGameState, R> transformer) {
+        return delegate.findAndTransform(condition, transformer);
+    }
+
+    @Override
+    public long countWhere(Predicate<HexGameState> condition) {
+        return delegate.countWhere(condition);
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        return delegate.deleteById(id);
+    }
+
+    @Override
+    public long deleteWhere(Predicate<HexGameState> condition) {
+        return delegate.deleteWhere(condition);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public <R> R executeInTransaction(Function<DataRepository<HexGameState, String>, R> operation) {
+        return delegate.executeInTransaction(operation);
+    }
+
+    @Override
+    public List<HexGameState> findWithPagination(int page, int size) {
+        return delegate.findWithPagination(page, size);
+    }
+
+    @Override
+    public List<HexGameState> findAllSorted(Function<HexGameState, ? extends Comparable<?>> sortKeyExtractor, boolean ascending) {
+        return delegate.findAllSorted(sortKeyExtractor, ascending);
+    }
+
+    @Override
+    public <R> List<R> executeCustomQuery(String query, Function<Object, R> resultMapper) {
+        return delegate.executeCustomQuery(query, resultMapper);
+    }
+
+    /**
+     * Deja de aceptar escrituras, confirma las que estaban en cola y detiene el hilo de commit.
+     */
+    public void shutdown() {
+        synchronized (lifecycle) {
+            running = false;
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Commits, escrituras confirmadas, tamaño medio de grupo y latencia hasta la confirmación.
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        long commitCount = commits.get();
+        long writeCount = committedWrites.get();
+        metrics.put("commits", commitCount);
+        metrics.put("committedWrites", writeCount);
+        metrics.put("meanGroupSize", commitCount == 0 ? 0.0 : (double) writeCount / commitCount);
+        metrics.put("groupFailures", groupFailures.get());
+        metrics.put("queuedWrites", queue.size());
+        synchronized (commitLatencyMicros) {
+            metrics.put("commitLatencyMeanMs", commitLatencyMicros.getMean() / 1000.0);
+            metrics.put("commitLatencyP99Ms", commitLatencyMicros.getPercentile(99) / 1000.0);
+            metrics.put("commitLatencyMaxMs", commitLatencyMicros.getMax() / 1000.0);
+        }
+        return metrics;
+    }
+
+    @Override
+    protected void initialize() {
+        // El hilo de commit arranca en el constructor
+    }
+
+    @Override
+    protected void cleanup() {
+        shutdown();
+    }
+
+    @Override
+    protected boolean validateEntity(HexGameState entity) {
+        return entity != null && entity.getGameId() != null && !entity.getGameId().trim().isEmpty();
+    }
+
+    private void submit(PendingWrite write) {
+        synchronized (lifecycle) {
+            if (!running) {
+                throw new IllegalStateException("Group commit is shut down");
+            }
+            queue.add(write);
+        }
+        try {
+            write.done.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void commitLoop() {
+        List<PendingWrite> group = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                // Ventana de agrupación: lo que llegue mientras tanto comparte el commit
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (group.size() < maxGroupSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                commit(group);
+            } catch (InterruptedException e) {
+                // Solo se sale cuando la cola está vacía y ya no se aceptan escrituras
+                Thread.interrupted();
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> group) {
+        RuntimeException[] errors = new RuntimeException[group.size()];
+        try {
+            delegate.executeInTransaction(repo -> {
+                write(group);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            groupFailures.incrementAndGet();
+            // Reintento individual para que una escritura inválida no arrastre al resto del grupo
+            for (int i = 0; i < group.size(); i++) {
+                PendingWrite write = group.get(i);
+                try {
+                    delegate.executeInTransaction(repo -> {
+                        write(List.of(write));
+                        return null;
+                    });
+                } catch (RuntimeException ex) {
+                    errors[i] = ex;
+                }
+            }
+        }
+
+        // Métricas antes de despertar a quien espera: cuando save vuelve, su escritura ya cuenta
+        long now = System.nanoTime();
+        commits.incrementAndGet();
+        committedWrites.addAndGet(group.size());
+        synchronized (commitLatencyMicros) {
+            for (PendingWrite write : group) {
+                commitLatencyMicros.record((now - write.submittedNanos) / 1000);
+            }
+        }
+        for (int i = 0; i < group.size(); i++) {
+            if (errors[i] == null) {
+                group.get(i).done.complete(null);
+            } else {
+                group.get(i).done.completeExceptionally(errors[i]);
+            }
+        }
+    }
+
+    // Escribe en orden de llegada; los save consecutivos van en un solo saveAll
+    private void write(List<PendingWrite> writes) {
+        List<HexGameState> saves = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            if (write.moves.isEmpty() || delegateLog == null) {
+                saves.add(write.gameState);
+                continue;
+            }
+            if (!saves.isEmpty()) {
+                delegate.saveAll(saves);
+                saves.clear();
+            }
+            delegateLog.appendMoves(write.gameState, write.moves);
+        }
+        if (!saves.isEmpty()) {
+            delegate.saveAll(saves);
+        }
+    }
+
+    private GameMoveLog requireDelegateLog() {
+        if (delegateLog == null) {
+            throw new UnsupportedOperationException("The underlying repository does not keep a move log");
+        }
+        return delegateLog;
+    }
+
+    /**
+     * Escritura en espera de commit. Quien la envía está bloqueado hasta que done se completa.
+     */
+    private static final class PendingWrite {
+        final HexGameState gameState;
+        final List<GameMove> moves;
+        final long submittedNanos = System.nanoTime();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingWrite(HexGameState gameState, List<GameMove> moves) {
+            this.gameState = gameState;
+            this.moves = moves;
+        }
+    }
+}
@@ -1,97 +1,372 @@
 package com.atraparalagato.impl.repository;
 
 import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.model.GameMove;
 import com.atraparalagato.impl.model.HexGameState;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.atraparalagato.impl.model.HexPosition;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 
 import java.sql.*;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class H2GameRepository extends DataRepository<HexGameState, String> {
+/**
+ * Repositorio de partidas hexagonales sobre H2.
+ *
+ * Cada operación toma su propia conexión de un pool acotado (HikariCP) y la devuelve
+ * al terminar, así que las peticiones concurrentes no comparten conexión ni estado
+ * de autoCommit. Statements y ResultSets siempre se cierran con try-with-resources.
+ * Las conexiones del pool viven mucho tiempo, por lo que la caché de consultas
+ * de H2 (QUERY_CACHE_SIZE) evita volver a parsear el SQL en cada operación.
+ *
+ * executeInTransaction fija una conexión al hilo actual: las operaciones del
+ * repositorio que se hagan dentro de la transacción usan esa misma conexión.
+ *
+ * Cada partida se guarda en un BLOB con el formato binario de HexGameStateCodec.
+ *
+ * Las jugadas no reescriben la partida: appendMove añade una fila de pocos bytes a
+ * game_moves y solo cada SNAPSHOT_INTERVAL movimientos (o al terminar) se guarda una
+ * instantánea. hex_game_state tiene la última instantánea y su número de movimiento;
+ * game_snapshots conserva las anteriores para poder reconstruir cualquier punto.
+ * Al leer una partida se reproduce el registro posterior a su instantánea.
+ *
+ * hex_game_state también guarda columnas de proyección (status, board_size,
+ * move_count, score, created_at) con el estado actual de la partida, no el de la
+ * instantánea: se escriben con cada instantánea y se actualizan con cada lote de
+ * movimientos. Las consultas GameQuery se traducen a SQL sobre esas columnas
+ * indexadas; cualquier otro Predicate se evalúa en memoria cargando todas las partidas.
+ *
+ * Cada fila lleva una versión que sube con cada escritura (control optimista para
+ * varias instancias sobre la misma base). Las partidas leídas de aquí recuerdan su
+ * versión y solo se escriben si la fila sigue en ella; si no, GameConflictException y
+ * no se aplica nada. Las partidas sin versión (nuevas o decodificadas en otra capa,
+ * como la escritura diferida) se escriben sin comprobar, como antes.
+ *
+ * Con DurabilityMode.SYNC la base de datos está en fichero y cada commit termina con
+ * CHECKPOINT SYNC, que fuerza los datos a disco; por eso conviene agrupar escrituras
+ * concurrentes en una transacción (GroupCommitGameRepository). Los otros modos no
+ * sincronizan en cada commit.
+ *
+ * Para recorrer muchas partidas sin cargarlas todas: findPageAfter pagina por clave
+ * (created_at, game_id) en vez de OFFSET, y stream devuelve un cursor que decodifica
+ * las filas a medida que se consumen.
+ */
+public class H2GameRepository extends DataRepository<HexGameState, String> implements GameMoveLog {
 
-    private final Connection connection;
-    private final ObjectMapper mapper = new ObjectMapper();
+    // Puedes cambiar la URL si quieres persistencia en disco
+    private static final String DEFAULT_URL = "jdbc:h2:mem:gatodb;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64";
+    // Fichero propio: el de spring.datasource.url lo tiene abierto (y bloqueado) el DataSource de JPA
+    private static final String FILE_URL = "jdbc:h2:file:./data/atrapar-al-gato-games;WRITE_DELAY=0;QUERY_CACHE_SIZE=64";
+    private static final int DEFAULT_POOL_SIZE = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    private static final long CONNECTION_TIMEOUT_MS = 5_000;
+    // Movimientos entre instantáneas: acota lo que hay que reproducir al cargar
+    private static final int SNAPSHOT_INTERVAL = 16;
+    // Filas que el cursor de stream lee por bloque (y movimientos pendientes por consulta)
+    private static final int STREAM_FETCH_SIZE = 256;
+    // SQLSTATE de clave duplicada
+    private static final String DUPLICATE_KEY_STATE = "23505";
+
+    private final HikariDataSource dataSource;
+    private final boolean syncOnCommit;
+    // Conexión de la transacción en curso en este hilo (null fuera de executeInTransaction)
+    private final ThreadLocal<Connection> transactionConnection = new ThreadLocal<>();
+    // Lo que espera al commit de esa transacción (p. ej. dar a las partidas su versión nueva)
+    private final ThreadLocal<List<Runnable>> commitActions = new ThreadLocal<>();
 
     public H2GameRepository() {
+        this(DEFAULT_URL, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Base de datos en memoria (MEMORY) o en fichero (SYNC, ASYNC); solo SYNC sincroniza en cada commit.
+     */
+    public H2GameRepository(DurabilityMode durability) {
+        this(durability == DurabilityMode.MEMORY ? DEFAULT_URL : FILE_URL, DEFAULT_POOL_SIZE,
+                durability == DurabilityMode.SYNC);
+    }
+
+    /**
+     * Fragmento shard de una base repartida (ShardedGameRepository): como el constructor
+     * por durabilidad, pero con su propia base en memoria o su propio fichero.
+     */
+    public H2GameRepository(DurabilityMode durability, int shard) {
+        this(shardUrl(durability == DurabilityMode.MEMORY ? DEFAULT_URL : FILE_URL, shard), DEFAULT_POOL_SIZE,
+                durability == DurabilityMode.SYNC);
+    }
+
+    public H2GameRepository(String jdbcUrl, int maxPoolSize) {
+        this(jdbcUrl, maxPoolSize, false);
+    }
+
+    public H2GameRepository(String jdbcUrl, int maxPoolSize, boolean syncOnCommit) {
+        if (maxPoolSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxPoolSize);
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("h2-game-repository");
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(Math.min(2, maxPoolSize));
+        config.setConnectionTimeout(CONNECTION_TIMEOUT_MS);
+        this.syncOnCommit = syncOnCommit;
         try {
-            // Puedes cambiar la URL si quieres persistencia en disco
-            connection = DriverManager.getConnection("jdbc:h2:mem:gatodb;DB_CLOSE_DELAY=-1", "sa", "");
+            this.dataSource = new HikariDataSource(config);
             createSchema();
-        } catch (SQLException e) {
+        } catch (RuntimeException e) {
             throw new RuntimeException("Error al conectar a H2", e);
         }
     }
 
-    private void createSchema() throws SQLException {
-        String sql = """
+    // Añade el número de fragmento al nombre de la base, antes de los parámetros
+    private static String shardUrl(String url, int shard) {
+        int parameters = url.indexOf(';');
+        return url.substring(0, parameters) + "-shard-" + shard + url.substring(parameters);
+    }
+
+    private void createSchema() {
+        String gamesTable = """
             CREATE TABLE IF NOT EXISTS hex_game_state (
                 game_id VARCHAR(255) PRIMARY KEY,
-                data CLOB
+                seq INT NOT NULL,
+                data BLOB,
+                status VARCHAR(16) NOT NULL,
+                board_size INT NOT NULL,
+                move_count INT NOT NULL,
+                score INT NOT NULL,
+                created_at TIMESTAMP NOT NULL,
+                version BIGINT DEFAULT 1 NOT NULL
             )
         """;
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-        }
+        // Bases creadas antes de la columna de versión
+        String versionColumn = "ALTER TABLE hex_game_state ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 1 NOT NULL";
+        String[] gamesIndexes = {
+            "CREATE INDEX IF NOT EXISTS idx_game_status_score ON hex_game_state (status, score)",
+            "CREATE INDEX IF NOT EXISTS idx_game_score ON hex_game_state (score)",
+            "CREATE INDEX IF NOT EXISTS idx_game_created_at_id ON hex_game_state (created_at, game_id)"
+        };
+        String snapshotsTable = """
+            CREATE TABLE IF NOT EXISTS game_snapshots (
+                game_id VARCHAR(255) NOT NULL,
+                seq INT NOT NULL,
+                data BLOB,
+                PRIMARY KEY (game_id, seq),
+                FOREIGN KEY (game_id) REFERENCES hex_game_state(game_id) ON DELETE CASCADE
+            )
+        """;
+        String movesTable = """
+            CREATE TABLE IF NOT EXISTS game_moves (
+                game_id VARCHAR(255) NOT NULL,
+                seq INT NOT NULL,
+                blocked_q SMALLINT NOT NULL,
+                blocked_r SMALLINT NOT NULL,
+                cat_q SMALLINT,
+                cat_r SMALLINT,
+                PRIMARY KEY (game_id, seq),
+                FOREIGN KEY (game_id) REFERENCES hex_game_state(game_id) ON DELETE CASCADE
+            )
+        """;
+        withConnection("Error creando el esquema", connection -> {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(gamesTable);
+                stmt.execute(versionColumn);
+                for (String index : gamesIndexes) {
+                    stmt.execute(index);
+                }
+                stmt.execute(snapshotsTable);
+                stmt.execute(movesTable);
+            }
+            return null;
+        });
     }
 
     @Override
     public HexGameState save(HexGameState entity) {
         if (entity == null) throw new IllegalArgumentException("Entity cannot be null");
         beforeSave(entity);
-        try {
-            String json = serializeGameState(entity);
-            PreparedStatement stmt = connection.prepareStatement(
-                "MERGE INTO hex_game_state (game_id, data) KEY(game_id) VALUES (?, ?)");
-            stmt.setString(1, entity.getGameId());
-            stmt.setString(2, json);
-            stmt.executeUpdate();
-            afterSave(entity);
-            return entity;
-        } catch (Exception e) {
-            throw new RuntimeException("Error al guardar HexGameState", e);
+        List<HexGameState> games = List.of(entity);
+        inTransaction("Error al guardar HexGameState", connection -> {
+            Map<String, Long> next = bumpVersions(connection, games);
+            writeSnapshots(connection, games);
+            truncateAfterSnapshot(connection, games);
+            readNewVersions(connection, games, next);
+            afterCommit(() -> applyVersions(games, next));
+            return null;
+        });
+        afterSave(entity);
+        return entity;
+    }
+
+    /**
+     * Guarda todas las partidas en una transacción con sentencias en lote
+     * (addBatch/executeBatch): un viaje a la base de datos por sentencia, no por partida.
+     */
+    @Override
+    public List<HexGameState> saveAll(Collection<HexGameState> entities) {
+        if (entities.isEmpty()) return new ArrayList<>();
+        List<HexGameState> games = new ArrayList<>(entities);
+        games.forEach(this::beforeSave);
+        inTransaction("Error al guardar partidas", connection -> {
+            Map<String, Long> next = bumpVersions(connection, games);
+            writeSnapshots(connection, games);
+            truncateAfterSnapshot(connection, games);
+            readNewVersions(connection, games, next);
+            afterCommit(() -> applyVersions(games, next));
+            return null;
+        });
+        games.forEach(this::afterSave);
+        return games;
+    }
+
+    @Override
+    public void appendMoves(HexGameState gameState, List<GameMove> moves) {
+        if (moves.isEmpty()) return;
+        int firstSeq = moves.get(0).getSeq();
+        int lastSeq = moves.get(moves.size() - 1).getSeq();
+        if (lastSeq != gameState.getMoveCount()) {
+            throw new IllegalArgumentException("Last move " + lastSeq + " does not match move count "
+                    + gameState.getMoveCount() + " of game " + gameState.getGameId());
         }
+        List<HexGameState> games = List.of(gameState);
+        inTransaction("Error al registrar movimiento", connection -> {
+            // Primero la versión: si otro escribió la partida, no se inserta nada
+            Map<String, Long> next = bumpVersions(connection, games);
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO game_moves (game_id, seq, blocked_q, blocked_r, cat_q, cat_r) VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (GameMove move : moves) {
+                    stmt.setString(1, gameState.getGameId());
+                    stmt.setInt(2, move.getSeq());
+                    stmt.setInt(3, move.getBlockedCell().getQ());
+                    stmt.setInt(4, move.getBlockedCell().getR());
+                    Optional<HexPosition> catDestination = move.getCatDestination();
+                    if (catDestination.isPresent()) {
+                        stmt.setInt(5, catDestination.get().getQ());
+                        stmt.setInt(6, catDestination.get().getR());
+                    } else {
+                        stmt.setNull(5, Types.SMALLINT);
+                        stmt.setNull(6, Types.SMALLINT);
+                    }
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            // Instantánea si el lote cruza un múltiplo de SNAPSHOT_INTERVAL o la partida terminó
+            if (lastSeq / SNAPSHOT_INTERVAL > (firstSeq - 1) / SNAPSHOT_INTERVAL || gameState.isGameFinished()) {
+                writeSnapshots(connection, List.of(gameState));
+            } else {
+                updateProjection(connection, gameState);
+            }
+            readNewVersions(connection, games, next);
+            afterCommit(() -> applyVersions(games, next));
+            return null;
+        });
+    }
+
+    @Override
+    public List<GameMove> findMoves(String gameId) {
+        if (gameId == null) return Collections.emptyList();
+        return withConnection("Error al leer movimientos", connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT game_id, seq, blocked_q, blocked_r, cat_q, cat_r FROM game_moves WHERE game_id = ? ORDER BY seq")) {
+                stmt.setString(1, gameId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    List<GameMove> moves = new ArrayList<>();
+                    while (rs.next()) {
+                        moves.add(readMove(rs));
+                    }
+                    return moves;
+                }
+            }
+        });
+    }
+
+    @Override
+    public Optional<HexGameState> loadAt(String gameId, int seq) {
+        if (gameId == null || seq < 0) return Optional.empty();
+        return withConnection("Error al reconstruir la partida", connection -> {
+            HexGameState state;
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT data FROM game_snapshots WHERE game_id = ? AND seq <= ? ORDER BY seq DESC LIMIT 1")) {
+                stmt.setString(1, gameId);
+                stmt.setInt(2, seq);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return Optional.empty();
+                    }
+                    state = HexGameStateCodec.decode(gameId, rs.getBytes("data"));
+                }
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT game_id, seq, blocked_q, blocked_r, cat_q, cat_r FROM game_moves "
+                    + "WHERE game_id = ? AND seq > ? AND seq <= ? ORDER BY seq")) {
+                stmt.setString(1, gameId);
+                stmt.setInt(2, state.getMoveCount());
+                stmt.setInt(3, seq);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        state.replayMove(readMove(rs));
+                    }
+                }
+            }
+            return state.getMoveCount() == seq ? Optional.of(state) : Optional.empty();
+        });
     }
 
     @Override
     public Optional<HexGameState> findById(String id) {
         if (id == null) return Optional.empty();
-        try {
-            PreparedStatement stmt = connection.prepareStatement(
-                "SELECT data FROM hex_game_state WHERE game_id = ?");
-            stmt.setString(1, id);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                String json = rs.getString("data");
-                return Optional.of(deserializeGameState(json, id));
-            } else {
-                return Optional.empty();
+        return withConnection("Error al buscar por ID", connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT data, version FROM hex_game_state WHERE game_id = ?")) {
+                stmt.setString(1, id);
+                Map<String, HexGameState> games;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return Optional.empty();
+                    }
+                    HexGameState gameState = HexGameStateCodec.decode(id, rs.getBytes("data"));
+                    gameState.setVersion(rs.getLong("version"));
+                    games = Map.of(id, gameState);
+                }
+                replayPendingMoves(connection, games);
+                return Optional.of(games.get(id));
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar por ID", e);
-        }
+        });
     }
 
     @Override
     public List<HexGameState> findAll() {
-        try {
-            List<HexGameState> list = new ArrayList<>();
-            Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT game_id, data FROM hex_game_state");
-            while (rs.next()) {
-                list.add(deserializeGameState(rs.getString("data"), rs.getString("game_id")));
+        return withConnection("Error al obtener todos", connection -> {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT game_id, data, version FROM hex_game_state")) {
+                return readGames(connection, rs);
             }
-            return list;
-        } catch (Exception e) {
-            throw new RuntimeException("Error al obtener todos", e);
-        }
+        });
     }
 
     @Override
     public List<HexGameState> findWhere(Predicate<HexGameState> condition) {
-        // Simple: carga todos y filtra en memoria (igual que el ejemplo)
+        if (condition instanceof GameQuery query) {
+            List<Object> params = new ArrayList<>();
+            String sql = "SELECT game_id, data, version FROM hex_game_state" + whereClause(query, params)
+                    + (query.isOrderedByScoreDescending() ? " ORDER BY score DESC, game_id" : "")
+                    + (query.getLimit() > 0 ? " LIMIT " + query.getLimit() : "");
+            return withConnection("Error en consulta de partidas", connection -> {
+                try (PreparedStatement stmt = prepare(connection, sql, params);
+                     ResultSet rs = stmt.executeQuery()) {
+                    return readGames(connection, rs);
+                }
+            });
+        }
+        // Predicate opaco: carga todos y filtra en memoria
         return findAll().stream().filter(condition).collect(Collectors.toList());
     }
 
@@ -102,85 +377,162 @@ public class H2GameRepository extends DataRepository<HexGameState, String> {
 
     @Override
     public long countWhere(Predicate<HexGameState> condition) {
+        if (condition instanceof GameQuery query) {
+            List<Object> params = new ArrayList<>();
+            String sql = "SELECT COUNT(*) FROM hex_game_state" + whereClause(query, params);
+            long count = withConnection("Error al contar partidas", connection -> {
+                try (PreparedStatement stmt = prepare(connection, sql, params);
+                     ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            });
+            return query.getLimit() > 0 ? Math.min(count, query.getLimit()) : count;
+        }
         return findWhere(condition).stream().count();
     }
 
     @Override
     public boolean deleteById(String id) {
         if (id == null) return false;
-        try {
-            PreparedStatement stmt = connection.prepareStatement(
-                "DELETE FROM hex_game_state WHERE game_id = ?");
-            stmt.setString(1, id);
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            throw new RuntimeException("Error al eliminar por ID", e);
-        }
+        return inTransaction("Error al eliminar por ID", connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "DELETE FROM hex_game_state WHERE game_id = ?")) {
+                stmt.setString(1, id);
+                return stmt.executeUpdate() > 0;
+            }
+        });
     }
 
+    /**
+     * Con una GameQuery es un único DELETE ... WHERE sobre las columnas de proyección;
+     * con un Predicate opaco se evalúa en memoria y se borran los elegidos en un solo DELETE.
+     * Movimientos e instantáneas se borran en cascada.
+     */
     @Override
     public long deleteWhere(Predicate<HexGameState> condition) {
-        List<HexGameState> toDelete = findWhere(condition);
-        long deletedCount = 0;
-        for (HexGameState g : toDelete) {
-            if (deleteById(g.getGameId())) deletedCount++;
+        if (condition instanceof GameQuery query) {
+            List<Object> params = new ArrayList<>();
+            String where = whereClause(query, params);
+            String sql = query.getLimit() > 0
+                    // Con límite se borran exactamente las filas que devolvería findWhere
+                    ? "DELETE FROM hex_game_state WHERE game_id IN (SELECT game_id FROM hex_game_state" + where
+                            + (query.isOrderedByScoreDescending() ? " ORDER BY score DESC, game_id" : "")
+                            + " LIMIT " + query.getLimit() + ")"
+                    : "DELETE FROM hex_game_state" + where;
+            return inTransaction("Error al eliminar partidas", connection -> {
+                try (PreparedStatement stmt = prepare(connection, sql, params)) {
+                    return (long) stmt.executeUpdate();
+                }
+            });
         }
-        return deletedCount;
+        List<String> gameIds = findWhere(condition).stream().map(HexGameState::getGameId).toList();
+        if (gameIds.isEmpty()) return 0;
+        return inTransaction("Error al eliminar partidas", connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "DELETE FROM hex_game_state WHERE game_id = ANY(?)")) {
+                stmt.setArray(1, connection.createArrayOf("VARCHAR", gameIds.toArray()));
+                return (long) stmt.executeUpdate();
+            }
+        });
     }
 
     @Override
     public boolean existsById(String id) {
         if (id == null) return false;
-        try {
-            PreparedStatement stmt = connection.prepareStatement(
-                "SELECT COUNT(*) FROM hex_game_state WHERE game_id = ?");
-            stmt.setString(1, id);
-            ResultSet rs = stmt.executeQuery();
-            rs.next();
-            return rs.getInt(1) > 0;
-        } catch (SQLException e) {
-            throw new RuntimeException("Error al verificar existencia", e);
-        }
+        return withConnection("Error al verificar existencia", connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT 1 FROM hex_game_state WHERE game_id = ?")) {
+                stmt.setString(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        });
     }
 
     @Override
     public <R> R executeInTransaction(Function<DataRepository<HexGameState, String>, R> operation) {
-        try {
-            connection.setAutoCommit(false);
-            R result = operation.apply(this);
-            connection.commit();
-            return result;
-        } catch (Exception e) {
-            try {
-                connection.rollback();
-            } catch (SQLException ex) {
-                System.err.println("Error en rollback: " + ex.getMessage());
-            }
-            throw new RuntimeException("Transaction failed", e);
-        } finally {
-            try {
-                connection.setAutoCommit(true);
-            } catch (SQLException ignored) {}
-        }
+        return inTransaction("Transaction failed", connection -> operation.apply(this));
     }
 
     @Override
     public List<HexGameState> findWithPagination(int page, int size) {
         if (page < 0 || size <= 0) return Collections.emptyList();
+        return withConnection("Error en paginación", connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT game_id, data, version FROM hex_game_state ORDER BY game_id LIMIT ? OFFSET ?")) {
+                stmt.setInt(1, size);
+                stmt.setLong(2, (long) page * size);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return readGames(connection, rs);
+                }
+            }
+        });
+    }
+
+    /**
+     * Página de partidas en orden (created_at, game_id) que empieza justo después de
+     * la partida dada. Coste proporcional al tamaño de página, no a su posición,
+     * porque la búsqueda salta directamente al índice (created_at, game_id).
+     *
+     * @param after última partida de la página anterior, o null para la primera página
+     */
+    public List<HexGameState> findPageAfter(HexGameState after, int size) {
+        if (size <= 0) return Collections.emptyList();
+        return withConnection("Error en paginación", connection -> {
+            String sql = "SELECT game_id, data, version FROM hex_game_state"
+                    + (after != null ? " WHERE (created_at, game_id) > (?, ?)" : "")
+                    + " ORDER BY created_at, game_id LIMIT ?";
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                int index = 1;
+                if (after != null) {
+                    stmt.setTimestamp(index++, createdAtColumn(after));
+                    stmt.setString(index++, after.getGameId());
+                }
+                stmt.setInt(index, size);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return readGames(connection, rs);
+                }
+            }
+        });
+    }
+
+    /**
+     * Recorre las partidas que cumplen la consulta con un cursor de solo avance.
+     * Las filas se leen en bloques de STREAM_FETCH_SIZE y cada partida se decodifica
+     * cuando el stream la pide, así que la memoria no depende del número de partidas.
+     * Orden: el de la consulta o, si no indica ninguno, (created_at, game_id).
+     *
+     * El stream tiene una conexión abierta: hay que cerrarlo (try-with-resources).
+     */
+    public Stream<HexGameState> stream(GameQuery query) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT game_id, data FROM hex_game_state" + whereClause(query, params)
+                + (query.isOrderedByScoreDescending() ? " ORDER BY score DESC, game_id" : " ORDER BY created_at, game_id")
+                + (query.getLimit() > 0 ? " LIMIT " + query.getLimit() : "");
+
+        // Dentro de una transacción se usa su conexión; si no, una del pool que se devuelve al cerrar
+        Connection current = transactionConnection.get();
+        Connection connection = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
         try {
-            PreparedStatement stmt = connection.prepareStatement(
-                "SELECT game_id, data FROM hex_game_state LIMIT ? OFFSET ?");
-            stmt.setInt(1, size);
-            stmt.setInt(2, page * size);
-            ResultSet rs = stmt.executeQuery();
-            List<HexGameState> list = new ArrayList<>();
-            while (rs.next()) {
-                list.add(deserializeGameState(rs.getString("data"), rs.getString("game_id")));
-            }
-            return list;
-        } catch (Exception e) {
-            throw new RuntimeException("Error en paginación", e);
+            connection = current != null ? current : dataSource.getConnection();
+            // prepareStatement crea por defecto un cursor TYPE_FORWARD_ONLY y de solo lectura
+            stmt = prepare(connection, sql, params);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(rs, stmt, current == null ? connection : null);
+            throw new RuntimeException("Error abriendo cursor de partidas", e);
         }
+
+        ResultSet cursor = rs;
+        PreparedStatement cursorStmt = stmt;
+        Connection owned = current == null ? connection : null;
+        return StreamSupport.stream(new GameCursor(connection, cursor), false)
+                .onClose(() -> closeQuietly(cursor, cursorStmt, owned));
     }
 
     @Override
@@ -199,26 +551,28 @@ public class H2GameRepository extends DataRepository<HexGameState, String> {
     @Override
     public <R> List<R> executeCustomQuery(String query, Function<Object, R> resultMapper) {
         // Ejemplo simple: solo soporta queries SQL que devuelvan game_id y data
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery(query);
-            List<R> result = new ArrayList<>();
-            while (rs.next()) {
-                String data = null;
-                String gameId = null;
-                try {
-                    data = rs.getString("data");
-                    gameId = rs.getString("game_id");
-                    HexGameState state = deserializeGameState(data, gameId);
-                    result.add(resultMapper.apply(state));
-                } catch (Exception ex) {
-                    System.err.println("Error deserializando estado del juego (game_id=" + gameId + "): " + ex.getMessage());
-                    // Puedes decidir si saltar el registro o lanzar una excepción
+        return withConnection("Error ejecutando consulta personalizada", connection -> {
+            Map<String, HexGameState> games = new LinkedHashMap<>();
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(query)) {
+                while (rs.next()) {
+                    String gameId = null;
+                    try {
+                        gameId = rs.getString("game_id");
+                        games.put(gameId, HexGameStateCodec.decode(gameId, rs.getBytes("data")));
+                    } catch (Exception ex) {
+                        System.err.println("Error deserializando estado del juego (game_id=" + gameId + "): " + ex.getMessage());
+                        // Puedes decidir si saltar el registro o lanzar una excepción
+                    }
                 }
             }
+            replayPendingMoves(connection, games);
+            List<R> result = new ArrayList<>();
+            for (HexGameState state : games.values()) {
+                result.add(resultMapper.apply(state));
+            }
             return result;
-        } catch (SQLException e) {
-            throw new RuntimeException("Error ejecutando consulta personalizada", e);
-        }
+        });
     }
 
     @Override
@@ -228,11 +582,7 @@ public class H2GameRepository extends DataRepository<HexGameState, String> {
 
     @Override
     protected void cleanup() {
-        try {
-            connection.close();
-        } catch (SQLException e) {
-            System.err.println("Error cerrando conexión");
-        }
+        dataSource.close();
     }
 
     @Override
@@ -253,14 +603,417 @@ public class H2GameRepository extends DataRepository<HexGameState, String> {
         System.out.println("Juego guardado exitosamente: " + entity.getGameId());
     }
 
-    // Serialización y deserialización usando Jackson
-    private String serializeGameState(HexGameState gameState) throws Exception {
-        return mapper.writeValueAsString(gameState);
+    /**
+     * Ejecuta una operación con la conexión de la transacción actual o, si no hay,
+     * con una conexión prestada del pool que se devuelve al terminar.
+     */
+    private <R> R withConnection(String errorMessage, SqlOperation<R> operation) {
+        Connection current = transactionConnection.get();
+        try {
+            if (current != null) {
+                return operation.apply(current);
+            }
+            try (Connection connection = dataSource.getConnection()) {
+                return operation.apply(connection);
+            }
+        } catch (GameConflictException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(errorMessage, e);
+        }
+    }
+
+    /**
+     * Ejecuta una operación dentro de una transacción. Si el hilo ya tiene una en curso,
+     * la operación se une a ella y el commit lo hace la transacción exterior.
+     */
+    private <R> R inTransaction(String errorMessage, SqlOperation<R> operation) {
+        if (transactionConnection.get() != null) {
+            return withConnection(errorMessage, operation);
+        }
+
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new RuntimeException(errorMessage, e);
+        }
+        try {
+            connection.setAutoCommit(false);
+            transactionConnection.set(connection);
+            List<Runnable> actions = new ArrayList<>();
+            commitActions.set(actions);
+            R result = operation.apply(connection);
+            connection.commit();
+            if (syncOnCommit) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("CHECKPOINT SYNC");
+                }
+            }
+            actions.forEach(Runnable::run);
+            return result;
+        } catch (Exception e) {
+            try {
+                connection.rollback();
+            } catch (SQLException ex) {
+                System.err.println("Error en rollback: " + ex.getMessage());
+            }
+            if (e instanceof GameConflictException conflict) {
+                throw conflict;
+            }
+            throw new RuntimeException(errorMessage, e);
+        } finally {
+            transactionConnection.remove();
+            commitActions.remove();
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ignored) {}
+            try {
+                connection.close();
+            } catch (SQLException ignored) {}
+        }
+    }
+
+    // Dentro de una transacción anidada espera al commit de la exterior: si esta se deshace, no se aplica
+    private void afterCommit(Runnable action) {
+        List<Runnable> actions = commitActions.get();
+        if (actions != null) {
+            actions.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    // Guarda las instantáneas como estado actual y en el historial de instantáneas
+    private void writeSnapshots(Connection connection, List<HexGameState> games) throws SQLException {
+        List<byte[]> data = new ArrayList<>(games.size());
+        for (HexGameState gameState : games) {
+            data.add(HexGameStateCodec.encode(gameState));
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "MERGE INTO hex_game_state (game_id, seq, data, status, board_size, move_count, score, created_at) "
+                + "KEY(game_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < games.size(); i++) {
+                HexGameState gameState = games.get(i);
+                stmt.setString(1, gameState.getGameId());
+                stmt.setInt(2, gameState.getMoveCount());
+                stmt.setBytes(3, data.get(i));
+                stmt.setString(4, gameState.getStatus().name());
+                stmt.setInt(5, gameState.getBoardSize());
+                stmt.setInt(6, gameState.getMoveCount());
+                stmt.setInt(7, gameState.calculateScore());
+                stmt.setTimestamp(8, createdAtColumn(gameState));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "MERGE INTO game_snapshots (game_id, seq, data) KEY(game_id, seq) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < games.size(); i++) {
+                stmt.setString(1, games.get(i).getGameId());
+                stmt.setInt(2, games.get(i).getMoveCount());
+                stmt.setBytes(3, data.get(i));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // El estado guardado es el actual: descarta lo posterior (p. ej. tras deshacer)
+    private static void truncateAfterSnapshot(Connection connection, List<HexGameState> games) throws SQLException {
+        for (String table : new String[] {"game_moves", "game_snapshots"}) {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "DELETE FROM " + table + " WHERE game_id = ? AND seq > ?")) {
+                for (HexGameState gameState : games) {
+                    stmt.setString(1, gameState.getGameId());
+                    stmt.setInt(2, gameState.getMoveCount());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Sube la versión de las partidas que se van a escribir. Con versión conocida es un
+     * UPDATE condicionado a que la fila siga en ella: si no, otro la escribió después de
+     * leerla y se lanza GameConflictException (la transacción se deshace). Las partidas
+     * nuevas (NEW_VERSION) se insertan en versión 1: si el gameId ya existe, la escritura
+     * falla en vez de pisar otra partida. Las partidas sin versión (que no vienen de este
+     * repositorio, p. ej. las de la escritura diferida) se escriben sin comprobar.
+     *
+     * @return versión nueva de las partidas comprobadas e insertadas, por gameId
+     */
+    private static Map<String, Long> bumpVersions(Connection connection, List<HexGameState> games) throws SQLException {
+        Map<String, Long> next = new HashMap<>();
+        List<HexGameState> checked = new ArrayList<>();
+        List<HexGameState> inserted = new ArrayList<>();
+        List<String> unchecked = new ArrayList<>();
+        for (HexGameState gameState : games) {
+            if (gameState.getVersion() > 0) {
+                checked.add(gameState);
+            } else if (gameState.getVersion() == HexGameState.NEW_VERSION) {
+                inserted.add(gameState);
+            } else {
+                unchecked.add(gameState.getGameId());
+            }
+        }
+        if (!inserted.isEmpty()) {
+            // Fila con la proyección; writeSnapshots la completa con la instantánea
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO hex_game_state (game_id, seq, status, board_size, move_count, score, created_at, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, 1)")) {
+                for (HexGameState gameState : inserted) {
+                    stmt.setString(1, gameState.getGameId());
+                    stmt.setInt(2, gameState.getMoveCount());
+                    stmt.setString(3, gameState.getStatus().name());
+                    stmt.setInt(4, gameState.getBoardSize());
+                    stmt.setInt(5, gameState.getMoveCount());
+                    stmt.setInt(6, gameState.calculateScore());
+                    stmt.setTimestamp(7, createdAtColumn(gameState));
+                    try {
+                        stmt.executeUpdate();
+                    } catch (SQLException e) {
+                        if (DUPLICATE_KEY_STATE.equals(e.getSQLState())) {
+                            throw new SQLException("Game id already exists: " + gameState.getGameId(), e.getSQLState(), e);
+                        }
+                        throw e;
+                    }
+                    next.put(gameState.getGameId(), 1L);
+                }
+            }
+        }
+        if (!checked.isEmpty()) {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "UPDATE hex_game_state SET version = version + 1 WHERE game_id = ? AND version = ?")) {
+                for (HexGameState gameState : checked) {
+                    stmt.setString(1, gameState.getGameId());
+                    stmt.setLong(2, gameState.getVersion());
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                for (int i = 0; i < checked.size(); i++) {
+                    HexGameState gameState = checked.get(i);
+                    if (counts[i] == 0) {
+                        throw new GameConflictException(gameState.getGameId(), gameState.getVersion());
+                    }
+                    next.put(gameState.getGameId(), gameState.getVersion() + 1);
+                }
+            }
+        }
+        if (!unchecked.isEmpty()) {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "UPDATE hex_game_state SET version = version + 1 WHERE game_id = ANY(?)")) {
+                stmt.setArray(1, connection.createArrayOf("VARCHAR", unchecked.toArray()));
+                stmt.executeUpdate();
+            }
+        }
+        return next;
+    }
+
+    // Versión con la que quedaron las partidas escritas sin comprobar
+    private static void readNewVersions(Connection connection, List<HexGameState> games, Map<String, Long> next)
+            throws SQLException {
+        List<String> unchecked = games.stream()
+                .map(HexGameState::getGameId)
+                .filter(gameId -> !next.containsKey(gameId))
+                .toList();
+        if (unchecked.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT game_id, version FROM hex_game_state WHERE game_id = ANY(?)")) {
+            stmt.setArray(1, connection.createArrayOf("VARCHAR", unchecked.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    next.put(rs.getString("game_id"), rs.getLong("version"));
+                }
+            }
+        }
+    }
+
+    // La próxima escritura de estos objetos se comprobará contra su versión nueva
+    private static void applyVersions(List<HexGameState> games, Map<String, Long> versions) {
+        for (HexGameState gameState : games) {
+            Long version = versions.get(gameState.getGameId());
+            if (version != null) {
+                gameState.setVersion(version);
+            }
+        }
+    }
+
+    // Misma precisión que la fecha guardada en el BLOB
+    private static Timestamp createdAtColumn(HexGameState gameState) {
+        return Timestamp.valueOf(gameState.getCreatedAt().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    // Actualiza las columnas de proyección sin reescribir la instantánea
+    private void updateProjection(Connection connection, HexGameState gameState) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "UPDATE hex_game_state SET status = ?, move_count = ?, score = ? WHERE game_id = ?")) {
+            stmt.setString(1, gameState.getStatus().name());
+            stmt.setInt(2, gameState.getMoveCount());
+            stmt.setInt(3, gameState.calculateScore());
+            stmt.setString(4, gameState.getGameId());
+            stmt.executeUpdate();
+        }
+    }
+
+    // Traduce los criterios de la consulta a un WHERE con parámetros (vacío si no hay criterios)
+    private static String whereClause(GameQuery query, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        query.getStatus().ifPresent(status -> {
+            conditions.add("status = ?");
+            params.add(status.name());
+        });
+        query.getMinBoardSize().ifPresent(min -> {
+            conditions.add("board_size >= ?");
+            params.add(min);
+        });
+        query.getMaxBoardSize().ifPresent(max -> {
+            conditions.add("board_size <= ?");
+            params.add(max);
+        });
+        query.getMinScore().ifPresent(min -> {
+            conditions.add("score >= ?");
+            params.add(min);
+        });
+        query.getCreatedAfter().ifPresent(time -> {
+            conditions.add("created_at > ?");
+            params.add(Timestamp.valueOf(time));
+        });
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, List<Object> params) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(sql);
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+        return stmt;
+    }
+
+    private List<HexGameState> readGames(Connection connection, ResultSet rs) throws Exception {
+        Map<String, HexGameState> games = new LinkedHashMap<>();
+        while (rs.next()) {
+            String gameId = rs.getString("game_id");
+            HexGameState gameState = HexGameStateCodec.decode(gameId, rs.getBytes("data"));
+            gameState.setVersion(rs.getLong("version"));
+            games.put(gameId, gameState);
+        }
+        replayPendingMoves(connection, games);
+        return new ArrayList<>(games.values());
+    }
+
+    /**
+     * Reproduce sobre cada instantánea los movimientos registrados después de ella.
+     * Una sola consulta para todo el lote, como mucho SNAPSHOT_INTERVAL filas por partida.
+     */
+    private void replayPendingMoves(Connection connection, Map<String, HexGameState> games) throws SQLException {
+        Map<String, List<GameMove>> pending = findPendingMoves(connection, games.keySet());
+        for (Map.Entry<String, List<GameMove>> entry : pending.entrySet()) {
+            replay(games.get(entry.getKey()), entry.getValue());
+        }
+    }
+
+    // Movimientos posteriores a la instantánea actual de cada partida, en orden
+    private static Map<String, List<GameMove>> findPendingMoves(Connection connection, Collection<String> gameIds)
+            throws SQLException {
+        Map<String, List<GameMove>> pending = new HashMap<>();
+        if (gameIds.isEmpty()) {
+            return pending;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT m.game_id, m.seq, m.blocked_q, m.blocked_r, m.cat_q, m.cat_r FROM game_moves m "
+                + "JOIN hex_game_state s ON s.game_id = m.game_id "
+                + "WHERE m.game_id = ANY(?) AND m.seq > s.seq ORDER BY m.game_id, m.seq")) {
+            stmt.setArray(1, connection.createArrayOf("VARCHAR", gameIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    pending.computeIfAbsent(rs.getString("game_id"), id -> new ArrayList<>()).add(readMove(rs));
+                }
+            }
+        }
+        return pending;
+    }
+
+    private static void replay(HexGameState gameState, List<GameMove> moves) {
+        if (gameState == null || moves == null) {
+            return;
+        }
+        for (GameMove move : moves) {
+            if (move.getSeq() > gameState.getMoveCount()) {
+                gameState.replayMove(move);
+            }
+        }
+    }
+
+    private static void closeQuietly(ResultSet rs, Statement stmt, Connection connection) {
+        for (AutoCloseable resource : new AutoCloseable[] {rs, stmt, connection}) {
+            if (resource != null) {
+                try {
+                    resource.close();
+                } catch (Exception ignored) {}
+            }
+        }
+    }
+
+    private static GameMove readMove(ResultSet rs) throws SQLException {
+        HexPosition blocked = new HexPosition(rs.getInt("blocked_q"), rs.getInt("blocked_r"));
+        int catQ = rs.getInt("cat_q");
+        HexPosition catDestination = rs.wasNull() ? null : new HexPosition(catQ, rs.getInt("cat_r"));
+        return new GameMove(rs.getInt("seq"), blocked, catDestination);
+    }
+
+    /**
+     * Cursor sobre un ResultSet de (game_id, data). Lee un bloque de filas sin decodificar,
+     * busca de una vez sus movimientos pendientes y decodifica cada partida al entregarla.
+     */
+    private static final class GameCursor extends Spliterators.AbstractSpliterator<HexGameState> {
+        private final Connection connection;
+        private final ResultSet rs;
+        private final ArrayDeque<Map.Entry<String, byte[]>> block = new ArrayDeque<>();
+        private Map<String, List<GameMove>> blockMoves = Collections.emptyMap();
+        private boolean exhausted;
+
+        GameCursor(Connection connection, ResultSet rs) {
+            super(Long.MAX_VALUE, ORDERED | NONNULL);
+            this.connection = connection;
+            this.rs = rs;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super HexGameState> action) {
+            if (block.isEmpty() && !readBlock()) {
+                return false;
+            }
+            Map.Entry<String, byte[]> row = block.poll();
+            HexGameState gameState = HexGameStateCodec.decode(row.getKey(), row.getValue());
+            replay(gameState, blockMoves.get(row.getKey()));
+            action.accept(gameState);
+            return true;
+        }
+
+        private boolean readBlock() {
+            if (exhausted) {
+                return false;
+            }
+            try {
+                while (block.size() < STREAM_FETCH_SIZE && rs.next()) {
+                    block.add(Map.entry(rs.getString("game_id"), rs.getBytes("data")));
+                }
+                exhausted = block.size() < STREAM_FETCH_SIZE;
+                List<String> gameIds = block.stream().map(Map.Entry::getKey).toList();
+                blockMoves = findPendingMoves(connection, gameIds);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error recorriendo partidas", e);
+            }
+            return !block.isEmpty();
+        }
     }
 
-    private HexGameState deserializeGameState(String serializedData, String gameId) throws Exception {
-        HexGameState state = mapper.readValue(serializedData, HexGameState.class);
-        // Si necesitas setear el gameId manualmente, hazlo aquí
-        return state;
+    @FunctionalInterface
+    private interface SqlOperation<R> {
+        R apply(Connection connection) throws Exception;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,276 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.model.GameState.GameStatus;
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import com.atraparalagato.impl.model.HexTopology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binario compacto y versionado para HexGameState.
+ *
+ * Codifica el mismo mapa que getSerializableState y lo decodifica al formato que
+ * acepta restoreFromSerializable, así que ambos caminos quedan equivalentes:
+ *
+ *   magic 'H' 'G' | versión | boardSize (varint) | gato q, r (varint zig-zag)
+ *   | status (byte) | moveCount (varint) | seed (8 bytes) | createdAt (8 bytes, desde v2)
+ *   | bitset de bloqueadas
+ *
+ * createdAt son milisegundos desde epoch (UTC). Los datos de la versión 1 se siguen
+ * leyendo; la partida conserva entonces la fecha de creación del objeto.
+ *
+ * El bitset usa el índice denso de HexTopology: un bit por celda del tablero,
+ * 12 bytes para un tablero de tamaño 5 en vez de un objeto JSON por celda.
+ * El gameId no se incluye: es la clave primaria de la fila.
+ */
+public final class HexGameStateCodec {
+
+    private static final byte MAGIC_0 = 'H';
+    private static final byte MAGIC_1 = 'G';
+    private static final byte VERSION = 2;
+    private static final byte VERSION_WITHOUT_CREATED_AT = 1;
+
+    // Cabecera + 4 varints de hasta 5 bytes + status + seed + createdAt
+    private static final int MAX_FIXED_LENGTH = 3 + 4 * 5 + 1 + 8 + 8;
+
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    private HexGameStateCodec() {
+    }
+
+    /**
+     * Codifica una partida a partir de su estado serializable.
+     */
+    public static byte[] encode(HexGameState gameState) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> state = (Map<String, Object>) gameState.getSerializableState();
+        return encode(state);
+    }
+
+    /**
+     * Codifica un mapa con el formato de HexGameState.getSerializableState.
+     */
+    public static byte[] encode(Map<String, Object> state) {
+        int boardSize = intValue(state, "boardSize");
+        HexTopology topology = HexTopology.of(boardSize);
+        byte[] bitset = new byte[(topology.getCellCount() + 7) / 8];
+
+        Object blockedCells = state.get("blockedCells");
+        if (blockedCells instanceof Collection<?> cells) {
+            for (Object cell : cells) {
+                int index = topology.indexOf(toPosition(cell));
+                if (index < 0) {
+                    throw new IllegalArgumentException("Blocked cell outside the board: " + cell);
+                }
+                bitset[index >>> 3] |= (byte) (1 << (index & 7));
+            }
+        }
+
+        HexPosition cat = toPosition(state.get("catPosition"));
+        Writer out = new Writer(MAX_FIXED_LENGTH + bitset.length);
+        out.writeByte(MAGIC_0);
+        out.writeByte(MAGIC_1);
+        out.writeByte(VERSION);
+        out.writeVarint(boardSize);
+        out.writeVarint(zigZag(cat.getQ()));
+        out.writeVarint(zigZag(cat.getR()));
+        out.writeByte(GameStatus.valueOf(String.valueOf(state.get("status"))).ordinal());
+        out.writeVarint(intValue(state, "moveCount"));
+        out.writeLong(longValue(state, "seed"));
+        out.writeLong(longValue(state, "createdAt"));
+        out.writeBytes(bitset);
+        return out.toByteArray();
+    }
+
+    /**
+     * Reconstruye la partida: crea el estado con su tamaño y semilla y lo restaura con restoreFromSerializable.
+     */
+    public static HexGameState decode(String gameId, byte[] data) {
+        Map<String, Object> state = decodeState(gameId, data);
+        HexGameState gameState = new HexGameState(gameId, (Integer) state.get("boardSize"), (Long) state.get("seed"));
+        gameState.restoreFromSerializable(state);
+        return gameState;
+    }
+
+    /**
+     * Decodifica al mismo mapa que produce getSerializableState.
+     */
+    public static Map<String, Object> decodeState(String gameId, byte[] data) {
+        Reader in = new Reader(data);
+        if (in.readByte() != MAGIC_0 || in.readByte() != MAGIC_1) {
+            throw new IllegalArgumentException("Invalid game data for " + gameId + ": bad header");
+        }
+        int version = in.readByte();
+        if (version != VERSION && version != VERSION_WITHOUT_CREATED_AT) {
+            throw new IllegalArgumentException("Unsupported game data version " + version + " for " + gameId);
+        }
+
+        // Datos dañados no deben pedir una topología enorme: se comprueba antes de crearla
+        int boardSize = in.readVarint();
+        if (boardSize <= 0 || boardSize > HexTopology.MAX_SIZE) {
+            throw new IllegalArgumentException("Invalid board size " + boardSize + " for " + gameId);
+        }
+        HexTopology topology = HexTopology.of(boardSize);
+        int catQ = unZigZag(in.readVarint());
+        int catR = unZigZag(in.readVarint());
+        if (topology.indexOf(catQ, catR) < 0) {
+            throw new IllegalArgumentException("Cat position (" + catQ + ", " + catR + ") outside the board for " + gameId);
+        }
+        int statusOrdinal = in.readByte();
+        if (statusOrdinal < 0 || statusOrdinal >= STATUSES.length) {
+            throw new IllegalArgumentException("Invalid game status " + statusOrdinal + " for " + gameId);
+        }
+        // Cada movimiento bloquea una celda
+        int moveCount = in.readVarint();
+        if (moveCount < 0 || moveCount > topology.getCellCount()) {
+            throw new IllegalArgumentException("Invalid move count " + moveCount + " for " + gameId);
+        }
+        long seed = in.readLong();
+        Long createdAt = version >= VERSION ? in.readLong() : null;
+
+        byte[] bitset = in.readBytes((topology.getCellCount() + 7) / 8);
+        List<HexPosition> blockedCells = new ArrayList<>();
+        for (int i = 0; i < topology.getCellCount(); i++) {
+            if ((bitset[i >>> 3] & (1 << (i & 7))) != 0) {
+                blockedCells.add(topology.positionAt(i));
+            }
+        }
+
+        Map<String, Object> state = new HashMap<>();
+        state.put("gameId", gameId);
+        state.put("catPosition", Map.of("q", catQ, "r", catR));
+        state.put("blockedCells", blockedCells);
+        state.put("status", STATUSES[statusOrdinal].toString());
+        state.put("moveCount", moveCount);
+        state.put("boardSize", boardSize);
+        state.put("seed", seed);
+        if (createdAt != null) {
+            state.put("createdAt", createdAt);
+        }
+        return state;
+    }
+
+    private static int intValue(Map<String, Object> state, String key) {
+        Object value = state.get(key);
+        if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException("Missing numeric field '" + key + "'");
+        }
+        return number.intValue();
+    }
+
+    private static long longValue(Map<String, Object> state, String key) {
+        Object value = state.get(key);
+        if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException("Missing numeric field '" + key + "'");
+        }
+        return number.longValue();
+    }
+
+    private static HexPosition toPosition(Object value) {
+        if (value instanceof HexPosition position) {
+            return position;
+        }
+        if (value instanceof Map<?, ?> map && map.get("q") instanceof Number q && map.get("r") instanceof Number r) {
+            return new HexPosition(q.intValue(), r.intValue());
+        }
+        throw new IllegalArgumentException("Invalid position: " + value);
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+        private final byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            require(1);
+            return data[position++];
+        }
+
+        int readVarint() {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in game data");
+        }
+
+        long readLong() {
+            require(8);
+            long result = 0;
+            for (int i = 0; i < 8; i++) {
+                result = (result << 8) | (data[position++] & 0xFF);
+            }
+            return result;
+        }
+
+        byte[] readBytes(int length) {
+            require(length);
+            byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        private void require(int length) {
+            if (position + length > data.length) {
+                throw new IllegalArgumentException("Truncated game data");
+            }
+        }
+    }
+}
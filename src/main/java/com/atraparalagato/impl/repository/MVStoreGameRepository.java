@@ -0,0 +1,344 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.model.GameState.GameStatus;
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.model.HexGameState;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Repositorio clave-valor de partidas hexagonales directamente sobre MVStore, el motor
+ * de almacenamiento de H2, sin pasar por SQL (ni parseo, ni plan, ni JDBC).
+ *
+ * games: gameId -> bytes de HexGameStateCodec. Dos mapas ordenados hacen de índices
+ * secundarios: por estado ("STATUS\0gameId") y por fecha de creación
+ * ("millis en hex\0gameId"). Los índices se mantienen en cada save/delete; las
+ * consultas GameQuery con estado o fecha recorren solo el rango del índice.
+ *
+ * MVStore confirma en segundo plano (autoCommitDelay): save vuelve sin esperar al
+ * disco y un fallo del proceso pierde como mucho ese intervalo, como DurabilityMode.ASYNC.
+ * executeInTransaction excluye a los demás escritores y, si falla, deshace con rollbackTo;
+ * los lectores no se bloquean y pueden ver cambios de una transacción en curso.
+ *
+ * No guarda registro de movimientos: cada jugada se guarda como estado completo. No hay
+ * SQL: executeCustomQuery interpreta la consulta como un prefijo de gameId.
+ */
+public class MVStoreGameRepository extends DataRepository<HexGameState, String> {
+
+    private static final String DEFAULT_FILE = "./data/atrapar-al-gato-games.kv";
+    private static final int AUTO_COMMIT_DELAY_MS = 100;
+    private static final char SEPARATOR = '\0';
+    // Bloqueos por partida: las escrituras de una misma partida y sus índices van en orden
+    private static final int LOCK_STRIPES = 64;
+
+    private final MVStore store;
+    private final MVMap<String, byte[]> games;
+    private final MVMap<String, String> statusIndex;
+    private final MVMap<String, String> createdIndex;
+
+    // Lectura: escrituras normales (concurrentes entre sí). Escritura: executeInTransaction
+    private final ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock();
+    private final Object[] stripes = new Object[LOCK_STRIPES];
+
+    public MVStoreGameRepository() {
+        this(DEFAULT_FILE);
+    }
+
+    /**
+     * @param fileName fichero de la base de datos, o null para un almacén solo en memoria
+     */
+    public MVStoreGameRepository(String fileName) {
+        MVStore.Builder builder = new MVStore.Builder().compress();
+        if (fileName != null) {
+            builder.fileName(fileName);
+        }
+        try {
+            this.store = builder.open();
+            store.setAutoCommitDelay(AUTO_COMMIT_DELAY_MS);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Error al abrir MVStore", e);
+        }
+        this.games = store.openMap("games");
+        this.statusIndex = store.openMap("games_by_status");
+        this.createdIndex = store.openMap("games_by_created_at");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    @Override
+    public HexGameState save(HexGameState entity) {
+        if (!validateEntity(entity)) {
+            throw new IllegalArgumentException("Invalid game state entity");
+        }
+        byte[] data = HexGameStateCodec.encode(entity);
+        String gameId = entity.getGameId();
+        transactionLock.readLock().lock();
+        try {
+            synchronized (stripeFor(gameId)) {
+                byte[] previous = games.put(gameId, data);
+                if (previous != null) {
+                    removeIndexEntries(gameId, previous);
+                }
+                statusIndex.put(statusKey(entity.getStatus(), gameId), gameId);
+                createdIndex.put(createdKey(epochMillis(entity.getCreatedAt()), gameId), gameId);
+            }
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+        return entity;
+    }
+
+    @Override
+    public Optional<HexGameState> findById(String id) {
+        if (id == null) return Optional.empty();
+        byte[] data = games.get(id);
+        return data == null ? Optional.empty() : Optional.of(HexGameStateCodec.decode(id, data));
+    }
+
+    @Override
+    public List<HexGameState> findAll() {
+        List<HexGameState> result = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : games.entrySet()) {
+            result.add(HexGameStateCodec.decode(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<HexGameState> findWhere(Predicate<HexGameState> condition) {
+        if (condition instanceof GameQuery query) {
+            return query.select(load(candidates(query)));
+        }
+        return findAll().stream().filter(condition).collect(Collectors.toList());
+    }
+
+    @Override
+    public <R> List<R> findAndTransform(Predicate<HexGameState> condition, Function<HexGameState, R> transformer) {
+        return findWhere(condition).stream().map(transformer).collect(Collectors.toList());
+    }
+
+    @Override
+    public long countWhere(Predicate<HexGameState> condition) {
+        if (condition instanceof GameQuery query && isStatusOnly(query)) {
+            // Solo estado: basta con contar claves del índice, sin decodificar
+            return countKeys(statusIndex, query.getStatus().get().name() + SEPARATOR);
+        }
+        return findWhere(condition).size();
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        if (id == null) return false;
+        transactionLock.readLock().lock();
+        try {
+            synchronized (stripeFor(id)) {
+                byte[] previous = games.remove(id);
+                if (previous == null) {
+                    return false;
+                }
+                removeIndexEntries(id, previous);
+                return true;
+            }
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long deleteWhere(Predicate<HexGameState> condition) {
+        long deleted = 0;
+        for (HexGameState gameState : findWhere(condition)) {
+            if (deleteById(gameState.getGameId())) deleted++;
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return id != null && games.containsKey(id);
+    }
+
+    @Override
+    public <R> R executeInTransaction(Function<DataRepository<HexGameState, String>, R> operation) {
+        transactionLock.writeLock().lock();
+        try {
+            // Lo guardado fuera de la transacción se confirma antes: el rollback solo deshace la operación
+            store.commit();
+            long version = store.getCurrentVersion();
+            try {
+                R result = operation.apply(this);
+                store.commit();
+                return result;
+            } catch (RuntimeException e) {
+                store.rollbackTo(version);
+                throw new RuntimeException("Transaction failed", e);
+            }
+        } finally {
+            transactionLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<HexGameState> findWithPagination(int page, int size) {
+        if (page < 0 || size <= 0) return new ArrayList<>();
+        List<String> ids = new ArrayList<>(Math.min(size, games.size()));
+        Iterator<String> keys = games.keyIterator(null);
+        for (long skipped = 0; skipped < (long) page * size && keys.hasNext(); skipped++) {
+            keys.next();
+        }
+        while (ids.size() < size && keys.hasNext()) {
+            ids.add(keys.next());
+        }
+        return load(ids);
+    }
+
+    @Override
+    public List<HexGameState> findAllSorted(Function<HexGameState, ? extends Comparable<?>> sortKeyExtractor, boolean ascending) {
+        @SuppressWarnings("unchecked")
+        Comparator<HexGameState> comparator = Comparator.comparing(
+                (Function<HexGameState, Comparable<Object>>) sortKeyExtractor,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        return findAll().stream()
+                .sorted(ascending ? comparator : comparator.reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sin SQL: query es un prefijo de gameId y se recorre solo ese rango de claves, en
+     * orden de gameId. Con los gameId de GameIdGenerator un prefijo agrupa por fecha de
+     * creación. La cadena vacía devuelve todas las partidas.
+     */
+    @Override
+    public <R> List<R> executeCustomQuery(String query, Function<Object, R> resultMapper) {
+        String prefix = query != null ? query : "";
+        List<String> ids = new ArrayList<>();
+        Iterator<String> keys = games.keyIterator(prefix);
+        while (keys.hasNext()) {
+            String gameId = keys.next();
+            if (!gameId.startsWith(prefix)) {
+                break;
+            }
+            ids.add(gameId);
+        }
+        return load(ids).stream().map(resultMapper).collect(Collectors.toList());
+    }
+
+    /**
+     * Confirma ya los cambios pendientes en vez de esperar al commit automático.
+     */
+    public void commit() {
+        store.commit();
+    }
+
+    @Override
+    protected void initialize() {
+        // Ya se inicializa en el constructor
+    }
+
+    @Override
+    protected void cleanup() {
+        // close confirma lo pendiente antes de cerrar el fichero
+        store.close();
+    }
+
+    @Override
+    protected boolean validateEntity(HexGameState entity) {
+        return entity != null && entity.getGameId() != null && !entity.getGameId().trim().isEmpty();
+    }
+
+    // Claves candidatas: el rango del índice más selectivo disponible, o todas
+    private Collection<String> candidates(GameQuery query) {
+        if (query.getStatus().isPresent()) {
+            return collectValues(statusIndex, query.getStatus().get().name() + SEPARATOR, null);
+        }
+        if (query.getCreatedAfter().isPresent()) {
+            // Desde el milisegundo siguiente: created_at > createdAfter
+            long from = epochMillis(query.getCreatedAfter().get()) + 1;
+            return collectValues(createdIndex, null, createdKey(from, ""));
+        }
+        return games.keySet();
+    }
+
+    // Valores del índice cuyas claves empiezan por prefix (o todas desde fromKey)
+    private static List<String> collectValues(MVMap<String, String> index, String prefix, String fromKey) {
+        List<String> ids = new ArrayList<>();
+        Iterator<String> keys = index.keyIterator(prefix != null ? prefix : fromKey);
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (prefix != null && !key.startsWith(prefix)) {
+                break;
+            }
+            String gameId = index.get(key);
+            if (gameId != null) {
+                ids.add(gameId);
+            }
+        }
+        return ids;
+    }
+
+    private static long countKeys(MVMap<String, String> index, String prefix) {
+        long count = 0;
+        Iterator<String> keys = index.keyIterator(prefix);
+        while (keys.hasNext() && keys.next().startsWith(prefix)) {
+            count++;
+        }
+        return count;
+    }
+
+    private List<HexGameState> load(Collection<String> ids) {
+        List<HexGameState> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            byte[] data = games.get(id);
+            if (data != null) { // borrada después de leer el índice
+                result.add(HexGameStateCodec.decode(id, data));
+            }
+        }
+        return result;
+    }
+
+    private void removeIndexEntries(String gameId, byte[] data) {
+        Map<String, Object> previous = HexGameStateCodec.decodeState(gameId, data);
+        statusIndex.remove(statusKey(GameStatus.valueOf((String) previous.get("status")), gameId));
+        Object createdAt = previous.get("createdAt");
+        if (createdAt instanceof Long millis) {
+            createdIndex.remove(createdKey(millis, gameId));
+        }
+    }
+
+    private static boolean isStatusOnly(GameQuery query) {
+        return query.getStatus().isPresent() && query.getMinBoardSize().isEmpty() && query.getMaxBoardSize().isEmpty()
+                && query.getMinScore().isEmpty() && query.getCreatedAfter().isEmpty() && query.getLimit() == 0;
+    }
+
+    private static String statusKey(GameStatus status, String gameId) {
+        return status.name() + SEPARATOR + gameId;
+    }
+
+    // Hexadecimal de ancho fijo: el orden de las cadenas coincide con el numérico
+    private static String createdKey(long epochMillis, String gameId) {
+        return String.format("%016x", epochMillis) + SEPARATOR + gameId;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private Object stripeFor(String gameId) {
+        return stripes[(gameId.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+}
@@ -0,0 +1,485 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.model.GameState.GameStatus;
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.model.HexGameState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Repositorio de partidas hexagonales en un fichero proyectado en memoria, con un
+ * registro de tamaño fijo por partida.
+ *
+ * Cada ranura guarda los campos en posiciones fijas (ver GameSlotLayout): gameId,
+ * tamaño, gato, estado, contadores y el bitset de bloqueadas dimensionado para
+ * maxBoardSize. Leer o guardar una partida es copiar esos bytes; el sistema operativo
+ * escribe las páginas al disco, así que una caída del proceso no pierde nada y una del
+ * sistema pierde lo no sincronizado (flush o cada transacción confirmada lo sincronizan).
+ *
+ * gameId -> ranura es una tabla hash fuera del heap (OffHeapSlotIndex) y las ranuras
+ * de partidas borradas se reutilizan desde una lista libre. Índice y lista libre no se
+ * guardan: al abrir el fichero se reconstruyen recorriendo las ranuras. Si el fichero
+ * se llena, se amplía al doble y se vuelve a proyectar.
+ *
+ * Todas las escrituras se serializan con un único bloqueo (son copias de memoria);
+ * las lecturas van en paralelo. Una partida que se sobrescribe mientras el proceso
+ * muere puede quedar a medias: para eso están las transacciones o el repositorio H2.
+ */
+public class MappedGameRepository extends DataRepository<HexGameState, String> {
+
+    private static final String DEFAULT_FILE = "./data/atrapar-al-gato-games.slots";
+    private static final int DEFAULT_MAX_BOARD_SIZE = 15;
+    private static final int DEFAULT_INITIAL_SLOTS = 1 << 16;
+
+    // Cabecera del fichero: magic, versión, tamaño de ranura, maxBoardSize, ranuras
+    private static final int MAGIC = 0x48474D53; // "HGMS"
+    private static final int VERSION = 2; // 2: la ranura guarda la versión de la partida
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_SLOT_SIZE = 8;
+    private static final int HEADER_MAX_BOARD_SIZE = 12;
+    private static final int HEADER_CAPACITY = 16;
+
+    private final FileChannel channel;
+    private final GameSlotLayout layout;
+    private final int slotSize;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    // Ranuras [0, highWater) se han usado alguna vez; las libres de ese rango están en freeSlots
+    private int highWater;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private OffHeapSlotIndex index;
+
+    // Copia previa de cada ranura tocada durante executeInTransaction (null fuera de ella)
+    private Map<Integer, byte[]> undo;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MappedGameRepository() {
+        this(Path.of(DEFAULT_FILE), DEFAULT_MAX_BOARD_SIZE, DEFAULT_INITIAL_SLOTS);
+    }
+
+    /**
+     * @param file         fichero de ranuras; se crea si no existe
+     * @param maxBoardSize mayor tablero que cabe en una ranura (fija el tamaño de ranura)
+     * @param initialSlots ranuras con las que se crea un fichero nuevo
+     */
+    public MappedGameRepository(Path file, int maxBoardSize, int initialSlots) {
+        if (initialSlots <= 0) {
+            throw new IllegalArgumentException("Invalid initial slot count: " + initialSlots);
+        }
+        this.layout = new GameSlotLayout(maxBoardSize);
+        this.slotSize = layout.getSlotSize();
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                map(initialSlots);
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(HEADER_SLOT_SIZE, slotSize);
+                buffer.putInt(HEADER_MAX_BOARD_SIZE, layout.getMaxBoardSize());
+            } else {
+                try {
+                    map(readCapacity(file));
+                } catch (IllegalArgumentException e) {
+                    channel.close(); // el fichero no se usa: que se pueda mover o borrar
+                    throw e;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al abrir el fichero de partidas " + file, e);
+        }
+        rebuildIndex();
+    }
+
+    @Override
+    public HexGameState save(HexGameState entity) {
+        if (!validateEntity(entity)) {
+            throw new IllegalArgumentException("Invalid game state entity");
+        }
+        byte[] id = layout.checkFits(entity);
+        lock.writeLock().lock();
+        try {
+            int hash = OffHeapSlotIndex.hash(entity.getGameId());
+            int slot = findSlot(id, hash);
+            if (slot >= 0) {
+                rememberSlot(slot);
+                layout.writeFields(buffer, slotOffset(slot), entity);
+            } else {
+                slot = allocateSlot();
+                rememberSlot(slot);
+                layout.writeNew(buffer, slotOffset(slot), id, entity);
+                index.put(hash, slot);
+            }
+            return entity;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<HexGameState> findById(String id) {
+        if (id == null) return Optional.empty();
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        if (key.length > GameSlotLayout.MAX_ID_BYTES) return Optional.empty();
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(key, OffHeapSlotIndex.hash(id));
+            return slot < 0 ? Optional.empty() : Optional.of(layout.read(buffer, slotOffset(slot)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<HexGameState> findAll() {
+        return scan(null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<HexGameState> findWhere(Predicate<HexGameState> condition) {
+        if (condition instanceof GameQuery query) {
+            // El estado se lee de la ranura: solo se reconstruyen las partidas candidatas
+            return query.select(scan(query.getStatus().orElse(null), Integer.MAX_VALUE));
+        }
+        return findAll().stream().filter(condition).collect(Collectors.toList());
+    }
+
+    @Override
+    public <R> List<R> findAndTransform(Predicate<HexGameState> condition, Function<HexGameState, R> transformer) {
+        return findWhere(condition).stream().map(transformer).collect(Collectors.toList());
+    }
+
+    @Override
+    public long countWhere(Predicate<HexGameState> condition) {
+        return findWhere(condition).size();
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        if (id == null) return false;
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        if (key.length > GameSlotLayout.MAX_ID_BYTES) return false;
+        lock.writeLock().lock();
+        try {
+            int hash = OffHeapSlotIndex.hash(id);
+            int slot = findSlot(key, hash);
+            if (slot < 0) {
+                return false;
+            }
+            rememberSlot(slot);
+            GameSlotLayout.markFree(buffer, slotOffset(slot));
+            index.remove(hash, slot);
+            pushFree(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long deleteWhere(Predicate<HexGameState> condition) {
+        lock.writeLock().lock();
+        try {
+            long deleted = 0;
+            for (HexGameState gameState : findWhere(condition)) {
+                if (deleteById(gameState.getGameId())) deleted++;
+            }
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        if (id == null) return false;
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        if (key.length > GameSlotLayout.MAX_ID_BYTES) return false;
+        lock.readLock().lock();
+        try {
+            return findSlot(key, OffHeapSlotIndex.hash(id)) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public <R> R executeInTransaction(Function<DataRepository<HexGameState, String>, R> operation) {
+        lock.writeLock().lock();
+        try {
+            if (undo != null) {
+                return operation.apply(this); // transacción anidada: forma parte de la exterior
+            }
+            undo = new LinkedHashMap<>();
+            int previousHighWater = highWater;
+            try {
+                R result = operation.apply(this);
+                buffer.force();
+                return result;
+            } catch (RuntimeException e) {
+                rollback(previousHighWater);
+                throw new RuntimeException("Transaction failed", e);
+            } finally {
+                undo = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<HexGameState> findWithPagination(int page, int size) {
+        if (page < 0 || size <= 0) return new ArrayList<>();
+        List<HexGameState> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long skip = (long) page * size;
+            for (int slot = 0; slot < highWater && result.size() < size; slot++) {
+                if (isUsed(slot) && skip-- <= 0) {
+                    result.add(layout.read(buffer, slotOffset(slot)));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<HexGameState> findAllSorted(Function<HexGameState, ? extends Comparable<?>> sortKeyExtractor, boolean ascending) {
+        @SuppressWarnings("unchecked")
+        Comparator<HexGameState> comparator = Comparator.comparing(
+                (Function<HexGameState, Comparable<Object>>) sortKeyExtractor,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        return findAll().stream()
+                .sorted(ascending ? comparator : comparator.reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public <R> List<R> executeCustomQuery(String query, Function<Object, R> resultMapper) {
+        throw new UnsupportedOperationException("Slot store does not support custom queries: " + query);
+    }
+
+    /**
+     * Sincroniza con el disco las páginas modificadas.
+     */
+    public void flush() {
+        lock.readLock().lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranuras, ocupación y tamaño de ranura, para dimensionar el fichero.
+     */
+    public Map<String, Object> getMetrics() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("games", index.size());
+            metrics.put("slots", capacity);
+            metrics.put("freeSlots", freeCount + capacity - highWater);
+            metrics.put("slotBytes", slotSize);
+            metrics.put("fileBytes", (long) HEADER_SIZE + (long) capacity * slotSize);
+            return metrics;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected void initialize() {
+        // Ya se inicializa en el constructor
+    }
+
+    @Override
+    protected void cleanup() {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Error al cerrar el fichero de partidas", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected boolean validateEntity(HexGameState entity) {
+        return entity != null && entity.getGameId() != null && !entity.getGameId().trim().isEmpty();
+    }
+
+    // --- Fichero ---
+
+    private int readCapacity(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a game slot file");
+        }
+        // La versión 1 no guardaba la versión de la partida: sus ranuras tienen otro tamaño
+        if (header.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported game slot file format version " + header.getInt(4)
+                    + " (expected " + VERSION + "); move or delete " + file + " to start a new one");
+        }
+        if (header.getInt(HEADER_SLOT_SIZE) != slotSize
+                || header.getInt(HEADER_MAX_BOARD_SIZE) != layout.getMaxBoardSize()) {
+            throw new IllegalArgumentException("Slot file was created for board size "
+                    + header.getInt(HEADER_MAX_BOARD_SIZE) + ", not " + layout.getMaxBoardSize());
+        }
+        return header.getInt(HEADER_CAPACITY);
+    }
+
+    private void map(int slots) throws IOException {
+        long length = (long) HEADER_SIZE + (long) slots * slotSize;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many slots for one mapped file: " + slots);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        buffer.putInt(HEADER_CAPACITY, slots);
+        capacity = slots;
+    }
+
+    private void grow() {
+        int slots = (int) Math.min((long) capacity * 2, (Integer.MAX_VALUE - HEADER_SIZE) / slotSize);
+        if (slots <= capacity) {
+            throw new IllegalStateException("Game slot file is full: " + capacity + " slots");
+        }
+        try {
+            buffer.force();
+            map(slots);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al ampliar el fichero de partidas", e);
+        }
+        if (capacity > index.capacity()) {
+            rebuildIndex();
+        }
+    }
+
+    private int slotOffset(int slot) {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    private boolean isUsed(int slot) {
+        return GameSlotLayout.isUsed(buffer, slotOffset(slot));
+    }
+
+    // --- Ranuras ---
+
+    // Recorre las ranuras ocupadas; con status, descarta las demás sin reconstruirlas
+    private List<HexGameState> scan(GameStatus status, int limit) {
+        List<HexGameState> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < highWater && result.size() < limit; slot++) {
+                int offset = slotOffset(slot);
+                if (!GameSlotLayout.isUsed(buffer, offset)) continue;
+                if (status != null && GameSlotLayout.readStatus(buffer, offset) != status) continue;
+                result.add(layout.read(buffer, offset));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == capacity) {
+            grow();
+        }
+        return highWater++;
+    }
+
+    private void pushFree(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void rememberSlot(int slot) {
+        if (undo != null && !undo.containsKey(slot)) {
+            byte[] image = new byte[slotSize];
+            buffer.get(slotOffset(slot), image);
+            undo.put(slot, image);
+        }
+    }
+
+    // Restaura las ranuras tocadas y rehace índice y lista libre a partir de ellas
+    private void rollback(int previousHighWater) {
+        for (Map.Entry<Integer, byte[]> entry : undo.entrySet()) {
+            int slot = entry.getKey();
+            int offset = slotOffset(slot);
+            if (isUsed(slot)) {
+                index.remove(OffHeapSlotIndex.hash(GameSlotLayout.readId(buffer, offset)), slot);
+            }
+            buffer.put(offset, entry.getValue());
+            if (isUsed(slot)) {
+                index.put(OffHeapSlotIndex.hash(GameSlotLayout.readId(buffer, offset)), slot);
+            }
+        }
+        highWater = previousHighWater;
+        freeCount = 0;
+        for (int slot = 0; slot < highWater; slot++) {
+            if (!isUsed(slot)) pushFree(slot);
+        }
+    }
+
+    // --- Índice gameId -> ranura ---
+
+    private void rebuildIndex() {
+        index = new OffHeapSlotIndex(capacity);
+        highWater = 0;
+        freeCount = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (isUsed(slot)) {
+                highWater = slot + 1;
+            }
+        }
+        for (int slot = 0; slot < highWater; slot++) {
+            if (isUsed(slot)) {
+                index.put(OffHeapSlotIndex.hash(GameSlotLayout.readId(buffer, slotOffset(slot))), slot);
+            } else {
+                pushFree(slot);
+            }
+        }
+    }
+
+    private int findSlot(byte[] id, int hash) {
+        return index.find(hash, slot -> GameSlotLayout.sameId(buffer, slotOffset(slot), id));
+    }
+}
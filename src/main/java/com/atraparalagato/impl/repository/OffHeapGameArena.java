@@ -0,0 +1,363 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.model.GameMove;
+import com.atraparalagato.impl.model.HexGameState;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Partidas en curso fuera del heap, delante de un repositorio de partidas hexagonales.
+ *
+ * Cada partida viva ocupa una ranura de tamaño fijo (GameSlotLayout) en bloques de
+ * ByteBuffer directos: bitset del tablero, gato, estado y contadores, sin HashSet de
+ * posiciones, LocalDateTime ni callbacks. findById crea un HexGameState nuevo para
+ * la petición a partir de la ranura; save y appendMoves escriben en el repositorio
+ * subyacente y copian el estado de vuelta a la ranura. Así el heap solo guarda las
+ * partidas de las peticiones en curso, no todas las vivas.
+ *
+ * Las partidas terminadas salen de la arena. Con la arena llena, las partidas nuevas
+ * solo se guardan en el repositorio subyacente. Consultas, borrados masivos y
+ * transacciones van al repositorio subyacente; las dos últimas vacían la arena.
+ */
+public class OffHeapGameArena extends DataRepository<HexGameState, String> implements GameMoveLog {
+
+    static final int SLAB_SLOTS = 4096;
+
+    private final DataRepository<HexGameState, String> delegate;
+    private final GameMoveLog delegateLog;
+    private final GameSlotLayout layout;
+    private final int maxGames;
+
+    // Bloques de ranuras, reservados según hacen falta
+    private final ByteBuffer[] slabs;
+    private final OffHeapSlotIndex index;
+    private int highWater;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    // Cambia con cada expulsión: una carga lenta no vuelve a meter una partida expulsada
+    private long generation;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    /**
+     * @param maxBoardSize mayor tablero que se guarda en la arena (fija el tamaño de ranura)
+     * @param maxGames     partidas vivas como máximo en la arena
+     */
+    public OffHeapGameArena(DataRepository<HexGameState, String> delegate, int maxBoardSize, int maxGames) {
+        if (maxGames <= 0) {
+            throw new IllegalArgumentException("Invalid arena capacity: " + maxGames);
+        }
+        this.delegate = delegate;
+        this.delegateLog = delegate instanceof GameMoveLog log ? log : null;
+        this.layout = new GameSlotLayout(maxBoardSize);
+        this.maxGames = maxGames;
+        this.slabs = new ByteBuffer[(maxGames + SLAB_SLOTS - 1) / SLAB_SLOTS];
+        this.index = new OffHeapSlotIndex(maxGames);
+    }
+
+    @Override
+    public HexGameState save(HexGameState entity) {
+        HexGameState saved = delegate.save(entity);
+        store(entity);
+        return saved;
+    }
+
+    @Override
+    public List<HexGameState> saveAll(Collection<HexGameState> entities) {
+        List<HexGameState> saved = delegate.saveAll(entities);
+        entities.forEach(this::store);
+        return saved;
+    }
+
+    @Override
+    public void appendMoves(HexGameState gameState, List<GameMove> moves) {
+        requireDelegateLog().appendMoves(gameState, moves);
+        store(gameState);
+    }
+
+    @Override
+    public Optional<HexGameState> findById(String id) {
+        if (id == null) return Optional.empty();
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        long loadGeneration;
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(key, OffHeapSlotIndex.hash(id));
+            if (slot >= 0) {
+                hits.increment();
+                return Optional.of(layout.read(slab(slot), offset(slot)));
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        misses.increment();
+        Optional<HexGameState> loaded = delegate.findById(id);
+        // Solo si nadie la ha guardado ni expulsado mientras tanto: lo cargado podría ser antiguo
+        loaded.ifPresent(gameState -> store(gameState, loadGeneration));
+        return loaded;
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        if (id == null) return false;
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            if (findSlot(key, OffHeapSlotIndex.hash(id)) >= 0) {
+                return true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        boolean deleted = delegate.deleteById(id);
+        evict(id);
+        return deleted;
+    }
+
+    @Override
+    public long deleteWhere(Predicate<HexGameState> condition) {
+        long deleted = delegate.deleteWhere(condition);
+        evictAll();
+        return deleted;
+    }
+
+    @Override
+    public <R> R executeInTransaction(Function<DataRepository<HexGameState, String>, R> operation) {
+        // La transacción escribe directamente en el repositorio subyacente
+        try {
+            return delegate.executeInTransaction(operation);
+        } finally {
+            evictAll();
+        }
+    }
+
+    @Override
+    public List<GameMove> findMoves(String gameId) {
+        return requireDelegateLog().findMoves(gameId);
+    }
+
+    @Override
+    public Optional<HexGameState> loadAt(String gameId, int seq) {
+        return requireDelegateLog().loadAt(gameId, seq);
+    }
+
+    @Override
+    public List<HexGameState> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<HexGameState> findWhere(Predicate<HexGameState> condition) {
+        return delegate.findWhere(condition);
+    }
+
+    @Override
+    public <R> List<R> findAndTransform(Predicate<HexGameState> condition, Function<HexGameState, R> transformer) {
+        return delegate.findAndTransform(condition, transformer);
+    }
+
+    @Override
+    public long countWhere(Predicate<HexGameState> condition) {
+        return delegate.countWhere(condition);
+    }
+
+    @Override
+    public List<HexGameState> findWithPagination(int page, int size) {
+        return delegate.findWithPagination(page, size);
+    }
+
+    @Override
+    public List<HexGameState> findAllSorted(Function<HexGameState, ? extends Comparable<?>> sortKeyExtractor, boolean ascending) {
+        return delegate.findAllSorted(sortKeyExtractor, ascending);
+    }
+
+    @Override
+    public <R> List<R> executeCustomQuery(String query, Function<Object, R> resultMapper) {
+        return delegate.executeCustomQuery(query, resultMapper);
+    }
+
+    /**
+     * Saca la partida de la arena sin tocar el repositorio subyacente (p. ej. una partida abandonada).
+     */
+    public void invalidate(String gameId) {
+        evict(gameId);
+    }
+
+    /**
+     * Partidas vivas, memoria fuera del heap reservada y aciertos de la arena.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            long reservedSlabs = Arrays.stream(slabs).filter(slab -> slab != null).count();
+            stats.put("liveGames", index.size());
+            stats.put("maxGames", maxGames);
+            stats.put("slotBytes", layout.getSlotSize());
+            stats.put("offHeapBytes", reservedSlabs * SLAB_SLOTS * layout.getSlotSize()
+                    + (long) index.capacity() * 2 * Long.BYTES);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("overflows", overflows.sum());
+        return stats;
+    }
+
+    @Override
+    protected void initialize() {
+        // Los bloques se reservan al guardar la primera partida de cada uno
+    }
+
+    @Override
+    protected void cleanup() {
+        evictAll();
+    }
+
+    @Override
+    protected boolean validateEntity(HexGameState entity) {
+        return entity != null && entity.getGameId() != null && !entity.getGameId().trim().isEmpty();
+    }
+
+    private void store(HexGameState gameState) {
+        store(gameState, -1);
+    }
+
+    // Copia el estado a su ranura; las terminadas y las que no caben salen de la arena.
+    // Con loadGeneration >= 0 es una carga: no sobrescribe ni entra tras una expulsión
+    private void store(HexGameState gameState, long loadGeneration) {
+        if (gameState.isGameFinished()) {
+            evict(gameState.getGameId());
+            return;
+        }
+        byte[] id;
+        try {
+            id = layout.checkFits(gameState);
+        } catch (IllegalArgumentException e) {
+            overflows.increment();
+            evict(gameState.getGameId());
+            return;
+        }
+        int hash = OffHeapSlotIndex.hash(gameState.getGameId());
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(id, hash);
+            if (loadGeneration >= 0 && (slot >= 0 || loadGeneration != generation)) {
+                return;
+            }
+            if (slot >= 0) {
+                layout.writeFields(slab(slot), offset(slot), gameState);
+                return;
+            }
+            slot = allocateSlot();
+            if (slot < 0) {
+                overflows.increment();
+                return;
+            }
+            layout.writeNew(slab(slot), offset(slot), id, gameState);
+            index.put(hash, slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void evict(String gameId) {
+        if (gameId == null) return;
+        byte[] key = gameId.getBytes(StandardCharsets.UTF_8);
+        int hash = OffHeapSlotIndex.hash(gameId);
+        lock.writeLock().lock();
+        try {
+            generation++;
+            int slot = findSlot(key, hash);
+            if (slot >= 0) {
+                GameSlotLayout.markFree(slab(slot), offset(slot));
+                index.remove(hash, slot);
+                pushFree(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Los bloques se conservan para reutilizarlos
+    private void evictAll() {
+        lock.writeLock().lock();
+        try {
+            for (int slot = 0; slot < highWater; slot++) {
+                GameSlotLayout.markFree(slab(slot), offset(slot));
+            }
+            generation++;
+            index.clear();
+            highWater = 0;
+            freeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int findSlot(byte[] id, int hash) {
+        return index.find(hash, slot -> GameSlotLayout.sameId(slab(slot), offset(slot), id));
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == maxGames) {
+            return -1;
+        }
+        int slabIndex = highWater / SLAB_SLOTS;
+        if (slabs[slabIndex] == null) {
+            slabs[slabIndex] = ByteBuffer.allocateDirect(SLAB_SLOTS * layout.getSlotSize());
+        }
+        return highWater++;
+    }
+
+    private void pushFree(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private ByteBuffer slab(int slot) {
+        return slabs[slot / SLAB_SLOTS];
+    }
+
+    private int offset(int slot) {
+        return (slot % SLAB_SLOTS) * layout.getSlotSize();
+    }
+
+    private GameMoveLog requireDelegateLog() {
+        if (delegateLog == null) {
+            throw new UnsupportedOperationException("The underlying repository does not keep a move log");
+        }
+        return delegateLog;
+    }
+}
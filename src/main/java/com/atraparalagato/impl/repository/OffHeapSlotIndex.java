@@ -0,0 +1,97 @@
+package com.atraparalagato.impl.repository;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntPredicate;
+
+/**
+ * Tabla hash gameId -> ranura fuera del heap, con direccionamiento abierto y sondeo lineal.
+ *
+ * Cada entrada es un long en un ByteBuffer directo: hash del gameId en los 32 bits
+ * altos y ranura + 1 en los bajos (0 = vacía). El gameId no se guarda aquí: quien
+ * busca confirma la coincidencia leyendo la ranura. Los borrados desplazan hacia
+ * atrás las entradas siguientes, así que no quedan marcas de borrado.
+ *
+ * La tabla no crece: se crea con el doble de entradas de las que va a contener.
+ * No es segura entre hilos; la protege el bloqueo del repositorio que la usa.
+ */
+final class OffHeapSlotIndex {
+
+    private final ByteBuffer table;
+    private final int mask;
+    private int size;
+
+    OffHeapSlotIndex(int maxEntries) {
+        int tableSize = Integer.highestOneBit(Math.max(maxEntries, 8) * 2 - 1) << 1;
+        this.table = ByteBuffer.allocateDirect(tableSize * Long.BYTES);
+        this.mask = tableSize - 1;
+    }
+
+    /**
+     * Entradas que admite sin pasar de la mitad de ocupación.
+     */
+    int capacity() {
+        return (mask + 1) / 2;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Ranura con ese hash para la que matches es cierto, o -1.
+     */
+    int find(int hash, IntPredicate matches) {
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long entry = table.getLong(i * Long.BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            if ((int) (entry >>> 32) == hash && matches.test((int) entry - 1)) {
+                return (int) entry - 1;
+            }
+        }
+    }
+
+    void put(int hash, int slot) {
+        int i = hash & mask;
+        while (table.getLong(i * Long.BYTES) != 0) {
+            i = (i + 1) & mask;
+        }
+        table.putLong(i * Long.BYTES, ((long) hash << 32) | (slot + 1L));
+        size++;
+    }
+
+    void remove(int hash, int slot) {
+        int i = hash & mask;
+        while ((int) table.getLong(i * Long.BYTES) != slot + 1) {
+            i = (i + 1) & mask;
+        }
+        int hole = i;
+        for (int j = (hole + 1) & mask; ; j = (j + 1) & mask) {
+            long entry = table.getLong(j * Long.BYTES);
+            if (entry == 0) {
+                break;
+            }
+            int home = (int) (entry >>> 32) & mask;
+            // La entrada puede ocupar el hueco si su posición ideal no está entre el hueco y ella
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                table.putLong(hole * Long.BYTES, entry);
+                hole = j;
+            }
+        }
+        table.putLong(hole * Long.BYTES, 0);
+        size--;
+    }
+
+    void clear() {
+        for (int i = 0; i <= mask; i++) {
+            table.putLong(i * Long.BYTES, 0);
+        }
+        size = 0;
+    }
+
+    static int hash(String gameId) {
+        int h = gameId.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,358 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.metrics.LogLinearHistogram;
+import com.atraparalagato.impl.model.GameMove;
+import com.atraparalagato.impl.model.HexGameState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Reparte las partidas hexagonales entre N repositorios (fragmentos) por hash del gameId.
+ *
+ * Las operaciones de una partida van solo a su fragmento, así que N bases de datos
+ * independientes (ficheros H2, MVStore...) escriben en paralelo. Las consultas que
+ * recorren todas las partidas se lanzan a la vez en cada fragmento y se combinan:
+ * un GameQuery se aplica completo en cada uno (con su orden y límite) y otra vez sobre
+ * la unión; los conteos se suman; la paginación pide a cada fragmento las primeras
+ * (page + 1) * size partidas por gameId y las mezcla, por lo que los fragmentos deben
+ * paginar en orden de gameId (H2GameRepository y MVStoreGameRepository lo hacen).
+ *
+ * El número de fragmentos forma parte de los datos: cambiarlo reparte los gameId de
+ * otra forma y las partidas existentes dejan de encontrarse.
+ *
+ * executeInTransaction abre una transacción en cada fragmento, anidadas en este hilo:
+ * si la operación falla se deshacen todas, pero los commits son independientes y un
+ * fallo al confirmar uno puede dejar confirmados los anteriores.
+ */
+public class ShardedGameRepository extends DataRepository<HexGameState, String> implements GameMoveLog {
+
+    private static final Comparator<HexGameState> BY_GAME_ID = Comparator.comparing(HexGameState::getGameId);
+
+    private final List<DataRepository<HexGameState, String>> shards;
+    private final LogLinearHistogram[] latencyMicros;
+    private final ExecutorService scatter;
+    // Dentro de executeInTransaction todo corre en este hilo, el de las transacciones abiertas
+    private final ThreadLocal<Boolean> inTransaction = ThreadLocal.withInitial(() -> false);
+
+    public ShardedGameRepository(List<? extends DataRepository<HexGameState, String>> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.latencyMicros = new LogLinearHistogram[shards.size()];
+        for (int i = 0; i < latencyMicros.length; i++) {
+            latencyMicros[i] = new LogLinearHistogram();
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.scatter = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "game-shard-scatter-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Fragmento al que pertenece la partida.
+     */
+    public int shardOf(String gameId) {
+        return Math.floorMod(OffHeapSlotIndex.hash(gameId), shards.size());
+    }
+
+    @Override
+    public HexGameState save(HexGameState entity) {
+        if (!validateEntity(entity)) {
+            throw new IllegalArgumentException("Invalid game state entity");
+        }
+        return onShard(shardOf(entity.getGameId()), shard -> shard.save(entity));
+    }
+
+    @Override
+    public List<HexGameState> saveAll(Collection<HexGameState> entities) {
+        Map<Integer, List<HexGameState>> byShard = entities.stream()
+                .collect(Collectors.groupingBy(gameState -> shardOf(gameState.getGameId())));
+        scatter(byShard.keySet(), (index, shard) -> shard.saveAll(byShard.get(index)));
+        return new ArrayList<>(entities);
+    }
+
+    @Override
+    public void appendMoves(HexGameState gameState, List<GameMove> moves) {
+        onShard(shardOf(gameState.getGameId()), shard -> {
+            moveLog(shard).appendMoves(gameState, moves);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<HexGameState> findById(String id) {
+        if (id == null) return Optional.empty();
+        return onShard(shardOf(id), shard -> shard.findById(id));
+    }
+
+    @Override
+    public List<GameMove> findMoves(String gameId) {
+        return onShard(shardOf(gameId), shard -> moveLog(shard).findMoves(gameId));
+    }
+
+    @Override
+    public Optional<HexGameState> loadAt(String gameId, int seq) {
+        return onShard(shardOf(gameId), shard -> moveLog(shard).loadAt(gameId, seq));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        if (id == null) return false;
+        return onShard(shardOf(id), shard -> shard.existsById(id));
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        if (id == null) return false;
+        return onShard(shardOf(id), shard -> shard.deleteById(id));
+    }
+
+    @Override
+    public List<HexGameState> findAll() {
+        return concat(scatterAll(DataRepository::findAll));
+    }
+
+    @Override
+    public List<HexGameState> findWhere(Predicate<HexGameState> condition) {
+        List<HexGameState> gathered = concat(scatterAll(shard -> shard.findWhere(condition)));
+        // Cada fragmento ya aplicó orden y límite; se repiten sobre la unión
+        return condition instanceof GameQuery query ? query.select(gathered) : gathered;
+    }
+
+    @Override
+    public <R> List<R> findAndTransform(Predicate<HexGameState> condition, Function<HexGameState, R> transformer) {
+        return findWhere(condition).stream().map(transformer).collect(Collectors.toList());
+    }
+
+    @Override
+    public long countWhere(Predicate<HexGameState> condition) {
+        long count = scatterAll(shard -> shard.countWhere(condition)).stream().mapToLong(Long::longValue).sum();
+        if (condition instanceof GameQuery query && query.getLimit() > 0) {
+            return Math.min(count, query.getLimit());
+        }
+        return count;
+    }
+
+    @Override
+    public long deleteWhere(Predicate<HexGameState> condition) {
+        if (condition instanceof GameQuery query && query.getLimit() > 0) {
+            // El límite es global: se eligen las partidas sobre la unión y se borran una a una
+            return findWhere(query).stream().filter(gameState -> deleteById(gameState.getGameId())).count();
+        }
+        return scatterAll(shard -> shard.deleteWhere(condition)).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public <R> R executeInTransaction(Function<DataRepository<HexGameState, String>, R> operation) {
+        return inShardTransactions(0, operation);
+    }
+
+    @Override
+    public List<HexGameState> findWithPagination(int page, int size) {
+        if (page < 0 || size <= 0) return new ArrayList<>();
+        // En long: (page + 1) * size puede pasar de Integer.MAX_VALUE; una lista no tiene más
+        int prefix = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+        List<List<HexGameState>> pages = scatterAll(shard -> shard.findWithPagination(0, prefix));
+        return merge(pages, BY_GAME_ID, (long) page * size, size);
+    }
+
+    @Override
+    public List<HexGameState> findAllSorted(Function<HexGameState, ? extends Comparable<?>> sortKeyExtractor, boolean ascending) {
+        @SuppressWarnings("unchecked")
+        Comparator<HexGameState> comparator = Comparator.comparing(
+                (Function<HexGameState, Comparable<Object>>) sortKeyExtractor,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        Comparator<HexGameState> order = ascending ? comparator : comparator.reversed();
+        List<List<HexGameState>> sorted = scatterAll(shard -> shard.findAllSorted(sortKeyExtractor, ascending));
+        return merge(sorted, order, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public <R> List<R> executeCustomQuery(String query, Function<Object, R> resultMapper) {
+        List<List<R>> results = scatterAll(shard -> shard.executeCustomQuery(query, resultMapper));
+        return concat(results);
+    }
+
+    /**
+     * Por fragmento: operaciones y latencia (media, p99, máximo). skew es la relación
+     * entre el fragmento con más operaciones y la media; 1.0 es un reparto perfecto.
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        List<Map<String, Object>> perShard = new ArrayList<>();
+        long total = 0;
+        long busiest = 0;
+        for (int i = 0; i < latencyMicros.length; i++) {
+            Map<String, Object> shardMetrics = new HashMap<>();
+            synchronized (latencyMicros[i]) {
+                long operations = latencyMicros[i].getCount();
+                total += operations;
+                busiest = Math.max(busiest, operations);
+                shardMetrics.put("shard", i);
+                shardMetrics.put("operations", operations);
+                shardMetrics.put("latencyMeanMs", latencyMicros[i].getMean() / 1000.0);
+                shardMetrics.put("latencyP99Ms", latencyMicros[i].getPercentile(99) / 1000.0);
+                shardMetrics.put("latencyMaxMs", latencyMicros[i].getMax() / 1000.0);
+            }
+            perShard.add(shardMetrics);
+        }
+        metrics.put("shards", perShard);
+        metrics.put("operations", total);
+        metrics.put("skew", total == 0 ? 1.0 : busiest / ((double) total / latencyMicros.length));
+        return metrics;
+    }
+
+    @Override
+    protected void initialize() {
+        // Cada fragmento se inicializa por su cuenta
+    }
+
+    @Override
+    protected void cleanup() {
+        scatter.shutdown();
+    }
+
+    @Override
+    protected boolean validateEntity(HexGameState entity) {
+        return entity != null && entity.getGameId() != null && !entity.getGameId().trim().isEmpty();
+    }
+
+    // Transacciones anidadas: la operación corre dentro de la de todos los fragmentos
+    private <R> R inShardTransactions(int index, Function<DataRepository<HexGameState, String>, R> operation) {
+        if (index == shards.size()) {
+            inTransaction.set(true);
+            try {
+                return operation.apply(this);
+            } finally {
+                inTransaction.remove();
+            }
+        }
+        return shards.get(index).executeInTransaction(shard -> inShardTransactions(index + 1, operation));
+    }
+
+    private <R> R onShard(int index, Function<DataRepository<HexGameState, String>, R> operation) {
+        long start = System.nanoTime();
+        try {
+            return operation.apply(shards.get(index));
+        } finally {
+            record(index, start);
+        }
+    }
+
+    private <R> List<R> scatterAll(Function<DataRepository<HexGameState, String>, R> operation) {
+        List<Integer> all = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            all.add(i);
+        }
+        return scatter(all, (index, shard) -> operation.apply(shard));
+    }
+
+    // Ejecuta en paralelo en los fragmentos indicados; devuelve los resultados en ese orden
+    private <R> List<R> scatter(Collection<Integer> indexes, ShardOperation<R> operation) {
+        if (indexes.size() == 1 || inTransaction.get()) {
+            List<R> results = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                results.add(onShard(index, shard -> operation.apply(index, shard)));
+            }
+            return results;
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> onShard(index, shard -> operation.apply(index, shard)), scatter));
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<R> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        return results;
+    }
+
+    private void record(int index, long startNanos) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        synchronized (latencyMicros[index]) {
+            latencyMicros[index].record(micros);
+        }
+    }
+
+    // Mezcla de listas ya ordenadas: salta skip elementos y devuelve hasta limit
+    private static List<HexGameState> merge(List<List<HexGameState>> sortedLists, Comparator<HexGameState> order,
+                                            long skip, int limit) {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>((a, b) -> order.compare(a.current(), b.current()));
+        for (List<HexGameState> list : sortedLists) {
+            if (!list.isEmpty()) {
+                heads.add(new Cursor(list));
+            }
+        }
+        List<HexGameState> result = new ArrayList<>();
+        long position = 0;
+        while (!heads.isEmpty() && result.size() < limit) {
+            Cursor head = heads.poll();
+            if (position++ >= skip) {
+                result.add(head.current());
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+
+    private static <R> List<R> concat(List<List<R>> lists) {
+        List<R> result = new ArrayList<>();
+        lists.forEach(result::addAll);
+        return result;
+    }
+
+    private static GameMoveLog moveLog(DataRepository<HexGameState, String> shard) {
+        if (shard instanceof GameMoveLog log) {
+            return log;
+        }
+        throw new UnsupportedOperationException("Shard does not keep a move log");
+    }
+
+    @FunctionalInterface
+    private interface ShardOperation<R> {
+        R apply(int index, DataRepository<HexGameState, String> shard);
+    }
+
+    private static final class Cursor {
+        private final List<HexGameState> list;
+        private int position;
+
+        Cursor(List<HexGameState> list) {
+            this.list = list;
+        }
+
+        HexGameState current() {
+            return list.get(position);
+        }
+
+        boolean advance() {
+            return ++position < list.size();
+        }
+    }
+}
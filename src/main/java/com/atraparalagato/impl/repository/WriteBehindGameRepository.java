@@ -0,0 +1,490 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.metrics.LogLinearHistogram;
+import com.atraparalagato.impl.model.GameMove;
+import com.atraparalagato.impl.model.HexGameState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Capa write-behind delante de cualquier repositorio de partidas hexagonales.
+ *
+ * Las partidas activas viven en memoria (codificadas con HexGameStateCodec, así cada
+ * lectura entrega una copia independiente). save y appendMove solo tocan memoria y
+ * marcan la partida como sucia; un hilo de fondo escribe las partidas sucias en una
+ * sola transacción cada flushIntervalMillis o en cuanto hay flushBatchSize pendientes.
+ * Si el repositorio subyacente implementa GameMoveLog, los movimientos se envían como
+ * lote de registro; si no, se guarda el estado completo.
+ *
+ * Al terminar una partida se fuerza su escritura antes de volver. Las consultas que
+ * recorren todo el repositorio escriben antes lo pendiente para leer lo último.
+ * El retraso de escritura (desde que una partida se ensucia hasta que queda guardada)
+ * se expone en getMetrics().
+ */
+public class WriteBehindGameRepository extends DataRepository<HexGameState, String> implements GameMoveLog {
+
+    // Partidas limpias sin acceso durante este tiempo dejan de estar en memoria
+    private static final long IDLE_EVICTION_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final DataRepository<HexGameState, String> delegate;
+    private final GameMoveLog delegateLog;
+    private final int flushBatchSize;
+
+    private final Map<String, HotGame> hotGames = new ConcurrentHashMap<>();
+    private final Set<String> dirtyGames = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Las escrituras de una partida deben llegar en orden: un solo flush a la vez
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Métricas (el histograma y los contadores de flush se protegen con flushLock)
+    private final LogLinearHistogram flushLagMicros = new LogLinearHistogram();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedGames = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+
+    public WriteBehindGameRepository(DataRepository<HexGameState, String> delegate,
+                                     long flushIntervalMillis, int flushBatchSize) {
+        if (flushIntervalMillis <= 0 || flushBatchSize <= 0) {
+            throw new IllegalArgumentException("Flush interval and batch size must be positive");
+        }
+        this.delegate = delegate;
+        this.delegateLog = delegate instanceof GameMoveLog log ? log : null;
+        this.flushBatchSize = flushBatchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public HexGameState save(HexGameState entity) {
+        if (!validateEntity(entity)) {
+            throw new IllegalArgumentException("Invalid game state entity");
+        }
+        // Los movimientos pendientes anteriores van primero para no perderlos del registro
+        HotGame pending = hotGames.get(entity.getGameId());
+        if (pending != null && pending.hasPendingMoves()) {
+            flushGames(List.of(entity.getGameId()));
+        }
+
+        HotGame hot = hotGames.computeIfAbsent(entity.getGameId(), id -> new HotGame());
+        synchronized (hot) {
+            hot.state = HexGameStateCodec.encode(entity);
+            hot.finished = entity.isGameFinished();
+            hot.saveRequired = true;
+            hot.markDirty();
+        }
+        afterChange(entity);
+        return entity;
+    }
+
+    @Override
+    public void appendMoves(HexGameState gameState, List<GameMove> moves) {
+        if (moves.isEmpty()) return;
+        HotGame hot = hotGames.computeIfAbsent(gameState.getGameId(), id -> new HotGame());
+        synchronized (hot) {
+            hot.state = HexGameStateCodec.encode(gameState);
+            hot.finished = gameState.isGameFinished();
+            hot.moves.addAll(moves);
+            hot.markDirty();
+        }
+        afterChange(gameState);
+    }
+
+    @Override
+    public Optional<HexGameState> findById(String id) {
+        if (id == null) return Optional.empty();
+        HotGame hot = hotGames.get(id);
+        if (hot != null) {
+            synchronized (hot) {
+                if (hot.state != null) {
+                    hot.lastAccessNanos = System.nanoTime();
+                    return Optional.of(HexGameStateCodec.decode(id, hot.state));
+                }
+            }
+        }
+
+        Optional<HexGameState> loaded = delegate.findById(id);
+        loaded.ifPresent(gameState -> {
+            HotGame admitted = new HotGame();
+            admitted.state = HexGameStateCodec.encode(gameState);
+            hotGames.putIfAbsent(id, admitted);
+        });
+        return loaded;
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        if (id == null) return false;
+        return hotGames.containsKey(id) || delegate.existsById(id);
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        if (id == null) return false;
+        boolean wasHot = hotGames.remove(id) != null;
+        dirtyGames.remove(id);
+        flushLock.lock();
+        try {
+            return delegate.deleteById(id) || wasHot;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public List<GameMove> findMoves(String gameId) {
+        flushGames(List.of(gameId));
+        return requireDelegateLog().findMoves(gameId);
+    }
+
+    @Override
+    public Optional<HexGameState> loadAt(String gameId, int seq) {
+        flushGames(List.of(gameId));
+        return requireDelegateLog().loadAt(gameId, seq);
+    }
+
+    // Consultas sobre todo el repositorio: primero se escribe lo pendiente
+
+    @Override
+    public List<HexGameState> findAll() {
+        flush();
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<HexGameState> findWhere(Predicate<HexGameState> condition) {
+        flush();
+        return delegate.findWhere(condition);
+    }
+
+    @Override
+    public <R> List<R> findAndTransform(Predicate<HexGameState> condition, Function<HexGameState, R> transformer) {
+        flush();
+        return delegate.findAndTransform(condition, transformer);
+    }
+
+    @Override
+    public long countWhere(Predicate<HexGameState> condition) {
+        flush();
+        return delegate.countWhere(condition);
+    }
+
+    @Override
+    public long deleteWhere(Predicate<HexGameState> condition) {
+        flush();
+        long deleted = delegate.deleteWhere(condition);
+        evictClean();
+        return deleted;
+    }
+
+    @Override
+    public <R> R executeInTransaction(Function<DataRepository<HexGameState, String>, R> operation) {
+        // La transacción trabaja directamente sobre el repositorio subyacente
+        flush();
+        try {
+            return delegate.executeInTransaction(operation);
+        } finally {
+            evictClean();
+        }
+    }
+
+    @Override
+    public List<HexGameState> findWithPagination(int page, int size) {
+        flush();
+        return delegate.findWithPagination(page, size);
+    }
+
+    @Override
+    public List<HexGameState> findAllSorted(Function<HexGameState, ? extends Comparable<?>> sortKeyExtractor, boolean ascending) {
+        flush();
+        return delegate.findAllSorted(sortKeyExtractor, ascending);
+    }
+
+    @Override
+    public <R> List<R> executeCustomQuery(String query, Function<Object, R> resultMapper) {
+        flush();
+        return delegate.executeCustomQuery(query, resultMapper);
+    }
+
+    /**
+     * Escribe todas las partidas sucias. Devuelve cuántas se guardaron.
+     */
+    public int flush() {
+        return flushGames(new ArrayList<>(dirtyGames));
+    }
+
+    /**
+     * Detiene el hilo de escritura y guarda lo pendiente.
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * Partidas en memoria, pendientes de escribir y retraso de escritura en milisegundos.
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("hotGames", hotGames.size());
+        metrics.put("dirtyGames", dirtyGames.size());
+        metrics.put("flushes", flushCount.get());
+        metrics.put("flushedGames", flushedGames.get());
+        metrics.put("flushFailures", flushFailures.get());
+        metrics.put("currentFlushLagMs", currentFlushLagNanos() / 1_000_000.0);
+        flushLock.lock();
+        try {
+            metrics.put("flushLagMeanMs", flushLagMicros.getMean() / 1000.0);
+            metrics.put("flushLagP99Ms", flushLagMicros.getPercentile(99) / 1000.0);
+            metrics.put("flushLagMaxMs", flushLagMicros.getMax() / 1000.0);
+        } finally {
+            flushLock.unlock();
+        }
+        return metrics;
+    }
+
+    @Override
+    protected void initialize() {
+        // El hilo de escritura arranca en el constructor
+    }
+
+    @Override
+    protected void cleanup() {
+        shutdown();
+    }
+
+    @Override
+    protected boolean validateEntity(HexGameState entity) {
+        return entity != null && entity.getGameId() != null && !entity.getGameId().trim().isEmpty();
+    }
+
+    private void afterChange(HexGameState gameState) {
+        dirtyGames.add(gameState.getGameId());
+        if (gameState.isGameFinished()) {
+            // El resultado de una partida terminada no espera al siguiente ciclo
+            flushGames(List.of(gameState.getGameId()));
+        } else if (dirtyGames.size() >= flushBatchSize && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+            evictIdle();
+        } catch (RuntimeException e) {
+            System.err.println("Error en escritura diferida: " + e.getMessage());
+        }
+    }
+
+    private int flushGames(List<String> gameIds) {
+        flushLock.lock();
+        try {
+            List<PendingWrite> batch = new ArrayList<>();
+            for (String gameId : gameIds) {
+                HotGame hot = hotGames.get(gameId);
+                if (hot == null) {
+                    dirtyGames.remove(gameId);
+                    continue;
+                }
+                synchronized (hot) {
+                    if (hot.isDirty()) {
+                        batch.add(new PendingWrite(gameId, hot));
+                        hot.markClean();
+                    }
+                    dirtyGames.remove(gameId);
+                }
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                delegate.executeInTransaction(repo -> {
+                    write(batch);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                flushFailures.incrementAndGet();
+                batch.forEach(this::requeue);
+                throw e;
+            }
+
+            long now = System.nanoTime();
+            for (PendingWrite write : batch) {
+                flushLagMicros.record((now - write.dirtySinceNanos) / 1000);
+                if (write.finished) {
+                    hotGames.computeIfPresent(write.gameId, (id, hot) -> hot.isDirty() ? hot : null);
+                }
+            }
+            flushCount.incrementAndGet();
+            flushedGames.addAndGet(batch.size());
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Las partidas que necesitan instantánea se guardan en un solo saveAll; luego se registran los movimientos
+    private void write(List<PendingWrite> batch) {
+        List<HexGameState> toSave = new ArrayList<>();
+        List<Map.Entry<HexGameState, List<GameMove>>> toAppend = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            HexGameState gameState = HexGameStateCodec.decode(write.gameId, write.state);
+            boolean logMoves = !write.moves.isEmpty() && delegateLog != null;
+            if (write.saveRequired || (!write.moves.isEmpty() && !logMoves)) {
+                toSave.add(gameState);
+            }
+            if (logMoves) {
+                toAppend.add(Map.entry(gameState, write.moves));
+            }
+        }
+        if (!toSave.isEmpty()) {
+            delegate.saveAll(toSave);
+        }
+        for (Map.Entry<HexGameState, List<GameMove>> append : toAppend) {
+            delegateLog.appendMoves(append.getKey(), append.getValue());
+        }
+    }
+
+    // Devuelve una escritura fallida a la partida, delante de lo que se haya acumulado después
+    private void requeue(PendingWrite write) {
+        HotGame hot = hotGames.get(write.gameId);
+        if (hot == null) {
+            return; // borrada mientras tanto
+        }
+        synchronized (hot) {
+            // Un save posterior ya reemplaza al estado fallido
+            if (!hot.saveRequired) {
+                hot.saveRequired = write.saveRequired;
+                hot.moves.addAll(0, write.moves);
+            }
+            hot.dirtySinceNanos = hot.dirtySinceNanos == 0
+                    ? write.dirtySinceNanos
+                    : Math.min(hot.dirtySinceNanos, write.dirtySinceNanos);
+        }
+        dirtyGames.add(write.gameId);
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        hotGames.entrySet().removeIf(entry -> {
+            HotGame hot = entry.getValue();
+            synchronized (hot) {
+                return !hot.isDirty() && now - hot.lastAccessNanos > IDLE_EVICTION_NANOS;
+            }
+        });
+    }
+
+    // Tras escribir directamente en el repositorio subyacente, las copias limpias pueden estar obsoletas
+    private void evictClean() {
+        hotGames.entrySet().removeIf(entry -> {
+            HotGame hot = entry.getValue();
+            synchronized (hot) {
+                return !hot.isDirty();
+            }
+        });
+    }
+
+    private long currentFlushLagNanos() {
+        long now = System.nanoTime();
+        long oldest = 0;
+        for (String gameId : dirtyGames) {
+            HotGame hot = hotGames.get(gameId);
+            if (hot != null) {
+                synchronized (hot) {
+                    if (hot.isDirty()) {
+                        oldest = Math.max(oldest, now - hot.dirtySinceNanos);
+                    }
+                }
+            }
+        }
+        return oldest;
+    }
+
+    private GameMoveLog requireDelegateLog() {
+        if (delegateLog == null) {
+            throw new UnsupportedOperationException("The underlying repository does not keep a move log");
+        }
+        return delegateLog;
+    }
+
+    /**
+     * Partida en memoria. Se protege con synchronized sobre la propia instancia.
+     */
+    private static final class HotGame {
+        byte[] state;
+        boolean finished;
+        boolean saveRequired;
+        final List<GameMove> moves = new ArrayList<>();
+        long dirtySinceNanos;
+        long lastAccessNanos = System.nanoTime();
+
+        boolean isDirty() {
+            return saveRequired || !moves.isEmpty();
+        }
+
+        boolean hasPendingMoves() {
+            synchronized (this) {
+                return !moves.isEmpty();
+            }
+        }
+
+        void markDirty() {
+            long now = System.nanoTime();
+            if (dirtySinceNanos == 0) {
+                dirtySinceNanos = now;
+            }
+            lastAccessNanos = now;
+        }
+
+        void markClean() {
+            saveRequired = false;
+            moves.clear();
+            dirtySinceNanos = 0;
+        }
+    }
+
+    /**
+     * Copia de lo que hay que escribir de una partida, tomada bajo su candado.
+     */
+    private static final class PendingWrite {
+        final String gameId;
+        final byte[] state;
+        final boolean saveRequired;
+        final List<GameMove> moves;
+        final long dirtySinceNanos;
+        final boolean finished;
+
+        PendingWrite(String gameId, HotGame hot) {
+            this.gameId = gameId;
+            this.state = hot.state;
+            this.saveRequired = hot.saveRequired;
+            this.moves = List.copyOf(hot.moves);
+            this.dirtySinceNanos = hot.dirtySinceNanos;
+            this.finished = hot.finished;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.atraparalagato.impl.service;
+
+/**
+ * Cómo se serializan las operaciones sobre una misma partida en HexGameService.
+ */
+public enum GameEngineMode {
+    /** Cada petición trabaja en su propio hilo con la partida bloqueada (GameLockTable). */
+    LOCKED,
+    /** Las partidas se reparten entre bucles de un solo hilo, uno por núcleo (GameEventLoops). */
+    EVENT_LOOPS
+}
@@ -0,0 +1,254 @@
+package com.atraparalagato.impl.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bucles de eventos de un solo hilo, cada uno dueño de las partidas que caen en él por
+ * hash del gameId.
+ *
+ * Las operaciones de una partida se encolan en su bucle y se ejecutan allí de una en una,
+ * sin bloqueos: el hilo que pide la operación la deja en una cola sin bloqueos (varios
+ * productores, un consumidor) y espera al futuro. Las partidas de un bucle se tocan
+ * siempre desde el mismo hilo, así que su estado se queda en la caché de ese núcleo.
+ *
+ * Una operación lanzada desde el propio bucle de la partida se ejecuta en el momento
+ * (como un bloqueo reentrante). Las operaciones no deben esperar a otro bucle que pueda
+ * estar esperando a este; executeGrouped lo rechaza si el lote abarca otros bucles. Lo que
+ * bloquea (p. ej. un commit síncrono) bloquea todo el bucle, así que este modo rinde más
+ * con escrituras diferidas.
+ */
+public class GameEventLoops implements GameSequencer, AutoCloseable {
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+    private final EventLoop[] loops;
+
+    /**
+     * @param loopCount número de bucles (normalmente uno por núcleo)
+     */
+    public GameEventLoops(int loopCount) {
+        if (loopCount <= 0) {
+            throw new IllegalArgumentException("Invalid number of event loops: " + loopCount);
+        }
+        this.loops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new EventLoop("game-loop-" + i);
+        }
+    }
+
+    @Override
+    public <R> R execute(String gameId, Supplier<R> operation) {
+        EventLoop loop = loops[loopOf(gameId)];
+        if (loop.isCurrentThread()) {
+            return operation.get();
+        }
+        return join(loop.submit(operation));
+    }
+
+    /**
+     * Un grupo por bucle con las partidas que le tocan; los grupos se ejecutan en paralelo,
+     * cada uno en su bucle, y se espera a todos.
+     *
+     * Desde un bucle solo se aceptan partidas de ese mismo bucle: esperar a otro bucle que a
+     * su vez esperase a este lo bloquearía para siempre, así que falla con IllegalStateException
+     * antes de ejecutar nada.
+     */
+    @Override
+    public <R> List<R> executeGrouped(Collection<String> gameIds, Function<List<String>, R> operation) {
+        Map<Integer, List<String>> groups = new LinkedHashMap<>();
+        for (String gameId : gameIds) {
+            groups.computeIfAbsent(loopOf(gameId), loop -> new ArrayList<>()).add(gameId);
+        }
+        int current = currentLoop();
+        if (current >= 0 && groups.size() > (groups.containsKey(current) ? 1 : 0)) {
+            throw new IllegalStateException("Grouped operation on " + loops[current].thread.getName()
+                    + " spans other event loops: " + groups.keySet());
+        }
+        if (current >= 0) {
+            return groups.isEmpty() ? List.of() : List.of(operation.apply(groups.get(current)));
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(groups.size());
+        for (Map.Entry<Integer, List<String>> group : groups.entrySet()) {
+            futures.add(loops[group.getKey()].submit(() -> operation.apply(group.getValue())));
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<R> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    // Índice del bucle del hilo actual, o -1 si no es un bucle
+    private int currentLoop() {
+        for (int i = 0; i < loops.length; i++) {
+            if (loops[i].isCurrentThread()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int loopOf(String gameId) {
+        int hash = gameId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), loops.length);
+    }
+
+    /**
+     * Operaciones ejecutadas y encoladas, en total y por bucle.
+     */
+    @Override
+    public Map<String, Object> getStats() {
+        long executed = 0;
+        int queued = 0;
+        List<Map<String, Object>> perLoop = new ArrayList<>(loops.length);
+        for (EventLoop loop : loops) {
+            executed += loop.executed.get();
+            queued += loop.queued.get();
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("executed", loop.executed.get());
+            stats.put("queued", loop.queued.get());
+            stats.put("maxQueued", loop.maxQueued.get());
+            perLoop.add(stats);
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loops", loops.length);
+        stats.put("executed", executed);
+        stats.put("queued", queued);
+        stats.put("perLoop", perLoop);
+        return stats;
+    }
+
+    /**
+     * Termina lo encolado y detiene los bucles; después no se aceptan operaciones. Lo que
+     * quede en las colas al cerrar (encolado a la vez que el cierre, o sin terminar a tiempo)
+     * falla con IllegalStateException: quien espera al futuro no se queda bloqueado.
+     */
+    @Override
+    public void close() {
+        for (EventLoop loop : loops) {
+            loop.running = false;
+            LockSupport.unpark(loop.thread);
+        }
+        boolean interrupted = false;
+        for (EventLoop loop : loops) {
+            if (!interrupted) {
+                try {
+                    loop.thread.join(SHUTDOWN_TIMEOUT_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    interrupted = true;
+                }
+            }
+            loop.rejectQueued();
+        }
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private static final class EventLoop implements Runnable {
+        private final Queue<Task<?>> tasks = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private volatile boolean running = true;
+        private final AtomicLong executed = new AtomicLong();
+        // El tamaño de ConcurrentLinkedQueue es O(n): se cuenta aparte
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger maxQueued = new AtomicInteger();
+
+        EventLoop(String name) {
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        boolean isCurrentThread() {
+            return Thread.currentThread() == thread;
+        }
+
+        <R> CompletableFuture<R> submit(Supplier<R> operation) {
+            if (!running) {
+                throw shutDown();
+            }
+            Task<R> task = new Task<>(operation);
+            // Se cuenta antes de encolar para que el bucle nunca lo deje en negativo
+            maxQueued.accumulateAndGet(queued.incrementAndGet(), Math::max);
+            tasks.offer(task);
+            // Si se cerró entre la comprobación y la cola, el bucle puede haber salido ya: la
+            // tarea se retira y falla. Si ya no está, la sacó el bucle (la ejecuta) o el cierre (la falla)
+            if (!running && tasks.remove(task)) {
+                queued.decrementAndGet();
+                task.future.completeExceptionally(shutDown());
+            }
+            // Si el bucle ya estaba despierto, el permiso solo le ahorra la siguiente espera
+            LockSupport.unpark(thread);
+            return task.future;
+        }
+
+        // Tras el cierre: falla lo que el bucle no llegó a ejecutar
+        void rejectQueued() {
+            Task<?> task;
+            while ((task = tasks.poll()) != null) {
+                queued.decrementAndGet();
+                task.future.completeExceptionally(shutDown());
+            }
+        }
+
+        private IllegalStateException shutDown() {
+            return new IllegalStateException("Event loop " + thread.getName() + " is shut down");
+        }
+
+        @Override
+        public void run() {
+            while (running || !tasks.isEmpty()) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    // Un unpark anterior al park hace que vuelva enseguida: no se pierden avisos
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+                    continue;
+                }
+                queued.decrementAndGet();
+                // Se cuenta antes de ejecutarla: al completar el futuro, quien espera ya la ve contada
+                executed.incrementAndGet();
+                task.run();
+            }
+        }
+    }
+
+    private static final class Task<R> implements Runnable {
+        final Supplier<R> operation;
+        final CompletableFuture<R> future = new CompletableFuture<>();
+
+        Task(Supplier<R> operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(operation.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+}
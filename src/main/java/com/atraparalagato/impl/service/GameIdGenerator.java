@@ -0,0 +1,155 @@
+package com.atraparalagato.impl.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Identificadores de partida de 64 bits ordenados por tiempo, para el gameIdGenerator de GameService.
+ *
+ *   milisegundos desde 2024-01-01 (41 bits, ~69 años) | secuencia (13 bits) | nodo (10 bits)
+ *
+ * Los identificadores de un nodo son estrictamente crecientes: el reloj y la secuencia
+ * viven en un único AtomicLong que se avanza con CAS, sin bloqueos. Si en un milisegundo
+ * se agotan las 8192 secuencias, o el reloj retrocede, se sigue con el siguiente valor
+ * (se adelanta al reloj en vez de esperar o repetir). Por eso dentro de un proceso debe
+ * haber un único generador (shared(), o uno creado al arrancar y pasado a los servicios):
+ * dos generadores con el mismo nodo repiten identificadores.
+ *
+ * El nodo distingue procesos que generan a la vez; se toma de la propiedad del sistema
+ * game.id.node o, si no está, de un hash de 10 bits del nombre de la máquina y el pid.
+ * Con varios procesos ese hash choca con facilidad (cumpleaños sobre 1024 valores), así
+ * que si varias instancias escriben en la misma base hay que darle a cada una su nodo.
+ * Aun así, la base rechaza una partida nueva con un gameId que ya existe.
+ *
+ * Se codifican en Base32 de Crockford con 13 caracteres de ancho fijo, así que el orden
+ * de las cadenas es el de los números: las partidas nuevas se insertan al final del
+ * índice de clave primaria en vez de en posiciones aleatorias como con UUID.
+ *
+ * A diferencia de un UUID aleatorio, estos identificadores se pueden adivinar (hora,
+ * secuencia y nodo). No son un secreto: no sirven para autorizar operaciones sobre la
+ * partida, que hoy solo se comprueban por gameId.
+ */
+public class GameIdGenerator implements Supplier<String> {
+
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 13;
+    private static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    // Generador del proceso con el nodo por defecto, para los servicios que no reciben uno
+    private static final class Shared {
+        static final GameIdGenerator INSTANCE = new GameIdGenerator();
+    }
+
+    private final int node;
+    // (milisegundos << SEQUENCE_BITS) | secuencia del último identificador
+    private final AtomicLong last = new AtomicLong();
+
+    public GameIdGenerator() {
+        this(defaultNode());
+    }
+
+    public GameIdGenerator(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    /**
+     * Generador único del proceso con el nodo por defecto.
+     */
+    public static GameIdGenerator shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Indica si el nodo está configurado con la propiedad del sistema game.id.node.
+     */
+    public static boolean hasConfiguredNode() {
+        return Integer.getInteger("game.id.node") != null;
+    }
+
+    @Override
+    public String get() {
+        return encode(nextId());
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long next = last.updateAndGet(previous -> Math.max(now, previous + 1));
+        return (next << NODE_BITS) | node;
+    }
+
+    public int getNode() {
+        return node;
+    }
+
+    /**
+     * Milisegundos desde epoch en que se generó el identificador.
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (SEQUENCE_BITS + NODE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeOf(long id) {
+        return (int) (id & MAX_NODE);
+    }
+
+    /**
+     * Base32 de Crockford, 13 caracteres con ceros a la izquierda.
+     */
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    public static long decode(String encoded) {
+        if (encoded == null || encoded.length() != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Invalid game id: " + encoded);
+        }
+        long id = 0;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            int digit = digit(encoded.charAt(i));
+            if (digit < 0 || (i == 0 && digit > 15)) { // el primer carácter solo lleva 4 bits
+                throw new IllegalArgumentException("Invalid game id: " + encoded);
+            }
+            id = (id << 5) | digit;
+        }
+        return id;
+    }
+
+    private static int digit(char c) {
+        char upper = Character.toUpperCase(c);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == upper) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int defaultNode() {
+        Integer configured = Integer.getInteger("game.id.node");
+        if (configured != null) {
+            return configured;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        int hash = 31 * host.hashCode() + Long.hashCode(ProcessHandle.current().pid());
+        return (hash ^ (hash >>> 16)) & MAX_NODE;
+    }
+}
@@ -0,0 +1,169 @@
+package com.atraparalagato.impl.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Tabla de bloqueos por franjas para serializar las operaciones sobre una misma partida.
+ *
+ * Cada gameId cae en una de stripes franjas (por hash) con su propio ReentrantLock: las
+ * operaciones sobre una partida se ejecutan de una en una y las de partidas en franjas
+ * distintas en paralelo. Dos partidas pueden compartir franja; con bastantes franjas es
+ * raro y solo cuesta esperar, nunca un error. Los bloqueos son reentrantes, así que una
+ * operación bloqueada puede llamar a otra de la misma partida.
+ *
+ * Por franja se cuentan adquisiciones, esperas (el bloqueo estaba ocupado) y tiempo
+ * esperado, para ver en las métricas qué franjas están calientes.
+ *
+ * Como GameSequencer, executeGrouped forma un único grupo con todas las partidas.
+ */
+public class GameLockTable implements GameSequencer {
+
+    private static final int HOT_STRIPES_REPORTED = 5;
+    // Contadores de una franja juntos y separados 64 bytes de los de la siguiente (sin falso compartir)
+    private static final int COUNTER_STRIDE = 8;
+    private static final int ACQUISITIONS = 0;
+    private static final int CONTENDED = 1;
+    private static final int WAIT_NANOS = 2;
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param stripes número de franjas (se redondea a potencia de dos)
+     */
+    public GameLockTable(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Invalid number of lock stripes: " + stripes);
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.counters = new AtomicLongArray(size * COUNTER_STRIDE);
+    }
+
+    /**
+     * Ejecuta la operación con la partida bloqueada.
+     */
+    public <R> R withLock(String gameId, Supplier<R> operation) {
+        int stripe = stripeOf(gameId);
+        lock(stripe);
+        try {
+            return operation.get();
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Ejecuta la operación con todas las partidas bloqueadas. Las franjas se toman siempre
+     * en orden creciente, así que dos llamadas con partidas en común no se interbloquean.
+     */
+    public <R> R withLocks(Collection<String> gameIds, Supplier<R> operation) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        gameIds.forEach(gameId -> stripes.add(stripeOf(gameId)));
+        List<Integer> held = new ArrayList<>(stripes.size());
+        try {
+            for (int stripe : stripes) {
+                lock(stripe);
+                held.add(stripe);
+            }
+            return operation.get();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                locks[held.get(i)].unlock();
+            }
+        }
+    }
+
+    @Override
+    public <R> R execute(String gameId, Supplier<R> operation) {
+        return withLock(gameId, operation);
+    }
+
+    @Override
+    public <R> List<R> executeGrouped(Collection<String> gameIds, Function<List<String>, R> operation) {
+        List<String> group = List.copyOf(gameIds);
+        return Collections.singletonList(withLocks(group, () -> operation.apply(group)));
+    }
+
+    public int stripeOf(String gameId) {
+        int hash = gameId.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Adquisiciones, esperas y las franjas con más esperas.
+     */
+    @Override
+    public Map<String, Object> getStats() {
+        long totalAcquisitions = 0;
+        long totalContended = 0;
+        long totalWaitNanos = 0;
+        for (int i = 0; i < locks.length; i++) {
+            totalAcquisitions += counter(i, ACQUISITIONS);
+            totalContended += counter(i, CONTENDED);
+            totalWaitNanos += counter(i, WAIT_NANOS);
+        }
+        List<Map<String, Object>> hot = IntStream.range(0, locks.length)
+                .filter(i -> counter(i, CONTENDED) > 0)
+                .boxed()
+                .sorted(Comparator.comparingLong((Integer i) -> counter(i, CONTENDED)).reversed())
+                .limit(HOT_STRIPES_REPORTED)
+                .map(i -> {
+                    Map<String, Object> stripe = new HashMap<>();
+                    stripe.put("stripe", i);
+                    stripe.put("acquisitions", counter(i, ACQUISITIONS));
+                    stripe.put("contended", counter(i, CONTENDED));
+                    stripe.put("waitMs", TimeUnit.NANOSECONDS.toMillis(counter(i, WAIT_NANOS)));
+                    stripe.put("queued", locks[i].getQueueLength());
+                    return stripe;
+                })
+                .toList();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("stripes", locks.length);
+        stats.put("acquisitions", totalAcquisitions);
+        stats.put("contended", totalContended);
+        stats.put("contentionRate", totalAcquisitions == 0 ? 0.0 : (double) totalContended / totalAcquisitions);
+        stats.put("waitMs", TimeUnit.NANOSECONDS.toMillis(totalWaitNanos));
+        stats.put("hotStripes", hot);
+        return stats;
+    }
+
+    private void lock(int stripe) {
+        ReentrantLock lock = locks[stripe];
+        int base = stripe * COUNTER_STRIDE;
+        counters.incrementAndGet(base + ACQUISITIONS);
+        if (lock.tryLock()) {
+            return;
+        }
+        counters.incrementAndGet(base + CONTENDED);
+        long start = System.nanoTime();
+        lock.lock();
+        counters.addAndGet(base + WAIT_NANOS, System.nanoTime() - start);
+    }
+
+    private long counter(int stripe, int offset) {
+        return counters.get(stripe * COUNTER_STRIDE + offset);
+    }
+}
@@ -0,0 +1,28 @@
+package com.atraparalagato.impl.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta de una en una las operaciones que leen, modifican y guardan una misma partida;
+ * las de partidas distintas pueden avanzar en paralelo.
+ */
+public interface GameSequencer {
+
+    /**
+     * Ejecuta la operación sin que se cuele otra de la misma partida y devuelve su resultado.
+     */
+    <R> R execute(String gameId, Supplier<R> operation);
+
+    /**
+     * Ejecuta la operación sobre grupos de las partidas dadas, cada grupo sin que se cuele
+     * otra operación de sus partidas. Cuántos grupos se forman depende de la implementación;
+     * devuelve el resultado de cada grupo.
+     */
+    <R> List<R> executeGrouped(Collection<String> gameIds, Function<List<String>, R> operation);
+
+    Map<String, Object> getStats();
+}
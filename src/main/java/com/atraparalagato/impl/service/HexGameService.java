@@ -1,5 +1,6 @@
 package com.atraparalagato.impl.service;
 
+import com.atraparalagato.base.repository.DataRepository;
 import com.atraparalagato.base.service.GameService;
 import com.atraparalagato.base.model.GameState;
 import com.atraparalagato.base.model.GameBoard;
@@ -8,11 +9,33 @@ import com.atraparalagato.example.model.ExampleGameBoard;
 import com.atraparalagato.example.model.ExampleGameState;
 import com.atraparalagato.example.strategy.SimpleCatMovement;
 import com.atraparalagato.impl.model.HexPosition;
+import com.atraparalagato.impl.repository.CachingRepository;
+import com.atraparalagato.impl.repository.DurabilityMode;
+import com.atraparalagato.impl.repository.GameConflictException;
+import com.atraparalagato.impl.repository.GameMoveLog;
+import com.atraparalagato.impl.repository.GameQuery;
+import com.atraparalagato.impl.repository.GroupCommitGameRepository;
 import com.atraparalagato.impl.repository.H2GameRepository;
+import com.atraparalagato.impl.repository.OffHeapGameArena;
+import com.atraparalagato.impl.repository.ShardedGameRepository;
+import com.atraparalagato.impl.repository.WriteBehindGameRepository;
 import com.atraparalagato.impl.model.HexGameState;
 import com.atraparalagato.impl.model.HexGameBoard;
+import com.atraparalagato.impl.model.PuzzleDifficulty;
+import com.atraparalagato.impl.strategy.BFSCatMovement;
+import com.atraparalagato.impl.strategy.BatchCatMovement;
 
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 
 
@@ -30,23 +53,166 @@ import java.util.*;
  * - Integración con repositorio y estrategias
  */
 public class HexGameService extends GameService<HexPosition> {
+
+    private static final int DEFAULT_BOARD_SIZE = 5;
+    private static final int PUZZLE_POOL_CAPACITY = 64;
+    private static final long FLUSH_INTERVAL_MILLIS = 250;
+    private static final int FLUSH_BATCH_SIZE = 256;
+    private static final int GAME_CACHE_SIZE = 4096;
+    private static final long GROUP_COMMIT_WINDOW_MICROS = 500;
+    private static final int GROUP_COMMIT_MAX_SIZE = 256;
+    private static final int ARENA_MAX_BOARD_SIZE = 15;
+    private static final int ARENA_MAX_GAMES = 1 << 19;
+    private static final long TIMER_TICK_MILLIS = 100;
+    private static final int TIMER_WHEEL_SIZE = 512;
+    private static final long IDLE_GAME_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final long PAUSE_EXPIRY_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final int LEADERBOARD_CAPACITY = 1000;
+    private static final Path PLAYER_STATS_FILE = Path.of("./data/atrapar-al-gato-player-stats.bin");
+    private static final long PLAYER_STATS_CHECKPOINT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final String ANONYMOUS_PLAYER = "anonymous";
+    private static final int GAME_LOCK_STRIPES = 1024;
+    private static final int MAX_CONFLICT_RETRIES = 3;
+
     //DataRepository<HexGameState, String> repo = new H2GameRepository();
     // TODO: Los estudiantes deben inyectar dependencias
     // Ejemplos: repository, movementStrategy, validator, etc.
-    private final H2GameRepository repo = new H2GameRepository();
+    // Escrituras a H2 según la durabilidad: agrupadas y síncronas (SYNC) o en lotes en segundo plano
+    private final DurabilityMode durability;
+    private final DataRepository<HexGameState, String> gameStore;
+    private final GameMoveLog moveLog;
+    // Lecturas repetidas de la misma partida (p. ej. executePlayerMove + isValidMove) sin decodificar:
+    // caché de objetos en el heap o, en modo arena, partidas vivas fuera del heap. Los objetos de la
+    // caché son compartidos: solo se leen o modifican en el turno de su partida (sequencer), y si una
+    // escritura falla se descartan para no dejar en la caché un movimiento sin guardar
+    private final DataRepository<HexGameState, String> repo;
+    // Todas las capas de almacenamiento, de arriba abajo, en el orden en que se cierran
+    private final List<DataRepository<HexGameState, String>> storageLayers = new ArrayList<>();
+
+    // Motores de movimiento del gato compartidos por tamaño de tablero
+    private final Map<Integer, BatchCatMovement> catMoveEngines = new ConcurrentHashMap<>();
+    
+    // Tableros iniciales con celdas prebloqueadas, ya validados, por (tamaño, dificultad)
+    private final PuzzlePool puzzlePool = new PuzzlePool(PUZZLE_POOL_CAPACITY, ThreadLocalRandom.current().nextLong());
+
+    // Las operaciones que leen, modifican y guardan una partida se serializan por partida:
+    // con bloqueos por franjas o en el bucle de eventos dueño de la partida
+    private final GameSequencer sequencer;
+
+    // Plazos de las partidas vivas (tiempo por movimiento, fin de pausa, abandono) en una rueda
+    // de temporizadores: programar y cancelar en O(1), sin recorrer las partidas
+    private final TimingWheel timers;
+    private final ExecutorService deadlineExecutor;
+    private final Map<String, GameDeadlines> deadlines = new ConcurrentHashMap<>();
+
+    // Rankings que se actualizan al terminar cada partida: todas las terminadas y solo las ganadas
+    private final Leaderboard highScores = new Leaderboard(LEADERBOARD_CAPACITY);
+    private final Leaderboard winningScores = new Leaderboard(LEADERBOARD_CAPACITY);
+    // Partidas que terminaron en la operación en curso; entran en los rankings cuando se guardan
+    private final Map<String, Leaderboard.Entry> pendingEndings = new ConcurrentHashMap<>();
+
+    // Estadísticas por jugador que se actualizan al terminar cada partida; el jugador de cada
+    // partida en curso se recuerda aquí hasta que termina
+    private final PlayerStatistics playerStatistics;
+    private final Map<String, String> gamePlayers = new ConcurrentHashMap<>();
+
     public HexGameService() {
-        // TODO: Los estudiantes deben inyectar las dependencias requeridas
+        this(DurabilityMode.MEMORY, FLUSH_INTERVAL_MILLIS);
+    }
+    
+    /**
+     * @param flushIntervalMillis en ASYNC y MEMORY, cada cuánto se vuelcan las escrituras a H2
+     */
+    public HexGameService(DurabilityMode durability, long flushIntervalMillis) {
+        this(durability, flushIntervalMillis, false);
+    }
+
+    /**
+     * @param offHeapArena guardar las partidas vivas fuera del heap (OffHeapGameArena) en vez de
+     *                     en la caché de objetos: cada petición trabaja sobre su propia copia
+     */
+    public HexGameService(DurabilityMode durability, long flushIntervalMillis, boolean offHeapArena) {
+        this(durability, flushIntervalMillis, offHeapArena, 1);
+    }
+
+    /**
+     * @param shards bases H2 independientes entre las que se reparten las partidas por gameId;
+     *               cada una con su propia capa de escritura. Cambiarlo reparte de otra forma
+     *               las partidas ya guardadas
+     */
+    public HexGameService(DurabilityMode durability, long flushIntervalMillis, boolean offHeapArena, int shards) {
+        this(durability, flushIntervalMillis, offHeapArena, shards, GameEngineMode.LOCKED);
+    }
+
+    /**
+     * @param engineMode serializar las operaciones de cada partida con bloqueos o repartir las
+     *                   partidas entre bucles de eventos de un solo hilo, uno por núcleo
+     */
+    public HexGameService(DurabilityMode durability, long flushIntervalMillis, boolean offHeapArena, int shards,
+                          GameEngineMode engineMode) {
+        this(durability, flushIntervalMillis, offHeapArena, shards, engineMode, GameIdGenerator.shared());
+    }
+
+    /**
+     * @param gameIdGenerator el generador del proceso, compartido con los demás servicios: dos
+     *                        generadores con el mismo nodo repiten identificadores
+     */
+    public HexGameService(DurabilityMode durability, long flushIntervalMillis, boolean offHeapArena, int shards,
+                          GameEngineMode engineMode, GameIdGenerator gameIdGenerator) {
         super(
-            null, // gameBoard - TODO: Crear HexGameBoard
-            null, // movementStrategy - TODO: Crear estrategia de movimiento
-            null, // gameRepository - TODO: Crear repositorio
-            null, // gameIdGenerator - TODO: Crear generador de IDs
-            null, // boardFactory - TODO: Crear factory de tableros
-            null  // gameStateFactory - TODO: Crear factory de estados
+            new HexGameBoard(DEFAULT_BOARD_SIZE),
+            new BFSCatMovement(new HexGameBoard(DEFAULT_BOARD_SIZE)),
+            null, // gameRepository - se usa el repositorio tipado de esta clase
+            gameIdGenerator, // cortos y ordenados por tiempo: inserciones al final del índice
+            HexGameBoard::new,
+            gameId -> new HexGameState(gameId, DEFAULT_BOARD_SIZE)
         );
-        // TODO: Inicializar dependencias y configuración
-        // Pista: Usar el patrón Factory para crear componentes
-        throw new UnsupportedOperationException("Los estudiantes deben implementar el constructor");
+        this.durability = durability;
+        this.sequencer = engineMode == GameEngineMode.EVENT_LOOPS
+                ? new GameEventLoops(Runtime.getRuntime().availableProcessors())
+                : new GameLockTable(GAME_LOCK_STRIPES);
+        List<DataRepository<HexGameState, String>> writeLayers = new ArrayList<>();
+        List<H2GameRepository> databases = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            H2GameRepository h2 = shards == 1 ? new H2GameRepository(durability) : new H2GameRepository(durability, shard);
+            databases.add(h2);
+            writeLayers.add(writeLayer(h2, flushIntervalMillis));
+        }
+        this.gameStore = shards == 1 ? writeLayers.get(0) : new ShardedGameRepository(writeLayers);
+        if (offHeapArena) {
+            // Los movimientos también pasan por la arena para que su copia quede al día
+            OffHeapGameArena arena = new OffHeapGameArena(gameStore, ARENA_MAX_BOARD_SIZE, ARENA_MAX_GAMES);
+            this.repo = arena;
+            this.moveLog = arena;
+        } else {
+            this.repo = new CachingRepository<>(gameStore, HexGameState::getGameId, GAME_CACHE_SIZE);
+            this.moveLog = (GameMoveLog) gameStore;
+        }
+        storageLayers.add(repo);
+        if (shards > 1) {
+            storageLayers.add(gameStore);
+        }
+        storageLayers.addAll(writeLayers);
+        storageLayers.addAll(databases);
+        // Las acciones de los plazos leen y guardan partidas: fuera del hilo de la rueda
+        this.deadlineExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timers = new TimingWheel(TIMER_TICK_MILLIS, TIMER_WHEEL_SIZE, deadlineExecutor);
+        rebuildLeaderboards();
+        // En MEMORY tampoco se guardan las partidas: las estadísticas no sobreviven al reinicio
+        this.playerStatistics = durability == DurabilityMode.MEMORY
+                ? new PlayerStatistics()
+                : new PlayerStatistics(PLAYER_STATS_FILE, PLAYER_STATS_CHECKPOINT_MILLIS);
+    }
+    
+    // Commits agrupados y síncronos (SYNC) o escritura en lotes en segundo plano
+    private DataRepository<HexGameState, String> writeLayer(H2GameRepository h2, long flushIntervalMillis) {
+        return durability == DurabilityMode.SYNC
+                ? new GroupCommitGameRepository(h2, GROUP_COMMIT_WINDOW_MICROS, GROUP_COMMIT_MAX_SIZE)
+                : new WriteBehindGameRepository(h2, flushIntervalMillis, FLUSH_BATCH_SIZE);
     }
     
     /**
@@ -54,15 +220,26 @@ public class HexGameService extends GameService<HexPosition> {
      * Debe ser más sofisticado que ExampleGameService.
      */
     public HexGameState createGame(int boardSize, String difficulty, Map<String, Object> options) {
-        String gameId = UUID.randomUUID().toString();
-        HexGameState gameState = new HexGameState(gameId, boardSize);
+        String gameId = generateGameId();
+        // Semilla opcional para poder repetir la partida exactamente
+        Object seedOption = options != null ? options.get("seed") : null;
+        long seed = seedOption instanceof Number number ? number.longValue() : ThreadLocalRandom.current().nextLong();
+        
+        // Con dificultad, el tablero sale de la reserva de tableros prebloqueados (O(1))
+        HexGameState gameState = difficulty != null
+                ? new HexGameState(gameId, puzzlePool.take(boardSize, PuzzleDifficulty.fromString(difficulty)), seed)
+                : new HexGameState(gameId, boardSize, seed);
         
         // Configurar callbacks básicos
-        gameState.setOnStateChanged(this::onGameStateChanged);
-        gameState.setOnGameEnded(this::onGameEnded);
+        withCallbacks(gameState);
+        // La primera escritura la inserta: si el gameId ya existe (otro nodo), falla en vez de pisarla
+        gameState.setVersion(HexGameState.NEW_VERSION);
+        Object playerOption = options != null ? options.get("playerId") : null;
+        gamePlayers.put(gameId, playerOption != null ? playerOption.toString() : ANONYMOUS_PLAYER);
         
         // Guardar el estado inicial
         repo.save(gameState);
+        rearmDeadlines(gameState);
         
         System.out.println("🎮 Nuevo juego iniciado: " + gameId);
         return gameState;
@@ -72,19 +249,46 @@ public class HexGameService extends GameService<HexPosition> {
      * TODO: Ejecutar movimiento del jugador con validaciones avanzadas.
      */
     public Optional<HexGameState> executePlayerMove(String gameId, HexPosition position, String playerId) {
-       Optional<HexGameState> gameStateOpt = repo.findById(gameId);
+        // Cargar, validar, mover, responder con el gato y guardar sin que se cuele otra petición de la partida
+        // Si otra instancia escribió la partida entretanto, se relee y se vuelve a aplicar el movimiento
+        return sequencer.execute(gameId, () -> withConflictRetry(gameId, () -> playerMove(gameId, position, playerId)));
+    }
+    
+    /**
+     * Como executePlayerMove, pero convierte la partida con view dentro del turno de la partida:
+     * el objeto compartido de la caché no cambia mientras se lee (p. ej. para la respuesta HTTP).
+     */
+    public <R> Optional<R> executePlayerMove(String gameId, HexPosition position, String playerId,
+                                             Function<HexGameState, R> view) {
+        return sequencer.execute(gameId,
+                () -> withConflictRetry(gameId, () -> playerMove(gameId, position, playerId)).map(view));
+    }
+    
+    /**
+     * Estado actual de la partida convertido con view dentro del turno de la partida.
+     */
+    public <R> Optional<R> getGameState(String gameId, Function<HexGameState, R> view) {
+        return sequencer.execute(gameId, () -> repo.findById(gameId).map(view));
+    }
+    
+    private Optional<HexGameState> playerMove(String gameId, HexPosition position, String playerId) {
+        Optional<HexGameState> gameStateOpt = repo.findById(gameId);
         
         if (gameStateOpt.isEmpty()) {
             return Optional.empty();
         }
         
-        HexGameState gameState = gameStateOpt.get();
+        HexGameState gameState = withCallbacks(gameStateOpt.get());
         
-        // Validar movimiento
-        if (!isValidMove(gameState.getGameId(), position)) {
+        // Validar movimiento (en pausa no se juega)
+        if (isPaused(gameId) || !isValidMove(gameState.getGameId(), position)) {
             return Optional.of(gameState);
         }
         
+        if (playerId != null) {
+            gamePlayers.put(gameId, playerId);
+        }
+        
         // Ejecutar movimiento del jugador
         if (!gameState.executeMove(position)) {
             return Optional.of(gameState);
@@ -93,14 +297,100 @@ public class HexGameService extends GameService<HexPosition> {
         System.out.println("👤 Jugador bloqueó posición: " + position + " (Movimiento #" + gameState.getMoveCount() + ")");
         
         // Mover el gato después del movimiento del jugador
+        HexPosition catBefore = gameState.getCatPosition();
         executeCatMove(gameState);
+        HexPosition catAfter = gameState.getCatPosition();
         
-        // Guardar estado actualizado
-        repo.save(gameState);
+        // Registrar solo el movimiento (celda bloqueada + respuesta del gato), no la partida entera
+        moveLog.appendMove(gameState, position, catAfter.equals(catBefore) ? null : catAfter);
+        publishGameEnd(gameId);
+        rearmDeadlines(gameState);
         
         return Optional.of(gameState);
     }
     
+    /**
+     * Calcula y aplica la respuesta del gato para muchos juegos a la vez.
+     * Los juegos se agrupan por tamaño de tablero y cada grupo se resuelve en una
+     * sola pasada del motor por lotes. Se omiten los juegos inexistentes o terminados.
+     */
+    public List<HexGameState> executeCatMoves(List<String> gameIds) {
+        return sequencer.executeGrouped(gameIds, this::catMoves).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+    
+    private List<HexGameState> catMoves(List<String> gameIds) {
+        List<HexGameState> moved = new ArrayList<>();
+        List<String> pending = gameIds;
+        // Las partidas en conflicto se releen y se vuelve a calcular su respuesta; las demás ya están guardadas
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            List<String> conflicted = new ArrayList<>();
+            moved.addAll(moveCats(pending, conflicted, attempt));
+            pending = conflicted;
+        }
+        return moved;
+    }
+    
+    private List<HexGameState> moveCats(List<String> gameIds, List<String> conflicted, int attempt) {
+        List<HexGameState> games = gameIds.stream()
+                .map(repo::findById)
+                .flatMap(Optional::stream)
+                .filter(gameState -> !gameState.isGameFinished())
+                .map(this::withCallbacks)
+                .collect(Collectors.toList());
+
+        Map<Integer, List<HexGameState>> gamesBySize = games.stream()
+                .collect(Collectors.groupingBy(HexGameState::getBoardSize));
+
+        gamesBySize.forEach((boardSize, group) -> {
+            List<Optional<HexPosition>> moves = getCatMoveEngine(boardSize).computeMoves(group);
+            for (int i = 0; i < group.size(); i++) {
+                HexGameState gameState = group.get(i);
+                moves.get(i).ifPresent(gameState::setCatPosition);
+                try {
+                    repo.save(gameState);
+                    publishGameEnd(gameState.getGameId());
+                } catch (GameConflictException e) {
+                    forgetLoadedGame(gameState.getGameId());
+                    if (attempt >= MAX_CONFLICT_RETRIES) {
+                        throw e;
+                    }
+                    conflicted.add(gameState.getGameId());
+                } catch (RuntimeException e) {
+                    forgetLoadedGame(gameState.getGameId());
+                    throw e;
+                }
+            }
+        });
+
+        games.removeIf(gameState -> conflicted.contains(gameState.getGameId()));
+        return games;
+    }
+    
+    /**
+     * Métricas de la capa de persistencia: durabilidad, escrituras pendientes o agrupadas, retrasos y caché.
+     */
+    public Map<String, Object> getPersistenceMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        if (gameStore instanceof WriteBehindGameRepository writeBehind) {
+            metrics.putAll(writeBehind.getMetrics());
+        } else if (gameStore instanceof GroupCommitGameRepository groupCommit) {
+            metrics.putAll(groupCommit.getMetrics());
+        } else if (gameStore instanceof ShardedGameRepository sharded) {
+            metrics.put("sharding", sharded.getMetrics());
+        }
+        metrics.put("durability", durability.name());
+        metrics.put("timers", timers.getStats());
+        metrics.put(sequencer instanceof GameEventLoops ? "eventLoops" : "locks", sequencer.getStats());
+        if (repo instanceof OffHeapGameArena arena) {
+            metrics.put("arena", arena.getStats());
+        } else if (repo instanceof CachingRepository<HexGameState, String> cache) {
+            metrics.put("cache", cache.getStats());
+        }
+        return metrics;
+    }
+    
     /**
      * TODO: Obtener estado del juego con información enriquecida.
      */
@@ -143,68 +433,150 @@ public class HexGameService extends GameService<HexPosition> {
     }
     
     /**
-     * TODO: Obtener estadísticas globales del jugador.
+     * Estadísticas del jugador: partidas, victorias, puntuación media, desviación y percentiles,
+     * duración media y días con partidas. Se mantienen al terminar cada partida, así que la
+     * consulta no recorre partidas.
      */
     public Map<String, Object> getPlayerStatistics(String playerId) {
-        // TODO: Calcular estadísticas del jugador
-        // Incluir:
-        // 1. Número de partidas jugadas
-        // 2. Porcentaje de victorias
-        // 3. Puntuación promedio
-        // 4. Tiempo promedio por partida
-        // 5. Progresión en el tiempo
-        throw new UnsupportedOperationException("Los estudiantes deben implementar getPlayerStatistics");
+        return playerStatistics.getPlayerStats(playerId);
+    }
+    
+    /**
+     * Las mismas estadísticas para todas las partidas terminadas, con los jugadores distintos.
+     */
+    public Map<String, Object> getGlobalPlayerStatistics() {
+        return playerStatistics.getGlobalStats();
+    }
+    
+    /**
+     * Apaga el servicio. Primero deja de disparar plazos y, en modo bucles de eventos, termina
+     * las operaciones encoladas, para que nada escriba durante el cierre. Después cierra el
+     * almacenamiento de arriba abajo: cada capa vuelca lo pendiente (escritura diferida o
+     * commits agrupados) en la de debajo antes de que esta se cierre. Por último guarda el
+     * checkpoint de las estadísticas de jugadores.
+     */
+    public void close() {
+        timers.close();
+        deadlineExecutor.shutdown();
+        puzzlePool.shutdown();
+        if (sequencer instanceof GameEventLoops loops) {
+            loops.close();
+        }
+        for (DataRepository<HexGameState, String> layer : storageLayers) {
+            try {
+                layer.close();
+            } catch (RuntimeException e) {
+                // Se siguen cerrando las demás capas
+                System.err.println("Error al cerrar el almacenamiento de partidas: " + e.getMessage());
+            }
+        }
+        playerStatistics.shutdown();
     }
     
     /**
-     * TODO: Configurar dificultad del juego.
+     * Configura la dificultad del juego: fija el tiempo límite por movimiento.
+     * Si el jugador no mueve a tiempo, pierde la partida. Estrategia del gato y
+     * puntuación no cambian.
      */
     public void setGameDifficulty(String gameId, String difficulty) {
-        // TODO: Cambiar dificultad del juego
-        // Afectar:
-        // 1. Estrategia de movimiento del gato
-        // 2. Tiempo límite por movimiento
-        // 3. Ayudas disponibles
-        // 4. Sistema de puntuación
-        throw new UnsupportedOperationException("Los estudiantes deben implementar setGameDifficulty");
+        long moveTimeLimitMillis = moveTimeLimitMillis(PuzzleDifficulty.fromString(difficulty));
+        sequencer.execute(gameId, () -> {
+            HexGameState gameState = repo.findById(gameId)
+                    .orElseThrow(() -> new IllegalArgumentException("Game not found: " + gameId));
+            if (gameState.isGameFinished()) {
+                return null;
+            }
+            return withDeadlines(gameId, entry -> {
+                entry.moveTimeLimitMillis = moveTimeLimitMillis;
+                if (entry.pausedAt == null) {
+                    armMoveDeadline(gameId, entry, gameState.getMoveCount());
+                }
+                return null;
+            });
+        });
     }
     
     /**
-     * TODO: Pausar/reanudar juego.
+     * Pausa o reanuda el juego. En pausa no corren el tiempo por movimiento ni el plazo
+     * de abandono, y no se aceptan movimientos; una pausa demasiado larga pierde la partida.
+     *
+     * @return true si la partida queda en pausa
      */
     public boolean toggleGamePause(String gameId) {
-        // TODO: Manejar pausa del juego
-        // Considerar:
-        // 1. Guardar timestamp de pausa
-        // 2. Actualizar estado del juego
-        // 3. Notificar cambio de estado
-        throw new UnsupportedOperationException("Los estudiantes deben implementar toggleGamePause");
+        return sequencer.execute(gameId, () -> togglePause(gameId));
+    }
+    
+    private boolean togglePause(String gameId) {
+        Optional<HexGameState> gameStateOpt = repo.findById(gameId);
+        if (gameStateOpt.isEmpty() || gameStateOpt.get().isGameFinished()) {
+            return false;
+        }
+        int moveCount = gameStateOpt.get().getMoveCount();
+        return withDeadlines(gameId, entry -> {
+            if (entry.pausedAt == null) {
+                entry.pausedAt = LocalDateTime.now();
+                cancel(entry.moveDeadline);
+                cancel(entry.idleExpiry);
+                entry.pauseExpiry = timers.schedule(() -> onPauseExpired(gameId, entry), PAUSE_EXPIRY_MILLIS);
+                System.out.println("⏸️ Juego en pausa: " + gameId);
+                return true;
+            }
+            entry.pausedAt = null;
+            cancel(entry.pauseExpiry);
+            entry.pauseExpiry = null;
+            armIdleExpiry(gameId, entry);
+            armMoveDeadline(gameId, entry, moveCount);
+            System.out.println("▶️ Juego reanudado: " + gameId);
+            return false;
+        });
     }
     
     /**
      * TODO: Deshacer último movimiento.
      */
     public Optional<HexGameState> undoLastMove(String gameId) {
-        // TODO: Implementar funcionalidad de deshacer
-        // Considerar:
-        // 1. Mantener historial de movimientos
-        // 2. Restaurar estado anterior
-        // 3. Ajustar puntuación
-        // 4. Validar que se puede deshacer
-        throw new UnsupportedOperationException("Los estudiantes deben implementar undoLastMove");
+        return sequencer.execute(gameId, () -> withConflictRetry(gameId, () -> undoMove(gameId)));
+    }
+    
+    private Optional<HexGameState> undoMove(String gameId) {
+        // El estado anterior se reconstruye desde el registro de movimientos
+        Optional<HexGameState> current = repo.findById(gameId);
+        if (current.isEmpty() || current.get().getMoveCount() == 0) {
+            return current;
+        }
+        
+        Optional<HexGameState> previous = moveLog.loadAt(gameId, current.get().getMoveCount() - 1);
+        previous.ifPresent(gameState -> {
+            withCallbacks(gameState);
+            // Se guarda sobre la versión leída: si otro movió mientras tanto, conflicto y no se pisa
+            gameState.setVersion(current.get().getVersion());
+            // Guardar como estado actual descarta el movimiento deshecho del registro
+            repo.save(gameState);
+            rearmDeadlines(gameState);
+            if (!gameState.hasPlayerWon()) {
+                winningScores.remove(gameId);
+            }
+            if (!gameState.isGameFinished()) {
+                highScores.remove(gameId);
+            }
+            System.out.println("↩️ Movimiento deshecho en " + gameId + " (Movimiento #" + gameState.getMoveCount() + ")");
+        });
+        return previous;
     }
     
     /**
-     * TODO: Obtener ranking de mejores puntuaciones.
+     * Ranking de mejores puntuaciones de partidas ganadas.
+     * Se lee del ranking en memoria (O(limit)), sin consultar el repositorio.
      */
     public List<Map<String, Object>> getLeaderboard(int limit) {
-        // TODO: Generar tabla de líderes
-        // Incluir:
-        // 1. Mejores puntuaciones
-        // 2. Información del jugador
-        // 3. Fecha de la partida
-        // 4. Detalles de la partida
-        throw new UnsupportedOperationException("Los estudiantes deben implementar getLeaderboard");
+        return toScoreEntries(winningScores.top(limit));
+    }
+    
+    /**
+     * Mejores puntuaciones de todas las partidas terminadas, ganadas o perdidas.
+     */
+    public List<Map<String, Object>> getHighScores(int limit) {
+        return toScoreEntries(highScores.top(limit));
     }
     
     // Métodos auxiliares que los estudiantes pueden implementar
@@ -223,8 +595,8 @@ public class HexGameService extends GameService<HexPosition> {
         HexPosition currentPosition = gameState.getCatPosition();
         HexGameBoard board = gameState.getGameBoard();
         
-        // Crear estrategia de movimiento simple
-        SimpleCatMovement strategy = new SimpleCatMovement(board);
+        // Crear estrategia de movimiento simple con el generador de la partida (reproducible)
+        SimpleCatMovement strategy = new SimpleCatMovement(board, gameState.newMoveRandom());
         
         // Objetivo: cualquier posición en el borde del tablero
         HexPosition targetPosition = new HexPosition(gameState.getBoardSize(), 0);
@@ -239,6 +611,276 @@ public class HexGameService extends GameService<HexPosition> {
         }
     }
     
+    /**
+     * Mueve el gato sobre el tablero del propio juego usando el motor compartido.
+     * La estrategia base usa el tablero fijo del constructor, no el de cada partida.
+     */
+    @Override
+    protected void executeCatMove(GameState<HexPosition> gameState) {
+        HexGameState hexGameState = (HexGameState) gameState;
+        Optional<HexPosition> nextMove = getCatMoveEngine(hexGameState.getBoardSize()).computeMove(hexGameState);
+        
+        if (nextMove.isPresent()) {
+            hexGameState.setCatPosition(nextMove.get());
+            onCatMoved(hexGameState, nextMove.get());
+            System.out.println("🐱 Gato se movió a: " + nextMove.get());
+        } else {
+            System.out.println("🐱 ¡Gato no puede moverse! Está atrapado.");
+        }
+    }
+    
+    private BatchCatMovement getCatMoveEngine(int boardSize) {
+        return catMoveEngines.computeIfAbsent(boardSize, BatchCatMovement::new);
+    }
+    
+    // Las partidas leídas del repositorio o de la arena llegan sin callbacks
+    private HexGameState withCallbacks(HexGameState gameState) {
+        gameState.setOnStateChanged(this::onGameStateChanged);
+        gameState.setOnGameEnded(this::onGameEnded);
+        return gameState;
+    }
+    
+    /**
+     * Al terminar una partida (también si el gato escapa o se agota el tiempo) se anota; entra
+     * en los rankings y en las estadísticas del jugador cuando la operación la guarda
+     * (publishGameEnd). Si la escritura falla no cuenta, y si se reintenta la partida vuelve a
+     * terminar y se anota otra vez.
+     */
+    @Override
+    protected void onGameEnded(GameState<HexPosition> gameState) {
+        pendingEndings.put(gameState.getGameId(), Leaderboard.Entry.of((HexGameState) gameState, LocalDateTime.now()));
+    }
+    
+    // Tras guardar la partida: si terminó en esta operación, entra en los rankings y en las estadísticas del jugador
+    private void publishGameEnd(String gameId) {
+        Leaderboard.Entry entry = pendingEndings.remove(gameId);
+        if (entry == null) {
+            return;
+        }
+        highScores.record(entry);
+        if (entry.playerWon()) {
+            winningScores.record(entry);
+        }
+        // Solo la primera vez que termina: una partida reanudada tras deshacer no cuenta dos veces
+        String playerId = gamePlayers.remove(gameId);
+        if (playerId != null) {
+            playerStatistics.record(playerId, entry.score(), entry.playerWon(), entry.durationSeconds());
+        }
+    }
+    
+    // Al arrancar: las mejores partidas terminadas ya guardadas, con la consulta por estado y
+    // puntuación que se resuelve en SQL
+    private void rebuildLeaderboards() {
+        List<Leaderboard.Entry> finished = new ArrayList<>();
+        List<Leaderboard.Entry> won = List.of();
+        for (GameState.GameStatus status : GameState.GameStatus.values()) {
+            if (status == GameState.GameStatus.IN_PROGRESS) continue;
+            GameQuery query = GameQuery.all().withStatus(status).orderByScoreDescending().limit(LEADERBOARD_CAPACITY);
+            List<Leaderboard.Entry> entries = repo.findAndTransform(query, gameState -> Leaderboard.Entry.of(gameState, null));
+            finished.addAll(entries);
+            if (status == GameState.GameStatus.PLAYER_WON) {
+                won = entries;
+            }
+        }
+        highScores.rebuild(finished);
+        winningScores.rebuild(won);
+    }
+    
+    private static List<Map<String, Object>> toScoreEntries(List<Leaderboard.Entry> entries) {
+        return entries.stream().map(entry -> {
+            Map<String, Object> score = new HashMap<>();
+            score.put("gameId", entry.gameId());
+            score.put("score", entry.score());
+            score.put("playerWon", entry.playerWon());
+            score.put("moveCount", entry.moveCount());
+            score.put("boardSize", entry.boardSize());
+            score.put("createdAt", entry.createdAt());
+            score.put("durationSeconds", entry.durationSeconds());
+            return score;
+        }).collect(Collectors.toList());
+    }
+    
+    private static long moveTimeLimitMillis(PuzzleDifficulty difficulty) {
+        return switch (difficulty) {
+            case EASY -> TimeUnit.SECONDS.toMillis(60);
+            case MEDIUM -> TimeUnit.SECONDS.toMillis(30);
+            case HARD -> TimeUnit.SECONDS.toMillis(15);
+        };
+    }
+    
+    private boolean isPaused(String gameId) {
+        GameDeadlines entry = deadlines.get(gameId);
+        if (entry == null) return false;
+        synchronized (entry) {
+            return entry.pausedAt != null;
+        }
+    }
+    
+    // Tras crear la partida o cada movimiento: reinicia el plazo de abandono y el del siguiente movimiento.
+    // Una partida terminada ya no tiene plazos
+    private void rearmDeadlines(HexGameState gameState) {
+        String gameId = gameState.getGameId();
+        if (gameState.isGameFinished()) {
+            GameDeadlines entry = deadlines.remove(gameId);
+            if (entry != null) {
+                synchronized (entry) {
+                    entry.close();
+                }
+            }
+            return;
+        }
+        withDeadlines(gameId, entry -> {
+            if (entry.pausedAt == null) {
+                armIdleExpiry(gameId, entry);
+                armMoveDeadline(gameId, entry, gameState.getMoveCount());
+            }
+            return null;
+        });
+    }
+    
+    // Ejecuta la operación con los plazos de la partida bloqueados, creándolos si no existen
+    private <R> R withDeadlines(String gameId, Function<GameDeadlines, R> operation) {
+        while (true) {
+            GameDeadlines entry = deadlines.computeIfAbsent(gameId, id -> new GameDeadlines());
+            synchronized (entry) {
+                if (!entry.closed) {
+                    return operation.apply(entry);
+                }
+            }
+            // Se cerró entre medias (partida terminada o abandonada): se crean de nuevo
+        }
+    }
+    
+    private void armIdleExpiry(String gameId, GameDeadlines entry) {
+        cancel(entry.idleExpiry);
+        entry.idleExpiry = timers.schedule(() -> onGameIdle(gameId, entry), IDLE_GAME_MILLIS);
+    }
+    
+    private void armMoveDeadline(String gameId, GameDeadlines entry, int moveCount) {
+        cancel(entry.moveDeadline);
+        entry.moveDeadline = entry.moveTimeLimitMillis > 0
+                ? timers.schedule(() -> onMoveTimedOut(gameId, entry, moveCount), entry.moveTimeLimitMillis)
+                : null;
+    }
+    
+    private static void cancel(TimingWheel.Timeout timeout) {
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+    
+    // Cada acción comprueba que su temporizador sigue siendo el vigente: uno que venció
+    // justo cuando se reprogramaba ya no cuenta. Como las peticiones, pasan primero por el
+    // turno de la partida (sequencer) y después bloquean sus plazos
+    private void onMoveTimedOut(String gameId, GameDeadlines entry, int moveCount) {
+        sequencer.execute(gameId, () -> {
+            synchronized (entry) {
+                if (entry.closed || entry.pausedAt != null || entry.moveDeadline == null || !entry.moveDeadline.isExpired()) {
+                    return null;
+                }
+            }
+            return withConflictRetry(gameId, () -> {
+                repo.findById(gameId)
+                        .filter(gameState -> !gameState.isGameFinished() && gameState.getMoveCount() == moveCount)
+                        .ifPresent(gameState -> forfeit(gameState, "⏱️ Tiempo agotado en "));
+                return null;
+            });
+        });
+    }
+    
+    private void onPauseExpired(String gameId, GameDeadlines entry) {
+        sequencer.execute(gameId, () -> {
+            synchronized (entry) {
+                if (entry.closed || entry.pauseExpiry == null || !entry.pauseExpiry.isExpired()) {
+                    return null;
+                }
+            }
+            return withConflictRetry(gameId, () -> {
+                repo.findById(gameId)
+                        .filter(gameState -> !gameState.isGameFinished())
+                        .ifPresent(gameState -> forfeit(gameState, "⏸️ Pausa demasiado larga en "));
+                return null;
+            });
+        });
+    }
+    
+    private void onGameIdle(String gameId, GameDeadlines entry) {
+        sequencer.execute(gameId, () -> {
+            evictIdleGame(gameId, entry);
+            return null;
+        });
+    }
+    
+    // La partida abandonada sale de la caché o de la arena; sigue guardada y un movimiento la recupera
+    private void evictIdleGame(String gameId, GameDeadlines entry) {
+        synchronized (entry) {
+            if (entry.closed || entry.idleExpiry == null || !entry.idleExpiry.isExpired()) {
+                return;
+            }
+            entry.close();
+            deadlines.remove(gameId, entry);
+        }
+        forgetLoadedGame(gameId);
+    }
+    
+    /**
+     * Repite la operación (que lee la partida del repositorio) si al guardar resulta que
+     * otra instancia la escribió después de leerla. Antes de repetir se descarta la copia
+     * de la caché o la arena para leer el estado guardado. Con cualquier otro error también
+     * se descarta: la copia cargada puede tener aplicado un movimiento que no se guardó.
+     */
+    private <R> R withConflictRetry(String gameId, Supplier<R> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (GameConflictException e) {
+                forgetLoadedGame(gameId);
+                if (attempt >= MAX_CONFLICT_RETRIES) {
+                    throw e;
+                }
+                System.out.println("🔁 Conflicto de versión en " + gameId + ", reintentando (" + attempt + ")");
+            } catch (RuntimeException e) {
+                forgetLoadedGame(gameId);
+                throw e;
+            }
+        }
+    }
+    
+    private void forgetLoadedGame(String gameId) {
+        // Un final anotado en la operación fallida no se guardó
+        pendingEndings.remove(gameId);
+        if (repo instanceof OffHeapGameArena arena) {
+            arena.invalidate(gameId);
+        } else if (repo instanceof CachingRepository<HexGameState, String> cache) {
+            cache.invalidate(gameId);
+        }
+    }
+    
+    private void forfeit(HexGameState gameState, String reason) {
+        withCallbacks(gameState).forfeit();
+        repo.save(gameState);
+        publishGameEnd(gameState.getGameId());
+        rearmDeadlines(gameState);
+        System.out.println(reason + gameState.getGameId() + ": el jugador pierde la partida");
+    }
+    
+    // Plazos de una partida; se leen y modifican con el objeto bloqueado
+    private static final class GameDeadlines {
+        long moveTimeLimitMillis;
+        LocalDateTime pausedAt;
+        TimingWheel.Timeout moveDeadline;
+        TimingWheel.Timeout pauseExpiry;
+        TimingWheel.Timeout idleExpiry;
+        boolean closed;
+        
+        void close() {
+            closed = true;
+            cancel(moveDeadline);
+            cancel(pauseExpiry);
+            cancel(idleExpiry);
+        }
+    }
+    
     /**
      * TODO: Calcular puntuación avanzada.
      */
@@ -268,21 +910,28 @@ public class HexGameService extends GameService<HexPosition> {
         throw new UnsupportedOperationException("Los estudiantes deben implementar initializeGame");
     }
     
+    // Las consultas también pasan por el turno de la partida: leen el objeto compartido de la caché
     @Override
     public boolean isValidMove(String gameId, HexPosition position) {
-        Optional<HexGameState> gameStateOpt = repo.findById(gameId);
-        if (gameStateOpt.isEmpty()) return false;
-        HexGameState gameState = gameStateOpt.get();
+        return sequencer.execute(gameId, () -> {
+            Optional<HexGameState> gameStateOpt = repo.findById(gameId);
+            if (gameStateOpt.isEmpty()) return false;
+            HexGameState gameState = gameStateOpt.get();
 
-        if (gameState.isGameFinished()) return false;
-        if (position.equals(gameState.getCatPosition())) return false;
+            if (gameState.isGameFinished()) return false;
+            if (position.equals(gameState.getCatPosition())) return false;
 
-        HexGameBoard board = gameState.getGameBoard();
-        return board.isPositionInBounds(position) && !board.isBlocked(position);
+            HexGameBoard board = gameState.getGameBoard();
+            return board.isPositionInBounds(position) && !board.isBlocked(position);
+        });
     }
     
     @Override
     public Optional<HexPosition> getSuggestedMove(String gameId) {
+        return sequencer.execute(gameId, () -> suggestedMove(gameId));
+    }
+    
+    private Optional<HexPosition> suggestedMove(String gameId) {
         Optional<HexGameState> gameStateOpt = repo.findById(gameId);
         
         if (gameStateOpt.isEmpty()) {
@@ -309,6 +958,10 @@ public class HexGameService extends GameService<HexPosition> {
     
     @Override
     public Object getGameStatistics(String gameId) {
+        return sequencer.execute(gameId, () -> gameStatistics(gameId));
+    }
+    
+    private Map<String, Object> gameStatistics(String gameId) {
         Optional<HexGameState> gameStateOpt = repo.findById(gameId);
         
         if (gameStateOpt.isEmpty()) {
@@ -323,6 +976,7 @@ public class HexGameService extends GameService<HexPosition> {
         stats.put("moveCount", gameState.getMoveCount());
         stats.put("isFinished", gameState.isGameFinished());
         stats.put("playerWon", gameState.hasPlayerWon());
+        stats.put("paused", isPaused(gameId));
         stats.put("score", gameState.calculateScore());
         stats.put("createdAt", gameState.getCreatedAt());
         stats.put("boardSize", gameState.getBoardSize());
@@ -0,0 +1,129 @@
+package com.atraparalagato.impl.service;
+
+import com.atraparalagato.impl.model.HexGameState;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ranking de partidas terminadas que se mantiene al terminar cada partida, sin consultar el repositorio.
+ *
+ * Las entradas viven en una ConcurrentSkipListSet ordenada por puntuación (de mayor a menor)
+ * y, a igual puntuación, por gameId (los identificadores se ordenan por tiempo: primero la
+ * más antigua). top(n) recorre solo las n primeras. Un índice por gameId hace que volver a
+ * registrar una partida sustituya su entrada en vez de duplicarla. Se guardan como mucho
+ * capacity entradas: al pasarse se quitan las peores.
+ *
+ * Es seguro con partidas que terminan a la vez: las escrituras (comprobar si entra, insertar
+ * y recortar) se hacen bajo un único cerrojo del ranking, así que el índice, la lista y el
+ * tamaño no se desajustan. Solo se escribe al terminar una partida; top() lee la lista de
+ * saltos sin bloquear.
+ */
+public class Leaderboard {
+
+    private static final Comparator<Entry> RANKING_ORDER = Comparator.comparingInt(Entry::score).reversed()
+            .thenComparing(Entry::gameId);
+
+    private final int capacity;
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(RANKING_ORDER);
+    // Protegido por lock, igual que las escrituras en ranking
+    private final Map<String, Entry> byGame = new HashMap<>();
+    private final Object lock = new Object();
+    // size() de la lista de saltos es O(n): se lleva la cuenta aparte (se escribe bajo lock)
+    private volatile int size;
+
+    public Leaderboard(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid leaderboard capacity: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Registra la partida o sustituye su entrada anterior.
+     */
+    public void record(Entry entry) {
+        synchronized (lock) {
+            Entry previous = byGame.get(entry.gameId());
+            if (previous == null && size >= capacity && RANKING_ORDER.compare(entry, ranking.last()) > 0) {
+                return; // no entra en el ranking lleno
+            }
+            if (previous != null) {
+                ranking.remove(previous);
+                size--;
+            }
+            byGame.put(entry.gameId(), entry);
+            ranking.add(entry);
+            size++;
+            trim();
+        }
+    }
+
+    /**
+     * Quita la partida del ranking (p. ej. se deshizo el movimiento que la terminó).
+     */
+    public void remove(String gameId) {
+        synchronized (lock) {
+            Entry previous = byGame.remove(gameId);
+            if (previous != null) {
+                ranking.remove(previous);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * Sustituye el ranking por estas entradas, p. ej. las mejores partidas guardadas al arrancar.
+     */
+    public void rebuild(Collection<Entry> entries) {
+        synchronized (lock) {
+            byGame.clear();
+            ranking.clear();
+            size = 0;
+            entries.forEach(this::record);
+        }
+    }
+
+    /**
+     * Las mejores entradas, de mayor a menor puntuación.
+     */
+    public List<Entry> top(int limit) {
+        return ranking.stream().limit(Math.max(0, limit)).toList();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Llamado bajo lock
+    private void trim() {
+        while (size > capacity) {
+            Entry worst = ranking.pollLast();
+            size--;
+            byGame.remove(worst.gameId());
+        }
+    }
+
+    /**
+     * Datos de una partida terminada en el ranking.
+     *
+     * @param durationSeconds duración de la partida; 0 si se reconstruyó desde el almacenamiento
+     */
+    public record Entry(String gameId, int score, boolean playerWon, int moveCount, int boardSize,
+                        LocalDateTime createdAt, long durationSeconds) {
+
+        public static Entry of(HexGameState gameState, LocalDateTime finishedAt) {
+            long durationSeconds = finishedAt != null
+                    ? Math.max(0, Duration.between(gameState.getCreatedAt(), finishedAt).getSeconds())
+                    : 0;
+            return new Entry(gameState.getGameId(), gameState.calculateScore(), gameState.hasPlayerWon(),
+                    gameState.getMoveCount(), gameState.getBoardSize(), gameState.getCreatedAt(), durationSeconds);
+        }
+    }
+}
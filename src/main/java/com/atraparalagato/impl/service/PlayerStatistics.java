@@ -0,0 +1,268 @@
+package com.atraparalagato.impl.service;
+
+import com.atraparalagato.impl.metrics.HyperLogLog;
+import com.atraparalagato.impl.metrics.LogLinearHistogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Estadísticas por jugador y globales que se actualizan al terminar cada partida.
+ *
+ * Cada agregado lleva partidas, victorias, media y varianza de la puntuación (Welford),
+ * histograma de puntuaciones para percentiles y un HyperLogLog: días distintos con
+ * partidas para cada jugador, jugadores distintos en el global. Los agregados viven en
+ * un ConcurrentHashMap y cada uno se actualiza con su propio bloqueo, así que jugadores
+ * distintos no compiten; el global se reparte en franjas por jugador que se combinan al
+ * consultarlo. Consultar las estadísticas es O(1), sin recorrer partidas.
+ *
+ * Con fichero de checkpoint, el estado se carga al crear el objeto y se guarda
+ * periódicamente si ha cambiado (escribiendo un fichero temporal y renombrándolo).
+ */
+public class PlayerStatistics {
+
+    private static final int MAGIC = 0x50535431; // "PST1"
+    private static final long MAX_SCORE = 2047;
+    private static final int PLAYER_HLL_PRECISION = 6;
+    private static final int GLOBAL_HLL_PRECISION = 14;
+    private static final int GLOBAL_STRIPES = 16;
+
+    private final Map<String, Aggregate> players = new ConcurrentHashMap<>();
+    private final Aggregate[] globalStripes = new Aggregate[GLOBAL_STRIPES];
+    private final Path checkpointFile;
+    private final ScheduledExecutorService checkpointer;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    /**
+     * Solo en memoria, sin checkpoint.
+     */
+    public PlayerStatistics() {
+        initGlobalStripes(new Aggregate(GLOBAL_HLL_PRECISION));
+        this.checkpointFile = null;
+        this.checkpointer = null;
+    }
+
+    /**
+     * @param checkpointFile         fichero donde se guardan las estadísticas; se carga si existe
+     * @param checkpointIntervalMillis cada cuánto se guardan si hubo cambios
+     */
+    public PlayerStatistics(Path checkpointFile, long checkpointIntervalMillis) {
+        this.checkpointFile = checkpointFile;
+        initGlobalStripes(Files.exists(checkpointFile) ? restore(checkpointFile) : new Aggregate(GLOBAL_HLL_PRECISION));
+        this.checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "player-stats-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (RuntimeException e) {
+                System.err.println("📊 " + e.getMessage());
+            }
+        }, checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registra una partida terminada del jugador.
+     */
+    public void record(String playerId, int score, boolean playerWon, long durationSeconds) {
+        String day = LocalDate.now().toString();
+        players.computeIfAbsent(playerId, id -> new Aggregate(PLAYER_HLL_PRECISION))
+                .record(score, playerWon, durationSeconds, day);
+        globalStripes[Math.floorMod(playerId.hashCode(), GLOBAL_STRIPES)]
+                .record(score, playerWon, durationSeconds, playerId);
+        dirty.set(true);
+    }
+
+    /**
+     * Estadísticas del jugador; un jugador sin partidas tiene todo a cero.
+     */
+    public Map<String, Object> getPlayerStats(String playerId) {
+        Aggregate aggregate = players.get(playerId);
+        Map<String, Object> stats = aggregate != null ? aggregate.toMap() : new Aggregate(PLAYER_HLL_PRECISION).toMap();
+        stats.put("playerId", playerId);
+        stats.put("activeDays", stats.remove("distinct"));
+        return stats;
+    }
+
+    public Map<String, Object> getGlobalStats() {
+        Map<String, Object> stats = mergedGlobal().toMap();
+        stats.put("distinctPlayers", stats.remove("distinct"));
+        return stats;
+    }
+
+    /**
+     * Guarda las estadísticas en el fichero de checkpoint si cambiaron desde el último.
+     */
+    public void checkpoint() {
+        if (checkpointFile == null || !dirty.getAndSet(false)) {
+            return;
+        }
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try {
+            if (checkpointFile.getParent() != null) {
+                Files.createDirectories(checkpointFile.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                mergedGlobal().writeTo(out);
+                // El número de jugadores puede cambiar mientras se escribe: se marca el final
+                for (Map.Entry<String, Aggregate> entry : players.entrySet()) {
+                    out.writeBoolean(true);
+                    out.writeUTF(entry.getKey());
+                    entry.getValue().writeTo(out);
+                }
+                out.writeBoolean(false);
+            }
+            Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            throw new RuntimeException("Error al guardar estadísticas de jugadores: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Guarda lo pendiente y detiene los checkpoints periódicos.
+     */
+    public void shutdown() {
+        if (checkpointer != null) {
+            checkpointer.shutdown();
+            checkpoint();
+        }
+    }
+
+    private void initGlobalStripes(Aggregate first) {
+        globalStripes[0] = first;
+        for (int i = 1; i < GLOBAL_STRIPES; i++) {
+            globalStripes[i] = new Aggregate(GLOBAL_HLL_PRECISION);
+        }
+    }
+
+    private Aggregate mergedGlobal() {
+        Aggregate merged = new Aggregate(GLOBAL_HLL_PRECISION);
+        for (Aggregate stripe : globalStripes) {
+            stripe.mergeInto(merged);
+        }
+        return merged;
+    }
+
+    // Carga los jugadores y devuelve el agregado global
+    private Aggregate restore(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a player statistics file");
+            }
+            Aggregate restored = Aggregate.readFrom(in);
+            while (in.readBoolean()) {
+                String playerId = in.readUTF();
+                players.put(playerId, Aggregate.readFrom(in));
+            }
+            return restored;
+        } catch (IOException e) {
+            throw new RuntimeException("Error al cargar estadísticas de jugadores: " + e.getMessage(), e);
+        }
+    }
+
+    // Agregado de un jugador o global; todos los métodos con el objeto bloqueado
+    private static final class Aggregate {
+        private long games;
+        private long wins;
+        private double meanScore;
+        private double scoreM2;
+        private long totalDurationSeconds;
+        private final LogLinearHistogram scores;
+        private final HyperLogLog distinct;
+
+        Aggregate(int hllPrecision) {
+            this(new LogLinearHistogram(MAX_SCORE), new HyperLogLog(hllPrecision));
+        }
+
+        private Aggregate(LogLinearHistogram scores, HyperLogLog distinct) {
+            this.scores = scores;
+            this.distinct = distinct;
+        }
+
+        synchronized void record(int score, boolean playerWon, long durationSeconds, String distinctKey) {
+            games++;
+            if (playerWon) wins++;
+            // Welford: media y suma de cuadrados de las desviaciones sin guardar las puntuaciones
+            double delta = score - meanScore;
+            meanScore += delta / games;
+            scoreM2 += delta * (score - meanScore);
+            totalDurationSeconds += durationSeconds;
+            scores.record(Math.max(0, score));
+            distinct.add(distinctKey);
+        }
+
+        // El destino es un agregado local, sin compartir: solo se bloquea este
+        synchronized void mergeInto(Aggregate target) {
+            if (games == 0) return;
+            long combined = target.games + games;
+            // Chan et al.: combinación de medias y varianzas de Welford
+            double delta = meanScore - target.meanScore;
+            target.meanScore += delta * games / combined;
+            target.scoreM2 += scoreM2 + delta * delta * target.games * games / combined;
+            target.games = combined;
+            target.wins += wins;
+            target.totalDurationSeconds += totalDurationSeconds;
+            target.scores.merge(scores);
+            target.distinct.merge(distinct);
+        }
+
+        synchronized Map<String, Object> toMap() {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("gamesPlayed", games);
+            stats.put("wins", wins);
+            stats.put("winRate", games == 0 ? 0.0 : (double) wins / games);
+            stats.put("averageScore", meanScore);
+            stats.put("scoreStdDev", games < 2 ? 0.0 : Math.sqrt(scoreM2 / (games - 1)));
+            stats.put("averageDurationSeconds", games == 0 ? 0.0 : (double) totalDurationSeconds / games);
+            stats.put("scoreP50", scores.getPercentile(50));
+            stats.put("scoreP90", scores.getPercentile(90));
+            stats.put("scoreP99", scores.getPercentile(99));
+            stats.put("bestScore", scores.getMax());
+            stats.put("distinct", distinct.estimate());
+            return stats;
+        }
+
+        synchronized void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(games);
+            out.writeLong(wins);
+            out.writeDouble(meanScore);
+            out.writeDouble(scoreM2);
+            out.writeLong(totalDurationSeconds);
+            scores.writeTo(out);
+            distinct.writeTo(out);
+        }
+
+        static Aggregate readFrom(DataInputStream in) throws IOException {
+            long games = in.readLong();
+            long wins = in.readLong();
+            double meanScore = in.readDouble();
+            double scoreM2 = in.readDouble();
+            long totalDurationSeconds = in.readLong();
+            Aggregate aggregate = new Aggregate(LogLinearHistogram.readFrom(in), HyperLogLog.readFrom(in));
+            aggregate.games = games;
+            aggregate.wins = wins;
+            aggregate.meanScore = meanScore;
+            aggregate.scoreM2 = scoreM2;
+            aggregate.totalDurationSeconds = totalDurationSeconds;
+            return aggregate;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.atraparalagato.impl.service;
+
+import com.atraparalagato.impl.model.HexPosition;
+import com.atraparalagato.impl.model.HexTopology;
+import com.atraparalagato.impl.model.PuzzleDifficulty;
+import com.atraparalagato.impl.model.PuzzleLayout;
+import com.atraparalagato.impl.strategy.EscapeAnalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Genera tableros iniciales con celdas prebloqueadas a partir de una semilla.
+ *
+ * Cada intento bloquea al azar una fracción de las celdas interiores y lo valida
+ * con EscapeAnalyzer:
+ * - Se descarta si es trivial (corte mínimo 0 o 1: se gana en un movimiento)
+ * - Se descarta si no tiene solución (el gato está junto al borde, o el corte
+ *   mínimo supera su distancia de escape)
+ * - Se acepta si la presión corresponde a la dificultad pedida
+ *
+ * La misma semilla produce siempre el mismo tablero. Es thread-safe: cada hilo
+ * usa su propio analizador.
+ */
+public class PuzzleGenerator {
+
+    private static final int MAX_ATTEMPTS = 20_000;
+
+    private final int boardSize;
+    private final HexTopology topology;
+    private final int catIndex;
+    private final int[] candidates;
+    private final ThreadLocal<EscapeAnalyzer> analyzers;
+
+    public PuzzleGenerator(int boardSize) {
+        this.boardSize = boardSize;
+        this.topology = HexTopology.of(boardSize);
+        this.catIndex = topology.indexOf(0, 0); // El gato empieza en el centro
+        this.analyzers = ThreadLocal.withInitial(() -> new EscapeAnalyzer(boardSize));
+
+        List<Integer> interior = new ArrayList<>();
+        for (int i = 0; i < topology.getCellCount(); i++) {
+            if (!topology.isBorder(i) && i != catIndex) {
+                interior.add(i);
+            }
+        }
+        this.candidates = interior.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Genera un tablero validado para la dificultad pedida.
+     *
+     * @throws IllegalStateException si no se encuentra un tablero válido (p. ej. EASY en tableros muy pequeños)
+     */
+    public PuzzleLayout generate(PuzzleDifficulty difficulty, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        EscapeAnalyzer analyzer = analyzers.get();
+        int[] shuffled = candidates.clone();
+        long[] mask = new long[(topology.getCellCount() + 63) / 64];
+
+        int minBlocked = (int) Math.ceil(difficulty.getMinBlockedFraction() * candidates.length);
+        int maxBlocked = Math.max(minBlocked, (int) (difficulty.getMaxBlockedFraction() * candidates.length));
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int blocked = minBlocked + random.nextInt(maxBlocked - minBlocked + 1);
+            Arrays.fill(mask, 0L);
+            // Fisher-Yates parcial: las primeras 'blocked' posiciones quedan elegidas
+            for (int i = 0; i < blocked; i++) {
+                int j = i + random.nextInt(shuffled.length - i);
+                int cell = shuffled[j];
+                shuffled[j] = shuffled[i];
+                shuffled[i] = cell;
+                mask[cell >>> 6] |= 1L << cell;
+            }
+
+            int escapeDistance = analyzer.escapeDistance(mask, catIndex);
+            if (escapeDistance == EscapeAnalyzer.UNREACHABLE) {
+                continue; // Gato ya encerrado: trivial
+            }
+            int minCut = analyzer.minCut(mask, catIndex);
+            if (minCut <= 1 || minCut == EscapeAnalyzer.UNREACHABLE || minCut > escapeDistance) {
+                continue;
+            }
+            if (!difficulty.accepts(minCut, escapeDistance)) {
+                continue;
+            }
+
+            List<HexPosition> cells = new ArrayList<>(blocked);
+            for (int i = 0; i < blocked; i++) {
+                cells.add(topology.positionAt(shuffled[i]));
+            }
+            return new PuzzleLayout(boardSize, difficulty, seed, cells, escapeDistance, minCut);
+        }
+
+        throw new IllegalStateException("Could not generate a " + difficulty + " layout for board size "
+                + boardSize + " after " + MAX_ATTEMPTS + " attempts");
+    }
+}
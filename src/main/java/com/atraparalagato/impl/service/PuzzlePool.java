@@ -0,0 +1,111 @@
+package com.atraparalagato.impl.service;
+
+import com.atraparalagato.base.model.GameState;
+import com.atraparalagato.impl.model.PuzzleDifficulty;
+import com.atraparalagato.impl.model.PuzzleLayout;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reserva de tableros iniciales ya validados por (tamaño, dificultad).
+ *
+ * take() entrega un tablero en O(1) sacándolo de la cola. Cuando una cola baja de
+ * la mitad de su capacidad se rellena en segundo plano; si está vacía, el tablero
+ * se genera en el momento para no bloquear al llamador más de lo necesario.
+ */
+public class PuzzlePool {
+
+    private final int capacity;
+    private final long baseSeed;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Integer, PuzzleGenerator> generators = new ConcurrentHashMap<>();
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final ExecutorService refiller = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "puzzle-pool-refill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PuzzlePool(int capacity, long baseSeed) {
+        this.capacity = capacity;
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * Entrega un tablero listo para usar. Cada tablero se entrega una sola vez.
+     */
+    public PuzzleLayout take(int boardSize, PuzzleDifficulty difficulty) {
+        Pool pool = pool(boardSize, difficulty);
+        PuzzleLayout layout = pool.layouts.poll();
+        if (layout != null) {
+            pool.size.decrementAndGet();
+        } else {
+            layout = generate(boardSize, difficulty);
+        }
+        if (pool.size.get() < capacity / 2) {
+            scheduleRefill(boardSize, difficulty, pool);
+        }
+        return layout;
+    }
+
+    /**
+     * Llena la reserva de forma síncrona (p. ej. al arrancar).
+     */
+    public void warmUp(int boardSize, PuzzleDifficulty difficulty) {
+        refill(boardSize, difficulty, pool(boardSize, difficulty));
+    }
+
+    public int available(int boardSize, PuzzleDifficulty difficulty) {
+        return pool(boardSize, difficulty).size.get();
+    }
+
+    public void shutdown() {
+        refiller.shutdownNow();
+    }
+
+    private PuzzleLayout generate(int boardSize, PuzzleDifficulty difficulty) {
+        // Mezclada: con baseSeed + n * GAMMA, intentos consecutivos repetirían la secuencia desplazada
+        long seed = GameState.mixSeed(baseSeed, sequence.incrementAndGet());
+        return generators.computeIfAbsent(boardSize, PuzzleGenerator::new).generate(difficulty, seed);
+    }
+
+    private void scheduleRefill(int boardSize, PuzzleDifficulty difficulty, Pool pool) {
+        if (pool.refilling.compareAndSet(false, true)) {
+            refiller.execute(() -> {
+                try {
+                    refill(boardSize, difficulty, pool);
+                } catch (IllegalStateException e) {
+                    System.err.println("Error rellenando tableros " + boardSize + "/" + difficulty + ": " + e.getMessage());
+                } finally {
+                    pool.refilling.set(false);
+                }
+            });
+        }
+    }
+
+    private void refill(int boardSize, PuzzleDifficulty difficulty, Pool pool) {
+        while (pool.size.get() < capacity) {
+            pool.layouts.offer(generate(boardSize, difficulty));
+            pool.size.incrementAndGet();
+        }
+    }
+
+    private Pool pool(int boardSize, PuzzleDifficulty difficulty) {
+        return pools.computeIfAbsent(boardSize + ":" + difficulty, key -> new Pool());
+    }
+
+    // ConcurrentLinkedQueue.size() es O(n), así que el tamaño se lleva aparte
+    private static final class Pool {
+        final Queue<PuzzleLayout> layouts = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean refilling = new AtomicBoolean();
+    }
+}
@@ -0,0 +1,273 @@
+package com.atraparalagato.impl.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rueda de temporizadores con hash (Varghese y Lauck) para los plazos de las partidas.
+ *
+ * La rueda tiene wheelSize casillas de tickMillis cada una; un temporizador va a la
+ * casilla de su tick de vencimiento y, si vence más allá de una vuelta, lleva la cuenta
+ * de las vueltas que le faltan. Programar y cancelar son O(1): solo encolan el cambio.
+ * Un único hilo avanza la rueda cada tick, pasa los temporizadores nuevos a sus casillas,
+ * quita los cancelados y dispara los de la casilla actual; nunca recorre todos los
+ * temporizadores. Las casillas son listas doblemente enlazadas que solo toca ese hilo.
+ *
+ * La precisión es de un tick: un temporizador vence entre su plazo y un tick después.
+ * Las acciones se entregan al executor indicado para no retrasar la rueda.
+ */
+public class TimingWheel implements AutoCloseable {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+    // Temporizadores nuevos que se pasan a la rueda por tick, para no retrasarla
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor dispatcher;
+    private final long startNanos = System.nanoTime();
+
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread ticker;
+    private volatile boolean running = true;
+    // Solo lo usa el hilo de la rueda
+    private long tick;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final LongAdder scheduledCount = new LongAdder();
+    private final LongAdder firedCount = new LongAdder();
+    private final LongAdder cancelledCount = new LongAdder();
+
+    /**
+     * @param tickMillis precisión de los temporizadores
+     * @param wheelSize  casillas de la rueda (se redondea a potencia de dos)
+     * @param dispatcher dónde se ejecutan las acciones de los temporizadores vencidos
+     */
+    public TimingWheel(long tickMillis, int wheelSize, Executor dispatcher) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Invalid timing wheel: tick " + tickMillis + " ms, " + wheelSize + " buckets");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.dispatcher = dispatcher;
+        this.ticker = new Thread(this::run, "game-timing-wheel");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Programa la acción para dentro de delayMillis. El temporizador devuelto permite cancelarla.
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        if (!running) {
+            throw new IllegalStateException("Timing wheel is closed");
+        }
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        Timeout timeout = new Timeout(task, deadline);
+        pending.incrementAndGet();
+        scheduledCount.increment();
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Temporizadores pendientes, programados, disparados y cancelados.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", pending.get());
+        stats.put("scheduled", scheduledCount.sum());
+        stats.put("fired", firedCount.sum());
+        stats.put("cancelled", cancelledCount.sum());
+        stats.put("tickMillis", TimeUnit.NANOSECONDS.toMillis(tickNanos));
+        stats.put("wheelSize", wheel.length);
+        return stats;
+    }
+
+    /**
+     * Detiene la rueda; los temporizadores pendientes ya no se disparan.
+     */
+    @Override
+    public void close() {
+        running = false;
+        ticker.interrupt();
+        try {
+            ticker.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) * 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (!waitForNextTick()) {
+                break;
+            }
+            removeCancelled();
+            transferAdded();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    // Duerme hasta el final del tick actual; false si se cerró la rueda
+    private boolean waitForNextTick() {
+        long deadline = (tick + 1) * tickNanos;
+        while (true) {
+            long sleepNanos = deadline - (System.nanoTime() - startNanos);
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferAdded() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = added.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() != PENDING) {
+                continue; // cancelado antes de entrar en la rueda
+            }
+            long expiryTick = Math.max(timeout.deadlineNanos / tickNanos, tick);
+            timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+            wheel[(int) (expiryTick & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Temporizador programado. Cancelarlo después de disparado no tiene efecto.
+     */
+    public final class Timeout {
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        // Solo los usa el hilo de la rueda
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * @return true si el temporizador seguía pendiente y ya no se disparará
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            cancelledCount.increment();
+            cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+            pending.decrementAndGet();
+            firedCount.increment();
+            try {
+                dispatcher.execute(task);
+            } catch (RuntimeException e) {
+                System.err.println("⏱️ Error al disparar un temporizador: " + e.getMessage());
+            }
+        }
+    }
+
+    // Lista doblemente enlazada de los temporizadores de una casilla
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.atraparalagato.impl.simulation;
+
+import com.atraparalagato.impl.model.HexGameBoard;
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Política del jugador que bloquea celdas durante una simulación.
+ *
+ * Recibe el generador aleatorio de la partida para que las decisiones
+ * aleatorias sean reproducibles a partir de la semilla de la simulación.
+ */
+@FunctionalInterface
+public interface BlockerPolicy {
+
+    /**
+     * Elige la siguiente celda a bloquear, o Optional.empty() si el jugador se rinde.
+     */
+    Optional<HexPosition> chooseBlock(HexGameState gameState, SplittableRandom random);
+
+    /**
+     * Bloquea una celda libre cualquiera del interior del tablero.
+     */
+    static BlockerPolicy randomCell() {
+        return (gameState, random) -> {
+            HexGameBoard board = gameState.getGameBoard();
+            HexPosition cat = gameState.getCatPosition();
+            List<HexPosition> free = board.getPositionsWhere(pos -> !board.isBlocked(pos) && !pos.equals(cat));
+            if (free.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(free.get(random.nextInt(free.size())));
+        };
+    }
+
+    /**
+     * Bloquea al azar una de las celdas libres junto al gato, igual que la sugerencia simple del servicio.
+     */
+    static BlockerPolicy adjacentToCat() {
+        return (gameState, random) -> {
+            HexGameBoard board = gameState.getGameBoard();
+            List<HexPosition> candidates = board.getAdjacentPositions(gameState.getCatPosition()).stream()
+                    .filter(pos -> !board.isAtBorder(pos))
+                    .toList();
+            if (candidates.isEmpty()) {
+                return randomCell().chooseBlock(gameState, random);
+            }
+            return Optional.of(candidates.get(random.nextInt(candidates.size())));
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.atraparalagato.impl.simulation;
+
+import com.atraparalagato.impl.metrics.LogLinearHistogram;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resultado agregado de una simulación.
+ *
+ * Se construye de forma incremental: cada tarea acumula sus partidas en su propio
+ * reporte y luego los reportes se combinan con merge, sin guardar partidas individuales.
+ */
+public class SimulationReport {
+
+    private long games;
+    private long playerWins;
+    private long playerLosses;
+    private long unfinished;
+    private long totalMoves;
+    private long elapsedNanos;
+    private final LogLinearHistogram gameLatencyNanos = new LogLinearHistogram();
+
+    void recordGame(SimulationEngine.GameOutcome outcome, int moves, long latencyNanos) {
+        games++;
+        switch (outcome) {
+            case PLAYER_WON -> playerWins++;
+            case PLAYER_LOST -> playerLosses++;
+            default -> unfinished++;
+        }
+        totalMoves += moves;
+        gameLatencyNanos.record(latencyNanos);
+    }
+
+    SimulationReport merge(SimulationReport other) {
+        games += other.games;
+        playerWins += other.playerWins;
+        playerLosses += other.playerLosses;
+        unfinished += other.unfinished;
+        totalMoves += other.totalMoves;
+        gameLatencyNanos.merge(other.gameLatencyNanos);
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getPlayerWins() {
+        return playerWins;
+    }
+
+    public long getPlayerLosses() {
+        return playerLosses;
+    }
+
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    public double getWinRate() {
+        return games == 0 ? 0.0 : (double) playerWins / games * 100;
+    }
+
+    public double getMeanMoves() {
+        return games == 0 ? 0.0 : (double) totalMoves / games;
+    }
+
+    public long getLatencyPercentileNanos(double percentile) {
+        return gameLatencyNanos.getPercentile(percentile);
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : games / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> report = new HashMap<>();
+        report.put("games", games);
+        report.put("playerWins", playerWins);
+        report.put("playerLosses", playerLosses);
+        report.put("unfinished", unfinished);
+        report.put("winRate", getWinRate());
+        report.put("meanMoves", getMeanMoves());
+        report.put("latencyP50Micros", getLatencyPercentileNanos(50) / 1_000.0);
+        report.put("latencyP90Micros", getLatencyPercentileNanos(90) / 1_000.0);
+        report.put("latencyP99Micros", getLatencyPercentileNanos(99) / 1_000.0);
+        report.put("latencyMaxMicros", gameLatencyNanos.getMax() / 1_000.0);
+        report.put("elapsedMillis", elapsedNanos / 1_000_000);
+        report.put("gamesPerSecond", getGamesPerSecond());
+        return report;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "games=%d wins=%d losses=%d unfinished=%d winRate=%.2f%% meanMoves=%.2f "
+                        + "p50=%.1fus p90=%.1fus p99=%.1fus throughput=%.0f games/s",
+                games, playerWins, playerLosses, unfinished, getWinRate(), getMeanMoves(),
+                getLatencyPercentileNanos(50) / 1_000.0, getLatencyPercentileNanos(90) / 1_000.0,
+                getLatencyPercentileNanos(99) / 1_000.0, getGamesPerSecond());
+    }
+}
@@ -0,0 +1,215 @@
+package com.atraparalagato.impl.strategy;
+
+import com.atraparalagato.base.model.GameBoard;
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import com.atraparalagato.impl.model.HexTopology;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Calcula la respuesta del gato para muchos juegos del mismo tamaño en una sola pasada.
+ *
+ * Produce exactamente el mismo movimiento que BFSCatMovement (vecino libre con el
+ * camino más corto al borde, desempatando por el orden de direcciones), pero:
+ * - Una sola BFS multi-origen desde el borde por juego, en vez de una BFS por vecino
+ * - Tablas de topología compartidas entre todos los juegos del lote
+ * - Buffers de trabajo reutilizados dentro de cada bloque de juegos
+ * - Los bloques se reparten entre los núcleos con un stream paralelo
+ */
+public class BatchCatMovement {
+
+    // Juegos por bloque: cada bloque reutiliza un mismo Scratch
+    private static final int CHUNK_SIZE = 64;
+
+    private final HexTopology topology;
+    // Buffers para cálculos sueltos (un juego por llamada) desde cualquier hilo
+    private final ThreadLocal<Scratch> localScratch;
+
+    public BatchCatMovement(int boardSize) {
+        this.topology = HexTopology.of(boardSize);
+        this.localScratch = ThreadLocal.withInitial(() -> new Scratch(topology.getCellCount()));
+    }
+
+    public int getBoardSize() {
+        return topology.getSize();
+    }
+
+    /**
+     * Calcula el siguiente movimiento del gato para cada juego.
+     * El resultado conserva el orden de entrada; Optional.empty() si el gato no puede avanzar.
+     */
+    public List<Optional<HexPosition>> computeMoves(List<HexGameState> games) {
+        for (HexGameState game : games) {
+            if (game.getBoardSize() != topology.getSize()) {
+                throw new IllegalArgumentException("All games in a batch must have board size "
+                        + topology.getSize() + ", got " + game.getBoardSize() + " (" + game.getGameId() + ")");
+            }
+        }
+
+        HexPosition[] moves = new HexPosition[games.size()];
+        int chunks = (games.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream chunkStream = IntStream.range(0, chunks);
+        if (chunks > 1) {
+            chunkStream = chunkStream.parallel();
+        }
+        chunkStream.forEach(chunk -> {
+            Scratch scratch = new Scratch(topology.getCellCount());
+            int end = Math.min(games.size(), (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                HexGameState game = games.get(i);
+                moves[i] = bestMove(game.getGameBoard(), game.getCatPosition(), scratch);
+            }
+        });
+
+        List<Optional<HexPosition>> result = new ArrayList<>(moves.length);
+        for (HexPosition move : moves) {
+            result.add(Optional.ofNullable(move));
+        }
+        return result;
+    }
+
+    /**
+     * Calcula el siguiente movimiento del gato para un único juego.
+     */
+    public Optional<HexPosition> computeMove(HexGameState game) {
+        return computeMove(game.getGameBoard(), game.getCatPosition());
+    }
+
+    /**
+     * Calcula el siguiente movimiento del gato sobre cualquier tablero hexagonal del mismo tamaño.
+     */
+    public Optional<HexPosition> computeMove(GameBoard<HexPosition> board, HexPosition catPosition) {
+        return Optional.ofNullable(bestMove(board, catPosition, localScratch.get()));
+    }
+
+    /**
+     * Camino más corto desde una posición hasta el borde (ambos incluidos), o lista vacía si no existe.
+     */
+    public List<HexPosition> shortestPathToBorder(GameBoard<HexPosition> board, HexPosition start) {
+        int current = topology.indexOf(start);
+        if (current < 0) {
+            return Collections.emptyList();
+        }
+        Scratch scratch = localScratch.get();
+        loadBoard(board, scratch);
+        if (!scratch.isVisited(current)) {
+            return Collections.emptyList();
+        }
+
+        List<HexPosition> path = new ArrayList<>();
+        path.add(start);
+        while (scratch.distance[current] > 0) {
+            for (int d = 0; d < HexTopology.DIRECTIONS; d++) {
+                int next = topology.neighbor(current, d);
+                if (next >= 0 && !scratch.isBlocked(next) && scratch.isVisited(next)
+                        && scratch.distance[next] == scratch.distance[current] - 1) {
+                    current = next;
+                    break;
+                }
+            }
+            path.add(topology.positionAt(current));
+        }
+        return path;
+    }
+
+    private HexPosition bestMove(GameBoard<HexPosition> board, HexPosition catPosition, Scratch scratch) {
+        int cat = topology.indexOf(catPosition);
+        if (cat < 0) {
+            return null;
+        }
+
+        loadBoard(board, scratch);
+
+        // Mismo criterio que BFSCatMovement: el primer vecino con la distancia mínima
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int d = 0; d < HexTopology.DIRECTIONS; d++) {
+            int next = topology.neighbor(cat, d);
+            if (next < 0 || scratch.isBlocked(next) || !scratch.isVisited(next)) {
+                continue;
+            }
+            if (scratch.distance[next] < bestDistance) {
+                bestDistance = scratch.distance[next];
+                best = next;
+            }
+        }
+        return best < 0 ? null : topology.positionAt(best);
+    }
+
+    // Marca las celdas bloqueadas y calcula las distancias al borde
+    private void loadBoard(GameBoard<HexPosition> board, Scratch scratch) {
+        scratch.reset();
+        for (HexPosition blocked : board.getBlockedPositions()) {
+            int index = topology.indexOf(blocked);
+            if (index >= 0) {
+                scratch.blocked[index] = scratch.epoch;
+            }
+        }
+        computeDistancesToBorder(scratch);
+    }
+
+    /**
+     * BFS multi-origen desde todas las celdas libres del borde.
+     */
+    private void computeDistancesToBorder(Scratch scratch) {
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < topology.getCellCount(); i++) {
+            if (topology.isBorder(i) && !scratch.isBlocked(i)) {
+                scratch.visit(i, 0);
+                scratch.queue[tail++] = i;
+            }
+        }
+        while (head < tail) {
+            int current = scratch.queue[head++];
+            int nextDistance = scratch.distance[current] + 1;
+            for (int d = 0; d < HexTopology.DIRECTIONS; d++) {
+                int next = topology.neighbor(current, d);
+                if (next >= 0 && !scratch.isBlocked(next) && !scratch.isVisited(next)) {
+                    scratch.visit(next, nextDistance);
+                    scratch.queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffers de trabajo reutilizables. Las marcas por época evitan limpiar los arreglos entre juegos.
+     */
+    private static final class Scratch {
+        final int[] blocked;
+        final int[] visited;
+        final int[] distance;
+        final int[] queue;
+        int epoch;
+
+        Scratch(int cellCount) {
+            this.blocked = new int[cellCount];
+            this.visited = new int[cellCount];
+            this.distance = new int[cellCount];
+            this.queue = new int[cellCount];
+        }
+
+        void reset() {
+            epoch++;
+        }
+
+        boolean isBlocked(int index) {
+            return blocked[index] == epoch;
+        }
+
+        boolean isVisited(int index) {
+            return visited[index] == epoch;
+        }
+
+        void visit(int index, int dist) {
+            visited[index] = epoch;
+            distance[index] = dist;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.atraparalagato.impl.strategy;
+
+import com.atraparalagato.impl.model.HexPosition;
+import com.atraparalagato.impl.model.HexTopology;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Análisis rápido de las rutas de escape del gato sobre una máscara de celdas bloqueadas.
+ *
+ * Trabaja con el índice denso de HexTopology y un bitset (long[]) de celdas bloqueadas:
+ * - escapeDistance: movimientos mínimos del gato hasta el borde (BFS por arreglos)
+ * - minCut: mínimo de celdas que el jugador debe bloquear para encerrar al gato,
+ *   calculado como corte mínimo de vértices (flujo máximo con vértices divididos).
+ *   Las celdas del borde no se pueden bloquear, así que tienen capacidad infinita.
+ *
+ * No es thread-safe: reutiliza sus buffers entre llamadas. Usar una instancia por hilo.
+ */
+public class EscapeAnalyzer {
+
+    /** Valor devuelto cuando no existe el dato (sin camino, o corte imposible). */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int INFINITE = 1 << 20;
+
+    private final HexTopology topology;
+    private final int cellCount;
+
+    // BFS
+    private final int[] distance;
+    private final int[] queue;
+
+    // Grafo residual: nodo de entrada 2i, de salida 2i+1, sumidero 2N
+    private final int sink;
+    private final int[] edgeHead;
+    private final int[] edgeNext;
+    private final int[] edgeTo;
+    private final int[] edgeCapacity;
+    private final int[] parentEdge;
+    private final int[] flowQueue;
+    private int edgeCount;
+
+    public EscapeAnalyzer(int boardSize) {
+        this.topology = HexTopology.of(boardSize);
+        this.cellCount = topology.getCellCount();
+        this.distance = new int[cellCount];
+        this.queue = new int[cellCount];
+
+        int nodes = 2 * cellCount + 1;
+        this.sink = 2 * cellCount;
+        // Por celda: arista interna + 6 vecinos + arista al sumidero, cada una con su inversa
+        int maxEdges = 2 * cellCount * (HexTopology.DIRECTIONS + 2);
+        this.edgeHead = new int[nodes];
+        this.edgeNext = new int[maxEdges];
+        this.edgeTo = new int[maxEdges];
+        this.edgeCapacity = new int[maxEdges];
+        this.parentEdge = new int[nodes];
+        this.flowQueue = new int[nodes];
+    }
+
+    public HexTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Crea la máscara de bloqueo para un conjunto de posiciones.
+     */
+    public long[] toMask(Collection<HexPosition> blockedPositions) {
+        long[] mask = new long[(cellCount + 63) / 64];
+        for (HexPosition position : blockedPositions) {
+            int index = topology.indexOf(position);
+            if (index >= 0) {
+                mask[index >>> 6] |= 1L << index;
+            }
+        }
+        return mask;
+    }
+
+    public static boolean isBlocked(long[] mask, int index) {
+        return (mask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Número mínimo de pasos del gato hasta el borde, o UNREACHABLE si está encerrado.
+     */
+    public int escapeDistance(long[] blockedMask, int catIndex) {
+        Arrays.fill(distance, -1);
+        int head = 0;
+        int tail = 0;
+        distance[catIndex] = 0;
+        queue[tail++] = catIndex;
+        while (head < tail) {
+            int current = queue[head++];
+            if (topology.isBorder(current)) {
+                return distance[current];
+            }
+            for (int d = 0; d < HexTopology.DIRECTIONS; d++) {
+                int next = topology.neighbor(current, d);
+                if (next >= 0 && distance[next] < 0 && !isBlocked(blockedMask, next)) {
+                    distance[next] = distance[current] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    /**
+     * Mínimo de celdas interiores a bloquear para separar al gato del borde.
+     * Devuelve 0 si ya está encerrado y UNREACHABLE si el gato está en el borde
+     * o junto a él (ningún bloqueo puede impedir que escape).
+     */
+    public int minCut(long[] blockedMask, int catIndex) {
+        if (topology.isBorder(catIndex)) {
+            return UNREACHABLE;
+        }
+        buildResidualGraph(blockedMask, catIndex);
+
+        int source = 2 * catIndex + 1;
+        int flow = 0;
+        while (flow < INFINITE) {
+            int pushed = augment(source);
+            if (pushed == 0) {
+                break;
+            }
+            flow += pushed;
+        }
+        return flow >= INFINITE ? UNREACHABLE : flow;
+    }
+
+    private void buildResidualGraph(long[] blockedMask, int catIndex) {
+        Arrays.fill(edgeHead, -1);
+        edgeCount = 0;
+        for (int i = 0; i < cellCount; i++) {
+            if (isBlocked(blockedMask, i)) {
+                continue;
+            }
+            boolean border = topology.isBorder(i);
+            int capacity = border || i == catIndex ? INFINITE : 1;
+            addEdge(2 * i, 2 * i + 1, capacity);
+            if (border) {
+                addEdge(2 * i + 1, sink, INFINITE);
+            }
+            for (int d = 0; d < HexTopology.DIRECTIONS; d++) {
+                int next = topology.neighbor(i, d);
+                if (next >= 0 && !isBlocked(blockedMask, next)) {
+                    addEdge(2 * i + 1, 2 * next, INFINITE);
+                }
+            }
+        }
+    }
+
+    private void addEdge(int from, int to, int capacity) {
+        edgeTo[edgeCount] = to;
+        edgeCapacity[edgeCount] = capacity;
+        edgeNext[edgeCount] = edgeHead[from];
+        edgeHead[from] = edgeCount++;
+
+        edgeTo[edgeCount] = from;
+        edgeCapacity[edgeCount] = 0;
+        edgeNext[edgeCount] = edgeHead[to];
+        edgeHead[to] = edgeCount++;
+    }
+
+    // Busca un camino de aumento con BFS (Edmonds-Karp) y devuelve el flujo empujado
+    private int augment(int source) {
+        Arrays.fill(parentEdge, -1);
+        int head = 0;
+        int tail = 0;
+        flowQueue[tail++] = source;
+        parentEdge[source] = Integer.MAX_VALUE;
+        while (head < tail && parentEdge[sink] == -1) {
+            int node = flowQueue[head++];
+            for (int e = edgeHead[node]; e != -1; e = edgeNext[e]) {
+                int next = edgeTo[e];
+                if (edgeCapacity[e] > 0 && parentEdge[next] == -1) {
+                    parentEdge[next] = e;
+                    flowQueue[tail++] = next;
+                }
+            }
+        }
+        if (parentEdge[sink] == -1) {
+            return 0;
+        }
+
+        int bottleneck = INFINITE;
+        for (int node = sink; node != source; node = edgeTo[parentEdge[node] ^ 1]) {
+            bottleneck = Math.min(bottleneck, edgeCapacity[parentEdge[node]]);
+        }
+        for (int node = sink; node != source; node = edgeTo[parentEdge[node] ^ 1]) {
+            edgeCapacity[parentEdge[node]] -= bottleneck;
+            edgeCapacity[parentEdge[node] ^ 1] += bottleneck;
+        }
+        return bottleneck;
+    }
+}
@@ -0,0 +1,68 @@
+package com.atraparalagato.impl.strategy;
+
+import com.atraparalagato.base.model.GameBoard;
+import com.atraparalagato.base.strategy.CatMovementStrategy;
+import com.atraparalagato.impl.model.HexPosition;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Estrategia BFS equivalente a BFSCatMovement, resuelta con el motor de BatchCatMovement.
+ *
+ * Elige los mismos movimientos, pero con una única BFS por arreglos en vez de una
+ * BFS con HashMap por cada vecino. Útil donde se calculan muchos movimientos,
+ * como en las simulaciones.
+ */
+public class FastBFSCatMovement extends CatMovementStrategy<HexPosition> {
+    
+    private final BatchCatMovement engine;
+    
+    public FastBFSCatMovement(GameBoard<HexPosition> board) {
+        super(board);
+        this.engine = new BatchCatMovement(board.getSize());
+    }
+    
+    @Override
+    protected List<HexPosition> getPossibleMoves(HexPosition currentPosition) {
+        // getAdjacentPositions ya excluye las posiciones bloqueadas
+        return board.getAdjacentPositions(currentPosition);
+    }
+    
+    @Override
+    protected Optional<HexPosition> selectBestMove(List<HexPosition> possibleMoves, 
+                                                  HexPosition currentPosition, 
+                                                  HexPosition targetPosition) {
+        return engine.computeMove(board, currentPosition);
+    }
+    
+    @Override
+    protected Function<HexPosition, Double> getHeuristicFunction(HexPosition targetPosition) {
+        return pos -> pos.distanceTo(targetPosition);
+    }
+    
+    @Override
+    protected Predicate<HexPosition> getGoalPredicate() {
+        int size = board.getSize();
+        return pos -> Math.abs(pos.getQ()) == size ||
+                      Math.abs(pos.getR()) == size ||
+                      Math.abs(pos.getS()) == size;
+    }
+    
+    @Override
+    protected double getMoveCost(HexPosition from, HexPosition to) {
+        return 1.0;
+    }
+    
+    @Override
+    public boolean hasPathToGoal(HexPosition currentPosition) {
+        return !engine.shortestPathToBorder(board, currentPosition).isEmpty();
+    }
+    
+    @Override
+    public List<HexPosition> getFullPath(HexPosition currentPosition, HexPosition targetPosition) {
+        return engine.shortestPathToBorder(board, currentPosition);
+    }
+}
@@ -0,0 +1,113 @@
+package com.atraparalagato.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de los pools acotados de las peticiones asíncronas y de cómo el controlador
+ * convierte sus fallos en respuestas.
+ */
+class GameRequestExecutorsTest {
+
+    private final GameRequestExecutors executors = new GameRequestExecutors(1, 1, 2, 4);
+
+    @AfterEach
+    void tearDown() {
+        executors.shutdown();
+    }
+
+    @Test
+    void testFullQueueRespondsServiceUnavailable() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<Map<String, Object>>> running = executors.compute(() -> {
+            started.countDown();
+            await(release);
+            return ResponseEntity.ok(Map.of("done", true));
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<Map<String, Object>>> queued =
+                executors.compute(() -> ResponseEntity.ok(Map.of("done", true)));
+
+        // Un hilo ocupado y la cola de 1 llena: se rechaza enseguida, sin esperar
+        CompletableFuture<ResponseEntity<Map<String, Object>>> rejected =
+                executors.compute(() -> ResponseEntity.ok(Map.of("done", true)));
+        assertTrue(rejected.isCompletedExceptionally());
+        CompletionException error = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+
+        ResponseEntity<Map<String, Object>> response =
+                GameController.respond(rejected, "Error al obtener sugerencia: ").get(5, TimeUnit.SECONDS);
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("Servidor ocupado, inténtalo de nuevo", response.getBody().get("error"));
+        // El pool de E/S es independiente: sigue aceptando
+        assertEquals(200, executors.io(() -> ResponseEntity.ok(Map.<String, Object>of())).get(5, TimeUnit.SECONDS)
+                .getStatusCode().value());
+
+        release.countDown();
+        assertEquals(200, running.get(5, TimeUnit.SECONDS).getStatusCode().value());
+        assertEquals(200, queued.get(5, TimeUnit.SECONDS).getStatusCode().value());
+    }
+
+    @Test
+    void testFailingTaskRespondsInternalErrorWithPrefix() throws Exception {
+        CompletableFuture<ResponseEntity<Map<String, Object>>> failing = executors.io(() -> {
+            throw new IllegalStateException("partida no encontrada");
+        });
+
+        ResponseEntity<Map<String, Object>> response =
+                GameController.respond(failing, "Error al ejecutar movimiento: ").get(5, TimeUnit.SECONDS);
+        assertEquals(500, response.getStatusCode().value());
+        assertEquals("Error al ejecutar movimiento: partida no encontrada", response.getBody().get("error"));
+
+        CompletableFuture<ResponseEntity<Map<String, Object>>> ok =
+                executors.io(() -> ResponseEntity.ok(Map.of("gameId", "g-1")));
+        assertSame(ok.get(5, TimeUnit.SECONDS), GameController.respond(ok, "Error: ").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStatsReportPoolsAndRejections() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> running = executors.compute(() -> await(release));
+        CompletableFuture<Object> queued = executors.compute(() -> null);
+        for (int i = 0; i < 3; i++) {
+            executors.compute(() -> null);
+        }
+
+        Map<String, Object> stats = executors.getStats();
+        assertEquals(3L, stats.get("rejected"));
+        Map<String, Object> compute = (Map<String, Object>) stats.get("compute");
+        assertEquals(1, compute.get("threads"));
+        assertEquals(1, compute.get("queueCapacity"));
+        assertEquals(1, compute.get("queued"));
+        Map<String, Object> io = (Map<String, Object>) stats.get("io");
+        assertEquals(2, io.get("threads"));
+        assertEquals(4, io.get("queueCapacity"));
+        assertEquals(0, io.get("queued"));
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        assertThrows(IllegalArgumentException.class, () -> new GameRequestExecutors(0, 1, 1, 1));
+    }
+
+    private static Object await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.atraparalagato.impl.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del histograma log-lineal: error de los percentiles, combinación y formato binario.
+ */
+class LogLinearHistogramTest {
+
+    @Test
+    void testPercentilesWithinRelativeError() {
+        SplittableRandom random = new SplittableRandom(1);
+        long[] values = new long[100_000];
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong(1, 10_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long approx = histogram.getPercentile(percentile);
+            assertTrue(Math.abs(approx - exact) <= exact * 0.06, "p" + percentile + ": " + approx + " vs " + exact);
+        }
+        assertEquals(values[0], histogram.getMin());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int value = 0; value < 32; value++) {
+            histogram.record(value);
+        }
+        assertEquals(0, histogram.getPercentile(0));
+        assertEquals(15, histogram.getPercentile(50));
+        assertEquals(31, histogram.getPercentile(100));
+        assertEquals(15.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    void testMergeEqualsRecordingEverything() {
+        LogLinearHistogram all = new LogLinearHistogram();
+        LogLinearHistogram left = new LogLinearHistogram();
+        LogLinearHistogram right = new LogLinearHistogram();
+        for (long value = 1; value < 100_000; value += 37) {
+            all.record(value);
+            (value % 2 == 0 ? left : right).record(value);
+        }
+        left.merge(right);
+
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getMean(), left.getMean(), 1e-9);
+        for (double percentile : new double[] {10, 50, 99}) {
+            assertEquals(all.getPercentile(percentile), left.getPercentile(percentile));
+        }
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new LogLinearHistogram(1_000)));
+    }
+
+    @Test
+    void testBoundedHistogramRoundTrip() throws Exception {
+        LogLinearHistogram histogram = new LogLinearHistogram(1_000);
+        for (long value = 0; value <= 1_000; value += 10) {
+            histogram.record(value);
+        }
+        histogram.record(50_000); // por encima del máximo: cuenta en el último bucket
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        histogram.writeTo(new DataOutputStream(bytes));
+        LogLinearHistogram read = LogLinearHistogram.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(histogram.getCount(), read.getCount());
+        assertEquals(histogram.getMax(), read.getMax());
+        assertEquals(histogram.getPercentile(50), read.getPercentile(50));
+        assertEquals(histogram.getPercentile(99), read.getPercentile(99));
+        assertThrows(IllegalArgumentException.class, () -> read.record(-1));
+    }
+}
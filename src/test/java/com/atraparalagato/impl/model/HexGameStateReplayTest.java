@@ -0,0 +1,63 @@
+package com.atraparalagato.impl.model;
+
+import com.atraparalagato.example.strategy.SimpleCatMovement;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la reproducibilidad de una partida a partir de su semilla.
+ */
+class HexGameStateReplayTest {
+
+    @Test
+    void testSameSeedReproducesTheSameCatMoves() {
+        long seed = 20240611L;
+        List<HexPosition> first = playRecordingCat(seed);
+        List<HexPosition> replay = playRecordingCat(seed);
+
+        assertFalse(first.isEmpty());
+        assertEquals(first, replay);
+    }
+
+    @Test
+    void testConsecutiveMoveStreamsAreNotShiftedCopies() {
+        HexGameState gameState = new HexGameState("streams", 5, 42L);
+        SplittableRandom current = gameState.newMoveRandom();
+        current.nextLong();
+        long secondDraw = current.nextLong();
+
+        gameState.executeMove(new HexPosition(1, 0));
+        SplittableRandom next = gameState.newMoveRandom();
+        // Con seed + moveCount * GAMMA, el primer valor del movimiento siguiente sería secondDraw
+        assertNotEquals(secondDraw, next.nextLong());
+    }
+
+    // Bloquea siempre la primera celda libre junto al gato y anota adónde va el gato
+    private static List<HexPosition> playRecordingCat(long seed) {
+        HexGameState gameState = new HexGameState("replay", 5, seed);
+        HexPosition target = new HexPosition(gameState.getBoardSize(), 0);
+        List<HexPosition> catTrail = new ArrayList<>();
+        while (!gameState.isGameFinished()) {
+            HexGameBoard board = gameState.getGameBoard();
+            HexPosition block = board.getAdjacentPositions(gameState.getCatPosition()).stream()
+                    .filter(position -> !board.isBlocked(position) && !board.isAtBorder(position))
+                    .findFirst()
+                    .orElse(null);
+            if (block == null || !gameState.executeMove(block) || gameState.isGameFinished()) {
+                break;
+            }
+            new SimpleCatMovement(board, gameState.newMoveRandom())
+                    .findBestMove(gameState.getCatPosition(), target)
+                    .ifPresent(position -> {
+                        gameState.setCatPosition(position);
+                        catTrail.add(position);
+                    });
+        }
+        return catTrail;
+    }
+}
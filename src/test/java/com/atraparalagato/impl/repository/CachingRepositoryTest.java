@@ -0,0 +1,87 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.example.model.ExampleGameState;
+import com.atraparalagato.example.repository.InMemoryGameRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la caché de lectura sobre el repositorio en memoria de ejemplo.
+ */
+class CachingRepositoryTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private InMemoryGameRepository store;
+    private CachingRepository<ExampleGameState, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryGameRepository() {
+            @Override
+            public Optional<ExampleGameState> findById(String id) {
+                loads.incrementAndGet();
+                return super.findById(id);
+            }
+        };
+        cache = new CachingRepository<>(store, ExampleGameState::getGameId, 16 * 4);
+    }
+
+    @Test
+    void testRepeatedLoadsHitTheCache() {
+        cache.save(new ExampleGameState("hot", 5));
+
+        ExampleGameState first = cache.findById("hot").orElseThrow();
+        for (int i = 0; i < 10; i++) {
+            assertSame(first, cache.findById("hot").orElseThrow());
+        }
+
+        assertEquals(1, loads.get());
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(10L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+    }
+
+    @Test
+    void testSaveAndDeleteInvalidate() {
+        cache.save(new ExampleGameState("game", 5));
+        cache.findById("game");
+
+        ExampleGameState replacement = new ExampleGameState("game", 7);
+        cache.save(replacement);
+        assertSame(replacement, cache.findById("game").orElseThrow());
+        assertEquals(2, loads.get());
+
+        assertTrue(cache.deleteById("game"));
+        assertTrue(cache.findById("game").isEmpty());
+        assertFalse(cache.existsById("game"));
+        assertEquals(2L, cache.getStats().get("invalidations"));
+    }
+
+    @Test
+    void testSizeIsBoundedAndHotEntriesSurviveScans() {
+        // 4 entradas por partición: una partida leída dos veces sobrevive a un recorrido de 1000
+        cache.save(new ExampleGameState("hot", 5));
+        cache.findById("hot");
+        cache.findById("hot");
+
+        for (int i = 0; i < 1000; i++) {
+            String id = "scan-" + i;
+            store.save(new ExampleGameState(id, 5));
+            cache.findById(id);
+        }
+
+        Map<String, Object> stats = cache.getStats();
+        assertTrue((Long) stats.get("size") <= 16 * 4);
+        assertTrue((Long) stats.get("evictions") >= 1000 - 16 * 4);
+
+        int loadsBefore = loads.get();
+        cache.findById("hot");
+        assertEquals(loadsBefore, loads.get(), "La partida activa no debería haberse expulsado");
+    }
+}
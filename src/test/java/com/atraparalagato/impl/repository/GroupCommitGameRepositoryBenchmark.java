@@ -0,0 +1,57 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.model.HexGameState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Escrituras por segundo con cada nivel de durabilidad. Mide tiempo real, así que no forma
+ * parte de los tests unitarios: se lanza a mano con -Dtest=GroupCommitGameRepositoryBenchmark.
+ */
+class GroupCommitGameRepositoryBenchmark {
+
+    @Test
+    void benchmarkDurabilityModesThroughput(@TempDir Path dir) throws Exception {
+        // 8 hilos guardando partidas nuevas con cada nivel de durabilidad
+        int threads = 8;
+        int savesPerThread = 200;
+        String fileUrl = "jdbc:h2:file:" + dir.resolve("games") + ";WRITE_DELAY=0";
+
+        H2GameRepository syncH2 = new H2GameRepository(fileUrl + "-sync", threads, true);
+        double syncDirect = throughput(syncH2, threads, savesPerThread);
+        H2GameRepository groupedH2 = new H2GameRepository(fileUrl + "-grouped", threads, true);
+        GroupCommitGameRepository grouped = new GroupCommitGameRepository(groupedH2, 500, 256);
+        double syncGrouped = throughput(grouped, threads, savesPerThread);
+        H2GameRepository asyncH2 = new H2GameRepository(fileUrl + "-async", threads, false);
+        WriteBehindGameRepository async = new WriteBehindGameRepository(asyncH2, 100, 256);
+        double asyncWriteBehind = throughput(async, threads, savesPerThread);
+        H2GameRepository memory = new H2GameRepository("jdbc:h2:mem:durability-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", threads);
+        double inMemory = throughput(memory, threads, savesPerThread);
+
+        System.out.printf("SYNC sin agrupar: %.0f ops/s | SYNC agrupado: %.0f ops/s (grupo medio %.1f) "
+                        + "| ASYNC (100 ms expuestos): %.0f ops/s | MEMORY: %.0f ops/s%n",
+                syncDirect, syncGrouped, grouped.getMetrics().get("meanGroupSize"), asyncWriteBehind, inMemory);
+
+        async.shutdown();
+        grouped.shutdown();
+        for (H2GameRepository h2 : List.of(syncH2, groupedH2, asyncH2, memory)) {
+            h2.cleanup();
+        }
+    }
+
+    private static double throughput(DataRepository<HexGameState, String> store, int threads, int savesPerThread)
+            throws Exception {
+        long start = System.nanoTime();
+        List<Throwable> failures = GroupCommitGameRepositoryTest.runConcurrently(threads, savesPerThread,
+                (thread, i) -> store.save(new HexGameState("g-" + thread + "-" + i, 5)));
+        assertTrue(failures.isEmpty(), failures.toString());
+        return threads * savesPerThread / ((System.nanoTime() - start) / 1e9);
+    }
+}
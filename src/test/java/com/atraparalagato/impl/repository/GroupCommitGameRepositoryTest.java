@@ -0,0 +1,106 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.impl.model.HexGameState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del commit agrupado.
+ */
+class GroupCommitGameRepositoryTest {
+
+    private GroupCommitGameRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.shutdown();
+        }
+    }
+
+    @Test
+    void testConcurrentWritesShareCommits() throws Exception {
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        delegate.commitDelayMillis = 5;
+        repository = new GroupCommitGameRepository(delegate, 0, 256);
+
+        runConcurrently(16, 20, (thread, i) -> repository.save(new HexGameState("g-" + thread + "-" + i, 5)));
+
+        assertEquals(320, delegate.games.size());
+        assertTrue(delegate.transactions.get() < 320 / 4,
+                "Las escrituras concurrentes deberían compartir commit: " + delegate.transactions.get());
+        Map<String, Object> metrics = repository.getMetrics();
+        assertEquals(320L, metrics.get("committedWrites"));
+        assertTrue((Double) metrics.get("meanGroupSize") > 4);
+    }
+
+    @Test
+    void testFailingWriteOnlyFailsItself() throws Exception {
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        delegate.commitDelayMillis = 5;
+        delegate.rejectedIds.add("g-3-7");
+        repository = new GroupCommitGameRepository(delegate, 1_000, 256);
+
+        List<Throwable> failures = runConcurrently(8, 10,
+                (thread, i) -> repository.save(new HexGameState("g-" + thread + "-" + i, 5)));
+
+        assertEquals(1, failures.size());
+        assertInstanceOf(IllegalArgumentException.class, failures.get(0));
+        assertEquals(79, delegate.games.size());
+        assertFalse(delegate.existsById("g-3-7"));
+    }
+
+    @Test
+    void testShutdownCommitsQueuedWritesAndRejectsNewOnes() {
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        repository = new GroupCommitGameRepository(delegate, 0, 16);
+        repository.save(new HexGameState("before", 5));
+        repository.shutdown();
+
+        assertTrue(delegate.existsById("before"));
+        assertThrows(IllegalStateException.class, () -> repository.save(new HexGameState("after", 5)));
+    }
+
+    // Ejecuta la escritura perThread veces en cada hilo; devuelve los errores
+    static List<Throwable> runConcurrently(int threads, int perThread, IndexedWrite write) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Throwable>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    List<Throwable> errors = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        try {
+                            write.run(thread, i);
+                        } catch (RuntimeException e) {
+                            errors.add(e);
+                        }
+                    }
+                    return errors;
+                }));
+            }
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<List<Throwable>> result : results) {
+                failures.addAll(result.get());
+            }
+            return failures;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    interface IndexedWrite {
+        void run(int thread, int index);
+    }
+}
@@ -0,0 +1,194 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga concurrente del repositorio H2 con pool de conexiones.
+ */
+class H2GameRepositoryConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int GAMES_PER_THREAD = 100;
+
+    private H2GameRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // Base de datos propia por test para no compartir datos entre ejecuciones
+        String url = "jdbc:h2:mem:concurrency-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64";
+        repository = new H2GameRepository(url, THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.cleanup();
+    }
+
+    @Test
+    void testRoundTripRestoresFullState() {
+        HexGameState game = new HexGameState("round-trip", 5, 1234L);
+        game.executeMove(new HexPosition(1, 0));
+        game.executeMove(new HexPosition(-2, 1));
+        game.setCatPosition(new HexPosition(0, 1));
+        repository.save(game);
+
+        HexGameState loaded = repository.findById("round-trip").orElseThrow();
+        assertEquals(game.getCatPosition(), loaded.getCatPosition());
+        assertEquals(game.getGameBoard().getBlockedPositions(), loaded.getGameBoard().getBlockedPositions());
+        assertEquals(game.getMoveCount(), loaded.getMoveCount());
+        assertEquals(game.getStatus(), loaded.getStatus());
+        assertEquals(game.getSeed(), loaded.getSeed());
+    }
+
+    @Test
+    void testStaleWriteRaisesConflict() {
+        repository.save(new HexGameState("versioned", 5, 42L));
+
+        // Dos instancias leen la misma versión; la segunda en escribir llega tarde
+        HexGameState first = repository.findById("versioned").orElseThrow();
+        HexGameState second = repository.findById("versioned").orElseThrow();
+        first.executeMove(new HexPosition(1, 0));
+        repository.appendMove(first, new HexPosition(1, 0), null);
+        second.executeMove(new HexPosition(-1, 0));
+
+        GameConflictException conflict = assertThrows(GameConflictException.class,
+                () -> repository.appendMove(second, new HexPosition(-1, 0), null));
+        assertEquals("versioned", conflict.getGameId());
+
+        // Releer y volver a aplicar sí se guarda, sin perder el movimiento del primero
+        HexGameState reloaded = repository.findById("versioned").orElseThrow();
+        assertEquals(first.getVersion(), reloaded.getVersion());
+        reloaded.executeMove(new HexPosition(-1, 0));
+        repository.appendMove(reloaded, new HexPosition(-1, 0), null);
+        assertEquals(2, repository.findById("versioned").orElseThrow().getMoveCount());
+    }
+
+    @Test
+    void testNewGameWithExistingIdIsRejected() {
+        HexGameState original = new HexGameState("duplicated", 5, 1L);
+        original.setVersion(HexGameState.NEW_VERSION);
+        repository.save(original);
+        assertEquals(1, original.getVersion());
+
+        // Otro nodo generó el mismo gameId: la inserción falla y la partida guardada no cambia
+        HexGameState duplicate = new HexGameState("duplicated", 7, 2L);
+        duplicate.setVersion(HexGameState.NEW_VERSION);
+        RuntimeException error = assertThrows(RuntimeException.class, () -> repository.save(duplicate));
+        assertTrue(error.getCause().getMessage().contains("already exists"));
+        assertEquals(5, repository.findById("duplicated").orElseThrow().getBoardSize());
+    }
+
+    @Test
+    void testConcurrentSaveLoadAndDelete() throws Exception {
+        // Cada hilo trabaja sobre sus propias partidas: guarda, relee, modifica y borra la mitad
+        runWorkers(1, "warm");
+        runWorkers(THREADS, "load");
+
+        assertEquals(GAMES_PER_THREAD / 2, repository.countWhere(game -> game.getGameId().startsWith("warm-")));
+        assertEquals((long) THREADS * GAMES_PER_THREAD / 2,
+                repository.countWhere(game -> game.getGameId().startsWith("load-")));
+    }
+
+    @Test
+    void testTransactionsAreIsolatedPerThread() throws Exception {
+        // Las transacciones pares confirman y las impares fallan: cada una solo afecta a su propia conexión
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < GAMES_PER_THREAD / 4; i++) {
+                    String gameId = "tx-" + thread + "-" + i;
+                    boolean fail = i % 2 == 1;
+                    try {
+                        repository.executeInTransaction(repo -> {
+                            repo.save(new HexGameState(gameId, 5));
+                            if (fail) {
+                                throw new IllegalStateException("rollback " + gameId);
+                            }
+                            return null;
+                        });
+                        assertFalse(fail, "La transacción debía fallar: " + gameId);
+                    } catch (RuntimeException e) {
+                        assertTrue(fail, "Falló una transacción válida: " + gameId);
+                    }
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < GAMES_PER_THREAD / 4; i++) {
+                String gameId = "tx-" + t + "-" + i;
+                assertEquals(i % 2 == 0, repository.existsById(gameId), gameId);
+            }
+        }
+    }
+
+    private void runWorkers(int threads, String prefix) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < GAMES_PER_THREAD; i++) {
+                    String gameId = prefix + "-" + thread + "-" + i;
+                    HexGameState game = new HexGameState(gameId, 5);
+                    game.executeMove(new HexPosition(1, -1));
+                    repository.save(game);
+
+                    Optional<HexGameState> loaded = repository.findById(gameId);
+                    assertTrue(loaded.isPresent(), gameId);
+                    assertEquals(1, loaded.get().getMoveCount(), gameId);
+
+                    loaded.get().executeMove(new HexPosition(-1, 1));
+                    repository.save(loaded.get());
+                    assertEquals(2, repository.findById(gameId).orElseThrow().getGameBoard().getBlockedPositions().size());
+
+                    if (i % 2 == 1) {
+                        assertTrue(repository.deleteById(gameId), gameId);
+                    }
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+    }
+
+    private void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            CountDownLatch startGate = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return task.call();
+                }));
+            }
+            startGate.countDown();
+            for (Future<Void> future : futures) {
+                // get() relanza cualquier fallo de aserción de los hilos de trabajo
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
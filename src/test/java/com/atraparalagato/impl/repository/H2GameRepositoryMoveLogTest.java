@@ -0,0 +1,135 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.impl.model.GameMove;
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import com.atraparalagato.impl.strategy.BatchCatMovement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del registro de movimientos: instantánea + reproducción debe dar el mismo estado.
+ */
+class H2GameRepositoryMoveLogTest {
+
+    private H2GameRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:h2:mem:moves-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        repository = new H2GameRepository(url, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.cleanup();
+    }
+
+    @Test
+    void testReplayReproducesLiveGame() {
+        // Test: reproducir el registro sobre el estado inicial da el mismo estado (sin base de datos)
+        HexGameState live = new HexGameState("replay", 7, 5L);
+        List<GameMove> moves = playRandomGame(live, new Random(3), null);
+
+        HexGameState replayed = new HexGameState("replay", 7, 5L);
+        moves.forEach(replayed::replayMove);
+        assertSameState(live, replayed);
+
+        HexGameState outOfOrder = new HexGameState("replay", 7, 5L);
+        assertThrows(IllegalStateException.class, () -> outOfOrder.replayMove(moves.get(1)));
+    }
+
+    @Test
+    void testLoadReplaysMovesAfterSnapshot() {
+        HexGameState live = new HexGameState("log", 7, 9L);
+        repository.save(live);
+        List<GameMove> moves = playRandomGame(live, new Random(1), repository);
+
+        assertTrue(moves.size() > 16, "La partida debería pasar de una instantánea");
+        assertSameState(live, repository.findById("log").orElseThrow());
+        assertEquals(moves.size(), repository.findMoves("log").size());
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @Test
+    void testLoadAtRebuildsIntermediateStates() {
+        HexGameState live = new HexGameState("history", 7, 21L);
+        repository.save(live);
+        List<GameMove> moves = playRandomGame(live, new Random(4), repository);
+
+        // Estado esperado tras cada movimiento, reproduciendo en memoria desde el inicio
+        HexGameState expected = new HexGameState("history", 7, 21L);
+        assertSameState(expected, repository.loadAt("history", 0).orElseThrow());
+        for (GameMove move : moves) {
+            expected.replayMove(move);
+            assertSameState(expected, repository.loadAt("history", move.getSeq()).orElseThrow());
+        }
+        assertTrue(repository.loadAt("history", moves.size() + 1).isEmpty());
+    }
+
+    @Test
+    void testSaveTruncatesLaterMovesAndDeleteCascades() {
+        HexGameState live = new HexGameState("undo", 7, 2L);
+        repository.save(live);
+        playRandomGame(live, new Random(8), repository);
+
+        HexGameState previous = repository.loadAt("undo", 3).orElseThrow();
+        repository.save(previous);
+        assertEquals(3, repository.findMoves("undo").size());
+        assertSameState(previous, repository.findById("undo").orElseThrow());
+
+        assertTrue(repository.deleteById("undo"));
+        assertTrue(repository.findMoves("undo").isEmpty());
+        assertTrue(repository.loadAt("undo", 0).isEmpty());
+    }
+
+    // Bloqueos aleatorios; el gato BFS solo responde uno de cada tres turnos para que la
+    // partida pase de una instantánea. Registra cada movimiento si hay repositorio.
+    private static List<GameMove> playRandomGame(HexGameState game, Random random, GameMoveLog log) {
+        BatchCatMovement cat = new BatchCatMovement(game.getBoardSize());
+        List<GameMove> moves = new ArrayList<>();
+        while (!game.isGameFinished()) {
+            HexPosition blocked = randomFreeCell(game, random);
+            if (!game.executeMove(blocked)) {
+                continue;
+            }
+            Optional<HexPosition> catMove = random.nextInt(3) == 0 ? cat.computeMove(game) : Optional.empty();
+            catMove.ifPresent(game::setCatPosition);
+            moves.add(new GameMove(game.getMoveCount(), blocked, catMove.orElse(null)));
+            if (log != null) {
+                log.appendMove(game, blocked, catMove.orElse(null));
+            }
+        }
+        return moves;
+    }
+
+    private static HexPosition randomFreeCell(HexGameState game, Random random) {
+        int size = game.getBoardSize();
+        while (true) {
+            int q = random.nextInt(2 * size - 1) - size + 1;
+            int r = random.nextInt(2 * size - 1) - size + 1;
+            HexPosition position = new HexPosition(q, r);
+            if (Math.abs(position.getS()) < size && !position.equals(game.getCatPosition())
+                    && !game.getGameBoard().isBlocked(position)) {
+                return position;
+            }
+        }
+    }
+
+    private static void assertSameState(HexGameState expected, HexGameState actual) {
+        assertEquals(expected.getCatPosition(), actual.getCatPosition());
+        assertEquals(expected.getGameBoard().getBlockedPositions(), actual.getGameBoard().getBlockedPositions());
+        assertEquals(expected.getMoveCount(), actual.getMoveCount());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getSeed(), actual.getSeed());
+    }
+}
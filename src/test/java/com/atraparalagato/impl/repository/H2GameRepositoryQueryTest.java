@@ -0,0 +1,169 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.model.GameState.GameStatus;
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de las consultas GameQuery traducidas a SQL (deben dar lo mismo que filtrar en memoria),
+ * de la paginación por clave y del cursor de stream.
+ */
+class H2GameRepositoryQueryTest {
+
+    private H2GameRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:h2:mem:query-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        repository = new H2GameRepository(url, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.cleanup();
+    }
+
+    @Test
+    void testPushedDownQueriesMatchInMemoryFiltering() {
+        Random random = new Random(11);
+        List<HexGameState> games = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            HexGameState game = new HexGameState("game-" + i, 3 + random.nextInt(5), random.nextLong());
+            repository.save(game);
+            // Movimientos registrados en el log, sin reescribir la instantánea en cada uno
+            int moves = random.nextInt(6);
+            for (int m = 0; m < moves && !game.isGameFinished(); m++) {
+                HexPosition cell = randomFreeCell(game, random);
+                game.executeMove(cell);
+                repository.appendMove(game, cell, null);
+            }
+            if (i % 4 == 0) {
+                game.setCatPosition(new HexPosition(game.getBoardSize(), 0)); // el gato escapa
+                repository.save(game);
+            }
+            games.add(game);
+        }
+
+        List<GameQuery> queries = List.of(
+                GameQuery.all(),
+                GameQuery.all().withStatus(GameStatus.PLAYER_LOST),
+                GameQuery.all().withStatus(GameStatus.IN_PROGRESS).withBoardSizeBetween(4, 6),
+                GameQuery.all().withMinScore(90),
+                GameQuery.all().withMinScore(80).orderByScoreDescending().limit(5),
+                GameQuery.all().createdAfter(LocalDateTime.now().plusDays(1)));
+
+        for (GameQuery query : queries) {
+            List<String> expected = query.select(games).stream().map(HexGameState::getGameId).toList();
+            List<String> actual = repository.findWhere(query).stream().map(HexGameState::getGameId).toList();
+            if (query.isOrderedByScoreDescending()) {
+                assertEquals(expected, actual, query.toString());
+            } else {
+                assertEquals(expected.stream().sorted().toList(), actual.stream().sorted().toList(), query.toString());
+            }
+            assertEquals(expected.size(), repository.countWhere(query), query.toString());
+        }
+    }
+
+    @Test
+    void testOpaquePredicateStillWorks() {
+        HexGameState game = new HexGameState("opaque", 5, 3L);
+        repository.save(game);
+        game.executeMove(new HexPosition(1, 0));
+        repository.appendMove(game, new HexPosition(1, 0), null);
+
+        assertEquals(1, repository.countWhere(g -> g.getMoveCount() == 1));
+        assertEquals(game.getCreatedAt().withNano(game.getCreatedAt().getNano() / 1_000_000 * 1_000_000),
+                repository.findById("opaque").orElseThrow().getCreatedAt());
+    }
+
+    @Test
+    void testKeysetPagesAndStreamVisitEveryGameOnce() {
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            HexGameState game = new HexGameState(String.format("g-%03d", i), 5, random.nextLong());
+            repository.save(game);
+            HexPosition cell = randomFreeCell(game, random);
+            game.executeMove(cell);
+            repository.appendMove(game, cell, null);
+        }
+        List<String> expected = repository.findAll().stream()
+                .sorted(Comparator.comparing(HexGameState::getCreatedAt).thenComparing(HexGameState::getGameId))
+                .map(HexGameState::getGameId)
+                .toList();
+
+        List<String> paged = new ArrayList<>();
+        HexGameState last = null;
+        List<HexGameState> page;
+        while (!(page = repository.findPageAfter(last, 37)).isEmpty()) {
+            page.forEach(game -> paged.add(game.getGameId()));
+            last = page.get(page.size() - 1);
+        }
+        assertEquals(expected, paged);
+
+        // Más streams que conexiones en el pool: cada uno debe devolver la suya al cerrarse
+        for (int i = 0; i < 10; i++) {
+            try (Stream<HexGameState> games = repository.stream(GameQuery.all())) {
+                List<HexGameState> streamed = games.toList();
+                assertEquals(expected, streamed.stream().map(HexGameState::getGameId).toList());
+                assertTrue(streamed.stream().allMatch(game -> game.getMoveCount() == 1));
+            }
+        }
+        try (Stream<HexGameState> firstTen = repository.stream(GameQuery.all())) {
+            assertEquals(expected.subList(0, 10), firstTen.limit(10).map(HexGameState::getGameId).toList());
+        }
+    }
+
+    @Test
+    void testSaveAllAndSetBasedDeleteInsideTransaction() {
+        List<HexGameState> games = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            HexGameState game = new HexGameState("bulk-" + i, 5, i);
+            if (i % 5 == 0) {
+                game.setCatPosition(new HexPosition(5, 0)); // el gato escapa
+            }
+            games.add(game);
+        }
+
+        long deleted = repository.executeInTransaction(repo -> {
+            repo.saveAll(games);
+            return repo.deleteWhere(GameQuery.all().withStatus(GameStatus.PLAYER_LOST));
+        });
+        assertEquals(10, deleted);
+        assertEquals(40, repository.countWhere(GameQuery.all()));
+
+        assertEquals(3, repository.deleteWhere(GameQuery.all().orderByScoreDescending().limit(3)));
+        assertEquals(5, repository.deleteWhere(game -> game.getGameId().endsWith("9")));
+        assertEquals(32, repository.findAll().size());
+
+        // Si la transacción falla no queda nada del lote
+        assertThrows(RuntimeException.class, () -> repository.executeInTransaction(repo -> {
+            repo.saveAll(List.of(new HexGameState("rolled-back", 5)));
+            throw new IllegalStateException("fallo");
+        }));
+        assertFalse(repository.existsById("rolled-back"));
+    }
+
+    private static HexPosition randomFreeCell(HexGameState game, Random random) {
+        int size = game.getBoardSize();
+        while (true) {
+            HexPosition position = new HexPosition(random.nextInt(2 * size - 1) - size + 1, random.nextInt(2 * size - 1) - size + 1);
+            if (Math.abs(position.getS()) < size && !position.equals(game.getCatPosition())
+                    && !game.getGameBoard().isBlocked(position)) {
+                return position;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.impl.model.HexGameState;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tamaño medio y tiempo de ida y vuelta del formato binario frente a Jackson. Mide tiempo
+ * real, así que no forma parte de los tests unitarios: se lanza a mano con
+ * -Dtest=HexGameStateCodecBenchmark.
+ */
+class HexGameStateCodecBenchmark {
+
+    @Test
+    void benchmarkAgainstJson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        List<HexGameState> games = HexGameStateCodecTest.randomGames(2000, new Random(11));
+
+        long binaryBytes = 0;
+        long jsonBytes = 0;
+        for (HexGameState game : games) {
+            binaryBytes += HexGameStateCodec.encode(game).length;
+            jsonBytes += mapper.writeValueAsString(game.getSerializableState()).length();
+        }
+
+        long binaryNanos = Long.MAX_VALUE;
+        long jsonNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (HexGameState game : games) {
+                HexGameStateCodec.decode(game.getGameId(), HexGameStateCodec.encode(game));
+            }
+            binaryNanos = Math.min(binaryNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (HexGameState game : games) {
+                String json = mapper.writeValueAsString(game.getSerializableState());
+                Map<String, Object> state = mapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+                HexGameState restored = new HexGameState(game.getGameId(), game.getBoardSize(), game.getSeed());
+                restored.restoreFromSerializable(state);
+            }
+            jsonNanos = Math.min(jsonNanos, System.nanoTime() - start);
+        }
+
+        System.out.printf("Binario: %.1f bytes/partida, %.2f us/ida y vuelta | JSON: %.1f bytes/partida, %.2f us/ida y vuelta%n",
+                (double) binaryBytes / games.size(), binaryNanos / 1e3 / games.size(),
+                (double) jsonBytes / games.size(), jsonNanos / 1e3 / games.size());
+    }
+}
@@ -0,0 +1,121 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del formato binario de HexGameState.
+ */
+class HexGameStateCodecTest {
+
+    @Test
+    void testRoundTripRestoresFullState() {
+        // Test: Partidas aleatorias de varios tamaños, codificar y decodificar
+        for (HexGameState game : randomGames(200, new Random(7))) {
+            HexGameState decoded = HexGameStateCodec.decode(game.getGameId(), HexGameStateCodec.encode(game));
+
+            assertEquals(game.getBoardSize(), decoded.getBoardSize());
+            assertEquals(game.getCatPosition(), decoded.getCatPosition());
+            assertEquals(game.getGameBoard().getBlockedPositions(), decoded.getGameBoard().getBlockedPositions());
+            assertEquals(game.getStatus(), decoded.getStatus());
+            assertEquals(game.getMoveCount(), decoded.getMoveCount());
+            assertEquals(game.getSeed(), decoded.getSeed());
+            assertEquals(game.getCreatedAt().withNano(game.getCreatedAt().getNano() / 1_000_000 * 1_000_000),
+                    decoded.getCreatedAt());
+        }
+    }
+
+    @Test
+    void testDecodedStateMatchesSerializableState() {
+        // Test: decodeState produce el mismo mapa que getSerializableState
+        HexGameState game = new HexGameState("map", 4, -99L);
+        game.executeMove(new HexPosition(2, -1));
+        game.executeMove(new HexPosition(-1, -1));
+        game.setCatPosition(new HexPosition(-1, 2));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> expected = (Map<String, Object>) game.getSerializableState();
+        Map<String, Object> decoded = HexGameStateCodec.decodeState("map", HexGameStateCodec.encode(expected));
+
+        assertEquals(expected.keySet(), decoded.keySet());
+        assertEquals(expected.get("catPosition"), decoded.get("catPosition"));
+        assertEquals(expected.get("blockedCells"), new HashSet<>((List<?>) decoded.get("blockedCells")));
+        assertEquals(expected.get("status"), decoded.get("status"));
+        assertEquals(expected.get("moveCount"), decoded.get("moveCount"));
+        assertEquals(expected.get("seed"), decoded.get("seed"));
+        assertEquals(expected.get("createdAt"), decoded.get("createdAt"));
+    }
+
+    @Test
+    void testRejectsCorruptData() {
+        byte[] data = HexGameStateCodec.encode(new HexGameState("corrupt", 5));
+
+        byte[] badHeader = data.clone();
+        badHeader[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> HexGameStateCodec.decode("corrupt", badHeader));
+
+        byte[] badVersion = data.clone();
+        badVersion[2] = 99;
+        assertThrows(IllegalArgumentException.class, () -> HexGameStateCodec.decode("corrupt", badVersion));
+
+        byte[] truncated = Arrays.copyOf(data, data.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> HexGameStateCodec.decode("corrupt", truncated));
+
+        // Tras la cabecera: boardSize (byte 3), gato q y r (4, 5), status (6), moveCount (7)
+        byte[] hugeBoard = new byte[data.length + 4];
+        System.arraycopy(data, 0, hugeBoard, 0, 3);
+        System.arraycopy(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}, 0, hugeBoard, 3, 5);
+        System.arraycopy(data, 4, hugeBoard, 8, data.length - 4);
+        assertThrows(IllegalArgumentException.class, () -> HexGameStateCodec.decode("corrupt", hugeBoard));
+
+        byte[] catOutside = data.clone();
+        catOutside[4] = 40; // q = 20 en zig-zag
+        assertThrows(IllegalArgumentException.class, () -> HexGameStateCodec.decode("corrupt", catOutside));
+
+        byte[] tooManyMoves = data.clone();
+        tooManyMoves[7] = 127; // más que las 91 celdas del tablero
+        assertThrows(IllegalArgumentException.class, () -> HexGameStateCodec.decode("corrupt", tooManyMoves));
+    }
+
+    @Test
+    void testMuchSmallerThanJson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        long binaryBytes = 0;
+        long jsonBytes = 0;
+        for (HexGameState game : randomGames(2000, new Random(11))) {
+            binaryBytes += HexGameStateCodec.encode(game).length;
+            jsonBytes += mapper.writeValueAsString(game.getSerializableState()).length();
+        }
+        assertTrue(binaryBytes * 4 < jsonBytes, "El formato binario debería ser mucho más compacto");
+    }
+
+    static List<HexGameState> randomGames(int count, Random random) {
+        List<HexGameState> games = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int boardSize = 3 + random.nextInt(6);
+            HexGameState game = new HexGameState("game-" + i, boardSize, random.nextLong());
+            int blocks = random.nextInt(3 * boardSize);
+            for (int k = 0; k < blocks && !game.isGameFinished(); k++) {
+                int q = random.nextInt(2 * boardSize - 1) - boardSize + 1;
+                int r = random.nextInt(2 * boardSize - 1) - boardSize + 1;
+                game.executeMove(new HexPosition(q, r));
+            }
+            int catQ = random.nextInt(2 * boardSize - 1) - boardSize + 1;
+            int catR = Math.max(-boardSize + 1, Math.min(boardSize - 1, -catQ + random.nextInt(3) - 1));
+            game.setCatPosition(new HexPosition(catQ, catR));
+            games.add(game);
+        }
+        return games;
+    }
+}
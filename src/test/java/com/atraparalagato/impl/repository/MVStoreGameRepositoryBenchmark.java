@@ -0,0 +1,54 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.model.HexGameState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Comparación de MVStoreGameRepository con H2GameRepository. Mide tiempo real, así que no
+ * forma parte de los tests unitarios: se lanza a mano con -Dtest=MVStoreGameRepositoryBenchmark.
+ */
+class MVStoreGameRepositoryBenchmark {
+
+    @Test
+    void benchmarkAgainstSqlRepository() {
+        // Misma mezcla de get/put/delete por gameId sobre MVStore y sobre H2 por SQL
+        int games = 2_000;
+        int operations = 50_000;
+        MVStoreGameRepository mvStore = new MVStoreGameRepository(null);
+        H2GameRepository h2 = new H2GameRepository("jdbc:h2:mem:kv-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", 4);
+        try {
+            double sqlOps = opsPerSecond(h2, games, operations);
+            double kvOps = opsPerSecond(mvStore, games, operations);
+            System.out.printf("MVStore: %.0f ops/s | H2 SQL: %.0f ops/s (x%.1f)%n", kvOps, sqlOps, kvOps / sqlOps);
+        } finally {
+            h2.cleanup();
+            mvStore.cleanup();
+        }
+    }
+
+    // 80% lecturas, 15% escrituras, 5% borrados (y la partida se vuelve a crear)
+    private static double opsPerSecond(DataRepository<HexGameState, String> store, int games, int operations) {
+        Random random = new Random(1);
+        for (int i = 0; i < games; i++) {
+            store.save(new HexGameState("g-" + i, 5, i));
+        }
+        long start = System.nanoTime();
+        for (int op = 0; op < operations; op++) {
+            String gameId = "g-" + random.nextInt(games);
+            int dice = random.nextInt(100);
+            if (dice < 80) {
+                store.findById(gameId);
+            } else if (dice < 95) {
+                store.save(new HexGameState(gameId, 5, op));
+            } else {
+                store.deleteById(gameId);
+                store.save(new HexGameState(gameId, 5, op));
+            }
+        }
+        return operations / ((System.nanoTime() - start) / 1e9);
+    }
+}
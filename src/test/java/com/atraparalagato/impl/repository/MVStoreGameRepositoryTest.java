@@ -0,0 +1,109 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.model.GameState.GameStatus;
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del repositorio clave-valor sobre MVStore.
+ */
+class MVStoreGameRepositoryTest {
+
+    private MVStoreGameRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new MVStoreGameRepository(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.cleanup();
+    }
+
+    @Test
+    void testSaveLoadAndDelete() {
+        HexGameState game = new HexGameState("kv", 5, 8L);
+        game.executeMove(new HexPosition(1, 0));
+        repository.save(game);
+
+        HexGameState loaded = repository.findById("kv").orElseThrow();
+        assertEquals(1, loaded.getMoveCount());
+        assertEquals(game.getGameBoard().getBlockedPositions(), loaded.getGameBoard().getBlockedPositions());
+        assertTrue(repository.existsById("kv"));
+
+        assertTrue(repository.deleteById("kv"));
+        assertFalse(repository.deleteById("kv"));
+        assertTrue(repository.findById("kv").isEmpty());
+        assertEquals(0, repository.countWhere(GameQuery.all().withStatus(GameStatus.IN_PROGRESS)));
+    }
+
+    @Test
+    void testIndexesFollowStatusChanges() {
+        for (int i = 0; i < 20; i++) {
+            repository.save(new HexGameState("game-" + i, 5));
+        }
+        HexGameState escaped = repository.findById("game-3").orElseThrow();
+        escaped.setCatPosition(new HexPosition(5, 0)); // el gato escapa
+        repository.save(escaped);
+
+        GameQuery lost = GameQuery.all().withStatus(GameStatus.PLAYER_LOST);
+        assertEquals(1, repository.countWhere(lost));
+        assertEquals("game-3", repository.findWhere(lost).get(0).getGameId());
+        assertEquals(19, repository.countWhere(GameQuery.all().withStatus(GameStatus.IN_PROGRESS)));
+        assertEquals(20, repository.findWhere(GameQuery.all().createdAfter(LocalDateTime.now().minusDays(1))).size());
+        assertEquals(0, repository.findWhere(GameQuery.all().createdAfter(LocalDateTime.now().plusDays(1))).size());
+
+        assertEquals(1, repository.deleteWhere(lost));
+        assertEquals(0, repository.countWhere(lost));
+    }
+
+    @Test
+    void testCustomQueryScansGameIdPrefix() {
+        for (String id : List.of("a-1", "a-2", "ab-1", "b-1")) {
+            repository.save(new HexGameState(id, 5));
+        }
+
+        assertEquals(List.of("a-1", "a-2"), repository.executeCustomQuery("a-", game -> ((HexGameState) game).getGameId()));
+        assertEquals(4, repository.executeCustomQuery("", game -> game).size());
+        assertTrue(repository.executeCustomQuery("c", game -> game).isEmpty());
+    }
+
+    @Test
+    void testFailedTransactionIsRolledBack() {
+        repository.save(new HexGameState("kept", 5));
+        repository.commit();
+
+        assertThrows(RuntimeException.class, () -> repository.executeInTransaction(repo -> {
+            repo.deleteById("kept");
+            repo.save(new HexGameState("discarded", 5));
+            throw new IllegalStateException("fallo");
+        }));
+
+        assertTrue(repository.existsById("kept"));
+        assertFalse(repository.existsById("discarded"));
+        assertEquals(1, repository.countWhere(GameQuery.all().withStatus(GameStatus.IN_PROGRESS)));
+    }
+
+    @Test
+    void testFailedTransactionKeepsEarlierUncommittedWrites() {
+        // Guardada pero aún sin commit automático: el rollback no debe llevársela
+        repository.save(new HexGameState("pending", 5));
+
+        assertThrows(RuntimeException.class, () -> repository.executeInTransaction(repo -> {
+            repo.save(new HexGameState("discarded", 5));
+            throw new IllegalStateException("fallo");
+        }));
+
+        assertTrue(repository.existsById("pending"));
+        assertFalse(repository.existsById("discarded"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.model.GameState.GameStatus;
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del repositorio de ranuras fijas en un fichero proyectado en memoria.
+ */
+class MappedGameRepositoryTest {
+
+    private Path file;
+    private MappedGameRepository repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.createTempDirectory("gato-slots").resolve("games.slots");
+        repository = new MappedGameRepository(file, 7, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.cleanup();
+    }
+
+    @Test
+    void testGamesSurviveReopening() {
+        HexGameState game = new HexGameState("slot", 5, 8L);
+        game.executeMove(new HexPosition(1, 0));
+        game.executeMove(new HexPosition(-2, 1));
+        repository.save(game);
+        repository.cleanup();
+
+        repository = new MappedGameRepository(file, 7, 4);
+        HexGameState loaded = repository.findById("slot").orElseThrow();
+        assertEquals(2, loaded.getMoveCount());
+        assertEquals(8L, loaded.getSeed());
+        assertEquals(game.getCatPosition(), loaded.getCatPosition());
+        assertEquals(game.getGameBoard().getBlockedPositions(), loaded.getGameBoard().getBlockedPositions());
+        assertEquals(game.getCreatedAt().withNano(game.getCreatedAt().getNano() / 1_000_000 * 1_000_000),
+                loaded.getCreatedAt());
+        assertThrows(IllegalArgumentException.class, () -> new MappedGameRepository(file, 9, 4));
+    }
+
+    @Test
+    void testOlderFormatVersionIsReportedAsSuch() throws Exception {
+        repository.cleanup();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 1), 4); // cabecera de la versión 1
+        }
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> new MappedGameRepository(file, 7, 4));
+        assertTrue(error.getMessage().startsWith("Unsupported game slot file format version 1"), error.getMessage());
+
+        Files.delete(file);
+        repository = new MappedGameRepository(file, 7, 4);
+    }
+
+    @Test
+    void testFileGrowsAndDeletedSlotsAreReused() {
+        for (int i = 0; i < 100; i++) {
+            repository.save(new HexGameState("game-" + i, 5));
+        }
+        assertEquals(128, repository.getMetrics().get("slots"));
+        for (int i = 0; i < 100; i += 2) {
+            assertTrue(repository.deleteById("game-" + i));
+        }
+        for (int i = 0; i < 50; i++) {
+            repository.save(new HexGameState("other-" + i, 5));
+        }
+
+        assertEquals(128, repository.getMetrics().get("slots"));
+        assertEquals(100, repository.getMetrics().get("games"));
+        assertTrue(repository.findById("game-4").isEmpty());
+        assertTrue(repository.existsById("game-5"));
+        assertTrue(repository.existsById("other-49"));
+        assertEquals(100, repository.countWhere(GameQuery.all().withStatus(GameStatus.IN_PROGRESS)));
+        assertThrows(IllegalArgumentException.class, () -> repository.save(new HexGameState("big", 8)));
+    }
+
+    @Test
+    void testFailedTransactionIsRolledBack() {
+        repository.save(new HexGameState("kept", 5));
+        HexGameState changed = new HexGameState("changed", 5);
+        repository.save(changed);
+
+        assertThrows(RuntimeException.class, () -> repository.executeInTransaction(repo -> {
+            repo.deleteById("kept");
+            changed.executeMove(new HexPosition(1, 0));
+            repo.save(changed);
+            for (int i = 0; i < 10; i++) {
+                repo.save(new HexGameState("discarded-" + i, 5));
+            }
+            throw new IllegalStateException("fallo");
+        }));
+
+        assertTrue(repository.existsById("kept"));
+        assertEquals(0, repository.findById("changed").orElseThrow().getMoveCount());
+        assertFalse(repository.existsById("discarded-0"));
+        assertEquals(2, repository.findAll().size());
+        repository.save(new HexGameState("after", 5));
+        assertEquals(3, repository.getMetrics().get("games"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap retenido por las partidas vivas como objetos y dentro de OffHeapGameArena. Depende
+ * de System.gc(), así que no forma parte de los tests unitarios: se lanza a mano con
+ * -Dtest=OffHeapGameArenaBenchmark.
+ */
+class OffHeapGameArenaBenchmark {
+
+    @Test
+    void benchmarkRetainedHeap() {
+        // Medida aproximada: heap retenido por 20.000 partidas con 10 movimientos cada una
+        int games = 20_000;
+        long baseline = usedHeap();
+        List<HexGameState> onHeap = new ArrayList<>(games);
+        for (int i = 0; i < games; i++) {
+            onHeap.add(playedGame("g-" + i));
+        }
+        long objectsHeap = usedHeap() - baseline;
+        onHeap.clear();
+
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        OffHeapGameArena arena = new OffHeapGameArena(delegate, 7, games);
+        baseline = usedHeap();
+        for (int i = 0; i < games; i++) {
+            arena.save(playedGame("g-" + i));
+            delegate.games.clear();
+        }
+        long arenaHeap = usedHeap() - baseline;
+
+        System.out.printf("Heap retenido: objetos %d KB | arena %d KB (fuera del heap %d KB)%n",
+                objectsHeap / 1024, arenaHeap / 1024, (Long) arena.getStats().get("offHeapBytes") / 1024);
+    }
+
+    private static HexGameState playedGame(String gameId) {
+        HexGameState game = new HexGameState(gameId, 5, gameId.hashCode());
+        for (int q = 1; q <= 3; q++) {
+            for (int r = -1; r <= 1; r++) {
+                game.executeMove(new HexPosition(q, r));
+            }
+        }
+        game.executeMove(new HexPosition(-1, -1));
+        return game;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
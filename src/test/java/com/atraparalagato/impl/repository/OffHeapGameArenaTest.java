@@ -0,0 +1,101 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la arena de partidas vivas fuera del heap.
+ */
+class OffHeapGameArenaTest {
+
+    @Test
+    void testEachReadIsAnIndependentCopyOfTheLiveGame() {
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        OffHeapGameArena arena = new OffHeapGameArena(delegate, 7, 100);
+        HexGameState game = new HexGameState("live", 5, 3L);
+        arena.save(game);
+        delegate.games.clear(); // a partir de aquí solo la arena la tiene
+
+        HexGameState view = arena.findById("live").orElseThrow();
+        assertNotSame(game, view);
+        view.executeMove(new HexPosition(1, 0));
+        assertEquals(0, arena.findById("live").orElseThrow().getMoveCount());
+
+        arena.appendMove(view, new HexPosition(1, 0), null);
+        HexGameState reloaded = arena.findById("live").orElseThrow();
+        assertEquals(1, reloaded.getMoveCount());
+        assertTrue(reloaded.getGameBoard().isBlocked(new HexPosition(1, 0)));
+        assertEquals(3L, reloaded.getSeed());
+        assertEquals(1, delegate.appendedMoves.get());
+        assertEquals(3L, arena.getStats().get("hits"));
+    }
+
+    @Test
+    void testFinishedAndOverflowingGamesStayOnlyInDelegate() {
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        OffHeapGameArena arena = new OffHeapGameArena(delegate, 7, 2);
+        arena.save(new HexGameState("a", 5));
+        arena.save(new HexGameState("b", 5));
+        arena.save(new HexGameState("c", 5)); // arena llena
+        arena.save(new HexGameState("big", 9)); // no cabe en una ranura
+
+        HexGameState finished = arena.findById("a").orElseThrow();
+        finished.setCatPosition(new HexPosition(5, 0)); // el gato escapa
+        arena.save(finished);
+
+        Map<String, Object> stats = arena.getStats();
+        assertEquals(1, stats.get("liveGames"));
+        assertEquals(2L, stats.get("overflows"));
+        assertEquals(4, delegate.games.size());
+        assertTrue(arena.findById("c").isPresent()); // se carga del repositorio subyacente y entra
+        assertEquals(2, arena.getStats().get("liveGames"));
+
+        assertTrue(arena.deleteById("c"));
+        assertFalse(arena.existsById("c"));
+        assertEquals(1, arena.getStats().get("liveGames"));
+    }
+
+    @Test
+    void testLiveGamesTakeOneFixedSlotPlusIndexEntry() {
+        int games = 20_000;
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        OffHeapGameArena arena = new OffHeapGameArena(delegate, 7, games);
+        for (int i = 0; i < games; i++) {
+            arena.save(playedGame("g-" + i));
+            delegate.games.clear(); // el heap no guarda ninguna partida viva
+        }
+
+        // 85 bytes de campos fijos + 22 del bitset de 169 celdas, redondeado a 8
+        int slotBytes = new GameSlotLayout(7).getSlotSize();
+        assertEquals(112, slotBytes);
+        long slabBytes = (long) (games + OffHeapGameArena.SLAB_SLOTS - 1) / OffHeapGameArena.SLAB_SLOTS
+                * OffHeapGameArena.SLAB_SLOTS * slotBytes;
+        long indexBytes = (long) new OffHeapSlotIndex(games).capacity() * 2 * Long.BYTES;
+
+        Map<String, Object> stats = arena.getStats();
+        assertEquals(games, stats.get("liveGames"));
+        assertEquals(slotBytes, stats.get("slotBytes"));
+        assertEquals(slabBytes + indexBytes, stats.get("offHeapBytes"));
+
+        HexGameState expected = playedGame("g-12345");
+        HexGameState loaded = arena.findById("g-12345").orElseThrow();
+        assertEquals(expected.getGameBoard().getBlockedPositions(), loaded.getGameBoard().getBlockedPositions());
+        assertEquals(expected.getMoveCount(), loaded.getMoveCount());
+    }
+
+    private static HexGameState playedGame(String gameId) {
+        HexGameState game = new HexGameState(gameId, 5, gameId.hashCode());
+        for (int q = 1; q <= 3; q++) {
+            for (int r = -1; r <= 1; r++) {
+                game.executeMove(new HexPosition(q, r));
+            }
+        }
+        game.executeMove(new HexPosition(-1, -1));
+        return game;
+    }
+}
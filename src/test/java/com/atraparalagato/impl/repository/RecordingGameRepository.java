@@ -0,0 +1,138 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.model.GameMove;
+import com.atraparalagato.impl.model.HexGameState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Repositorio en memoria para tests de las capas de escritura: cuenta escrituras y
+ * transacciones, y puede simular commits lentos o escrituras que fallan.
+ */
+final class RecordingGameRepository extends DataRepository<HexGameState, String> implements GameMoveLog {
+    final Map<String, HexGameState> games = new ConcurrentHashMap<>();
+    final AtomicInteger saves = new AtomicInteger();
+    final AtomicInteger appendedMoves = new AtomicInteger();
+    final AtomicInteger transactions = new AtomicInteger();
+    final AtomicBoolean failNextTransaction = new AtomicBoolean();
+    // Partidas cuyo guardado falla siempre
+    final Set<String> rejectedIds = ConcurrentHashMap.newKeySet();
+    // Duración simulada de cada commit (p. ej. un fsync)
+    volatile long commitDelayMillis;
+
+    @Override
+    public HexGameState save(HexGameState entity) {
+        if (rejectedIds.contains(entity.getGameId())) {
+            throw new IllegalArgumentException("Rejected game " + entity.getGameId());
+        }
+        saves.incrementAndGet();
+        games.put(entity.getGameId(), entity);
+        return entity;
+    }
+
+    @Override
+    public void appendMoves(HexGameState gameState, List<GameMove> moves) {
+        appendedMoves.addAndGet(moves.size());
+        games.put(gameState.getGameId(), gameState);
+    }
+
+    @Override
+    public <R> R executeInTransaction(Function<DataRepository<HexGameState, String>, R> operation) {
+        if (failNextTransaction.getAndSet(false)) {
+            throw new RuntimeException("Transaction failed");
+        }
+        transactions.incrementAndGet();
+        R result = operation.apply(this);
+        if (commitDelayMillis > 0) {
+            try {
+                Thread.sleep(commitDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<HexGameState> findById(String id) {
+        return Optional.ofNullable(games.get(id));
+    }
+
+    @Override
+    public List<GameMove> findMoves(String gameId) {
+        return List.of();
+    }
+
+    @Override
+    public Optional<HexGameState> loadAt(String gameId, int seq) {
+        return Optional.empty();
+    }
+
+    @Override
+    public List<HexGameState> findAll() {
+        return new ArrayList<>(games.values());
+    }
+
+    @Override
+    public List<HexGameState> findWhere(Predicate<HexGameState> condition) {
+        return findAll().stream().filter(condition).toList();
+    }
+
+    @Override
+    public <R> List<R> findAndTransform(Predicate<HexGameState> condition, Function<HexGameState, R> transformer) {
+        return findWhere(condition).stream().map(transformer).toList();
+    }
+
+    @Override
+    public long countWhere(Predicate<HexGameState> condition) {
+        return findWhere(condition).size();
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        return games.remove(id) != null;
+    }
+
+    @Override
+    public long deleteWhere(Predicate<HexGameState> condition) {
+        return findWhere(condition).stream().filter(game -> deleteById(game.getGameId())).count();
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return games.containsKey(id);
+    }
+
+    @Override
+    public List<HexGameState> findWithPagination(int page, int size) {
+        return findAll().stream().skip((long) page * size).limit(size).toList();
+    }
+
+    @Override
+    public List<HexGameState> findAllSorted(Function<HexGameState, ? extends Comparable<?>> sortKeyExtractor, boolean ascending) {
+        return findAll();
+    }
+
+    @Override
+    public <R> List<R> executeCustomQuery(String query, Function<Object, R> resultMapper) {
+        return List.of();
+    }
+
+    @Override
+    protected void initialize() {
+    }
+
+    @Override
+    protected void cleanup() {
+    }
+}
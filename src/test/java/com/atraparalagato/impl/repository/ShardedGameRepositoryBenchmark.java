@@ -0,0 +1,49 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.model.HexGameState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escrituras por segundo en un fichero H2 SYNC frente a 4 fragmentos. Mide tiempo real, así
+ * que no forma parte de los tests unitarios: se lanza a mano con -Dtest=ShardedGameRepositoryBenchmark.
+ */
+class ShardedGameRepositoryBenchmark {
+
+    @Test
+    void benchmarkShardedH2WriteThroughput(@TempDir Path dir) throws Exception {
+        // 8 hilos guardando en una base H2 SYNC o en 4 fragmentos SYNC
+        int threads = 8;
+        int savesPerThread = 200;
+        String url = "jdbc:h2:file:" + dir.resolve("games") + ";WRITE_DELAY=0";
+
+        H2GameRepository one = new H2GameRepository(url + "-single", threads, true);
+        List<H2GameRepository> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            files.add(new H2GameRepository(url + "-" + i, threads, true));
+        }
+        ShardedGameRepository shardedH2 = new ShardedGameRepository(files);
+        try {
+            double singleOps = throughput(one, threads, savesPerThread);
+            double shardedOps = throughput(shardedH2, threads, savesPerThread);
+            System.out.printf("H2 SYNC: 1 fichero %.0f ops/s | 4 fragmentos %.0f ops/s | skew %.2f%n",
+                    singleOps, shardedOps, shardedH2.getMetrics().get("skew"));
+        } finally {
+            shardedH2.cleanup();
+            one.cleanup();
+            files.forEach(H2GameRepository::cleanup);
+        }
+    }
+
+    private static double throughput(DataRepository<HexGameState, String> store, int threads, int savesPerThread)
+            throws Exception {
+        long start = System.nanoTime();
+        ShardedGameRepositoryTest.saveConcurrently(store, threads, savesPerThread);
+        return threads * savesPerThread / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,171 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.base.model.GameState.GameStatus;
+import com.atraparalagato.base.repository.DataRepository;
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del reparto de partidas entre fragmentos: las consultas combinadas deben dar lo
+ * mismo que un único repositorio con todas las partidas.
+ */
+class ShardedGameRepositoryTest {
+
+    private final List<MVStoreGameRepository> stores = new ArrayList<>();
+    private MVStoreGameRepository single;
+    private ShardedGameRepository sharded;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            stores.add(new MVStoreGameRepository(null));
+        }
+        single = new MVStoreGameRepository(null);
+        sharded = new ShardedGameRepository(stores);
+        for (int i = 0; i < 60; i++) {
+            HexGameState game = new HexGameState("game-" + i, 3 + i % 3, i);
+            for (int move = 0; move < i % 5; move++) {
+                game.executeMove(new HexPosition(1, move - 1));
+            }
+            if (i % 4 == 0) {
+                game.setCatPosition(new HexPosition(game.getBoardSize(), 0)); // el gato escapa
+            }
+            sharded.save(game);
+            single.save(game);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        sharded.cleanup();
+        stores.forEach(MVStoreGameRepository::cleanup);
+        single.cleanup();
+    }
+
+    @Test
+    void testGamesAreSpreadAndRoutedById() {
+        for (MVStoreGameRepository store : stores) {
+            long games = store.findAll().size();
+            assertTrue(games > 5, "Reparto desigual: " + games);
+        }
+        HexGameState game = sharded.findById("game-7").orElseThrow();
+        assertEquals(2, game.getMoveCount());
+        assertTrue(stores.get(sharded.shardOf("game-7")).existsById("game-7"));
+        assertTrue(sharded.deleteById("game-7"));
+        assertFalse(sharded.existsById("game-7"));
+    }
+
+    @Test
+    void testScatterGatherMatchesSingleRepository() {
+        List<GameQuery> queries = List.of(
+                GameQuery.all(),
+                GameQuery.all().withStatus(GameStatus.PLAYER_LOST),
+                GameQuery.all().withStatus(GameStatus.IN_PROGRESS).orderByScoreDescending().limit(7),
+                GameQuery.all().withBoardSizeBetween(4, 5).withMinScore(90).orderByScoreDescending().limit(5));
+        for (GameQuery query : queries) {
+            List<String> expected = ids(single.findWhere(query));
+            List<String> actual = ids(sharded.findWhere(query));
+            if (!query.isOrderedByScoreDescending()) { // sin orden pedido, solo importa el conjunto
+                expected.sort(null);
+                actual.sort(null);
+            }
+            assertEquals(expected, actual, query.toString());
+            assertEquals(single.countWhere(query), sharded.countWhere(query), query.toString());
+        }
+
+        for (int page = 0; page < 5; page++) {
+            assertEquals(ids(single.findWithPagination(page, 13)), ids(sharded.findWithPagination(page, 13)));
+        }
+        assertEquals(ids(single.findAllSorted(HexGameState::getMoveCount, false)).size(),
+                sharded.findAllSorted(HexGameState::getMoveCount, false).size());
+
+        GameQuery worst = GameQuery.all().orderByScoreDescending().limit(10);
+        List<String> expected = ids(single.findWhere(worst));
+        assertEquals(10, sharded.deleteWhere(worst));
+        expected.forEach(id -> assertFalse(sharded.existsById(id)));
+        GameQuery lost = GameQuery.all().withStatus(GameStatus.PLAYER_LOST);
+        long lostLeft = single.findWhere(lost).stream().filter(game -> !expected.contains(game.getGameId())).count();
+        assertEquals(lostLeft, sharded.deleteWhere(lost));
+        assertEquals(0, sharded.countWhere(lost));
+
+        Map<String, Object> metrics = sharded.getMetrics();
+        assertEquals(4, ((List<?>) metrics.get("shards")).size());
+        assertTrue((Double) metrics.get("skew") >= 1.0);
+    }
+
+    @Test
+    void testPagesBeyondIntRangeAreEmpty() {
+        // (page + 1) * size no cabe en un int: antes daba la vuelta y devolvía la primera página
+        assertTrue(sharded.findWithPagination(1 << 20, 1 << 12).isEmpty());
+        assertTrue(sharded.findWithPagination(Integer.MAX_VALUE, Integer.MAX_VALUE).isEmpty());
+        assertEquals(ids(single.findWithPagination(0, Integer.MAX_VALUE)), ids(sharded.findWithPagination(0, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void testConcurrentWritesToShardedH2Files(@TempDir Path dir) throws Exception {
+        // 8 hilos guardando en 4 ficheros H2 SYNC
+        int threads = 8;
+        int savesPerThread = 50;
+        List<H2GameRepository> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            files.add(new H2GameRepository("jdbc:h2:file:" + dir.resolve("games-" + i) + ";WRITE_DELAY=0", threads, true));
+        }
+        ShardedGameRepository shardedH2 = new ShardedGameRepository(files);
+        try {
+            saveConcurrently(shardedH2, threads, savesPerThread);
+
+            assertEquals(threads * savesPerThread, shardedH2.countWhere(GameQuery.all()));
+            for (int i = 0; i < files.size(); i++) {
+                H2GameRepository file = files.get(i);
+                List<HexGameState> games = file.findAll();
+                assertFalse(games.isEmpty(), "Fragmento vacío: " + i);
+                int shard = i;
+                games.forEach(game -> assertEquals(shard, shardedH2.shardOf(game.getGameId()), game.getGameId()));
+            }
+            assertTrue(shardedH2.findById("g-3-7").isPresent());
+        } finally {
+            shardedH2.cleanup();
+            files.forEach(H2GameRepository::cleanup);
+        }
+    }
+
+    static void saveConcurrently(DataRepository<HexGameState, String> store, int threads, int savesPerThread)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < savesPerThread; i++) {
+                        store.save(new HexGameState("g-" + thread + "-" + i, 5));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<String> ids(List<HexGameState> games) {
+        return games.stream().map(HexGameState::getGameId).collect(Collectors.toList());
+    }
+}
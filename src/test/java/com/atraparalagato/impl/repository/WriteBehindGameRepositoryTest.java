@@ -0,0 +1,106 @@
+package com.atraparalagato.impl.repository;
+
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la capa write-behind sobre un repositorio en memoria que cuenta las escrituras.
+ */
+class WriteBehindGameRepositoryTest {
+
+    private WriteBehindGameRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.shutdown();
+        }
+    }
+
+    @Test
+    void testMovesStayInMemoryUntilFlush() {
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        repository = new WriteBehindGameRepository(delegate, 60_000, 1000);
+
+        HexGameState game = new HexGameState("hot", 5, 1L);
+        repository.save(game);
+        for (HexPosition cell : List.of(new HexPosition(1, 0), new HexPosition(0, 2), new HexPosition(-1, -1))) {
+            game.executeMove(cell);
+            repository.appendMove(game, cell, null);
+        }
+
+        assertEquals(0, delegate.saves.get() + delegate.appendedMoves.get());
+        HexGameState loaded = repository.findById("hot").orElseThrow();
+        assertEquals(3, loaded.getMoveCount());
+        assertEquals(game.getGameBoard().getBlockedPositions(), loaded.getGameBoard().getBlockedPositions());
+        assertNotSame(loaded, repository.findById("hot").orElseThrow());
+
+        assertEquals(1, repository.flush());
+        assertEquals(1, delegate.saves.get());
+        assertEquals(3, delegate.appendedMoves.get());
+        assertEquals(1, delegate.transactions.get());
+        assertEquals(0, repository.flush());
+
+        Map<String, Object> metrics = repository.getMetrics();
+        assertEquals(0, metrics.get("dirtyGames"));
+        assertEquals(1L, metrics.get("flushedGames"));
+    }
+
+    @Test
+    void testFinishedGameIsFlushedImmediately() {
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        repository = new WriteBehindGameRepository(delegate, 60_000, 1000);
+
+        HexGameState game = new HexGameState("ending", 5, 1L);
+        repository.save(game);
+        game.setCatPosition(new HexPosition(5, 0)); // el gato llega al borde
+        repository.save(game);
+
+        assertTrue(game.isGameFinished());
+        assertEquals(HexGameState.GameStatus.PLAYER_LOST, delegate.games.get("ending").getStatus());
+        assertEquals(0, repository.getMetrics().get("dirtyGames"));
+    }
+
+    @Test
+    void testBatchSizeTriggersBackgroundFlush() throws Exception {
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        repository = new WriteBehindGameRepository(delegate, 60_000, 8);
+
+        for (int i = 0; i < 8; i++) {
+            repository.save(new HexGameState("game-" + i, 5));
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (delegate.games.size() < 8 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(8, delegate.games.size());
+        assertEquals(1, delegate.transactions.get());
+    }
+
+    @Test
+    void testFailedFlushIsRetried() {
+        RecordingGameRepository delegate = new RecordingGameRepository();
+        repository = new WriteBehindGameRepository(delegate, 60_000, 1000);
+
+        HexGameState game = new HexGameState("retry", 5, 1L);
+        repository.save(game);
+        game.executeMove(new HexPosition(2, -1));
+        repository.appendMove(game, new HexPosition(2, -1), null);
+
+        delegate.failNextTransaction.set(true);
+        assertThrows(RuntimeException.class, () -> repository.flush());
+        assertEquals(1, repository.getMetrics().get("dirtyGames"));
+
+        assertEquals(1, repository.flush());
+        assertEquals(1, delegate.games.get("retry").getMoveCount());
+        assertEquals(1, delegate.appendedMoves.get());
+    }
+}
@@ -0,0 +1,133 @@
+package com.atraparalagato.impl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de los bucles de eventos dueños de las partidas.
+ */
+class GameEventLoopsTest {
+
+    @Test
+    void testEachGameRunsOnItsOwnLoop() throws Exception {
+        int threads = 8;
+        int operations = 20_000;
+        int[] movesPerGame = new int[16]; // sin sincronizar: solo el bucle dueño los toca
+        try (GameEventLoops loops = new GameEventLoops(4)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    results.add(executor.submit(() -> {
+                        for (int i = 0; i < operations; i++) {
+                            int game = (thread + i) % movesPerGame.length;
+                            String expectedLoop = "game-loop-" + loops.loopOf("game-" + game);
+                            loops.execute("game-" + game, () -> {
+                                assertEquals(expectedLoop, Thread.currentThread().getName());
+                                // Reentrante: desde el propio bucle se ejecuta en el momento
+                                return loops.execute("game-" + game, () -> movesPerGame[game]++);
+                            });
+                        }
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            int total = 0;
+            for (int moves : movesPerGame) {
+                total += moves;
+            }
+            assertEquals(threads * operations, total);
+            assertEquals((long) threads * operations, loops.getStats().get("executed"));
+        }
+    }
+
+    @Test
+    void testGroupsFollowLoopsAndErrorsReachTheCaller() {
+        try (GameEventLoops loops = new GameEventLoops(3)) {
+            List<String> gameIds = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                gameIds.add("g-" + i);
+            }
+            List<List<String>> groups = loops.executeGrouped(gameIds, group -> {
+                String loop = Thread.currentThread().getName();
+                group.forEach(gameId -> assertEquals("game-loop-" + loops.loopOf(gameId), loop));
+                return group;
+            });
+            assertEquals(30, groups.stream().mapToInt(List::size).sum());
+            assertTrue(groups.size() <= 3);
+
+            IllegalStateException error = assertThrows(IllegalStateException.class,
+                    () -> loops.execute("g-0", () -> {
+                        throw new IllegalStateException("boom");
+                    }));
+            assertEquals("boom", error.getMessage());
+            Map<String, Object> stats = loops.getStats();
+            assertEquals(3, stats.get("loops"));
+        }
+    }
+
+    @Test
+    void testGroupedFromLoopRejectsOtherLoops() {
+        try (GameEventLoops loops = new GameEventLoops(2)) {
+            String local = "g-0";
+            String other = "g-1";
+            for (int i = 1; loops.loopOf(other) == loops.loopOf(local); i++) {
+                other = "g-" + i;
+            }
+            List<String> batch = List.of(local, other);
+            // Desde el bucle de g-0: su propio grupo se ejecuta en el momento, otro bucle se rechaza
+            assertEquals(List.of(List.of(local)),
+                    loops.execute(local, () -> loops.executeGrouped(List.of(local), group -> group)));
+            assertThrows(IllegalStateException.class,
+                    () -> loops.execute(local, () -> loops.executeGrouped(batch, group -> group)));
+        }
+    }
+
+    @Test
+    void testCloseFailsPendingOperationsInsteadOfHanging() throws Exception {
+        GameEventLoops loops = new GameEventLoops(2);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    // Hasta que el cierre las rechace; ninguna se queda esperando para siempre
+                    for (int i = 0; ; i++) {
+                        try {
+                            loops.execute("game-" + (thread + i) % 16, () -> null);
+                        } catch (IllegalStateException e) {
+                            return;
+                        }
+                    }
+                }));
+            }
+            Thread.sleep(50);
+            loops.close();
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThrows(IllegalStateException.class, () -> loops.execute("game-0", () -> null));
+        assertEquals(0, loops.getStats().get("queued"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.atraparalagato.impl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de los identificadores de partida ordenados por tiempo.
+ */
+class GameIdGeneratorTest {
+
+    @Test
+    void testIdsAreIncreasingAndUniqueAcrossThreads() throws Exception {
+        GameIdGenerator generator = new GameIdGenerator(5);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                long[] ids = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+        List<Long> all = new ArrayList<>();
+        for (Future<long[]> result : results) {
+            long[] ids = result.get();
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(i == 0 || ids[i] > ids[i - 1], "Cada hilo debe ver identificadores crecientes");
+                all.add(ids[i]);
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(threads * perThread, all.stream().distinct().count());
+        long id = all.get(0);
+        assertEquals(5, GameIdGenerator.nodeOf(id));
+        assertTrue(Math.abs(GameIdGenerator.timestampOf(id) - System.currentTimeMillis()) < 60_000);
+    }
+
+    @Test
+    void testEncodingIsCompactAndKeepsOrder() {
+        GameIdGenerator generator = new GameIdGenerator(1023);
+        String previous = generator.get();
+        for (int i = 0; i < 10_000; i++) {
+            String next = generator.get();
+            assertEquals(13, next.length());
+            assertTrue(next.compareTo(previous) > 0, previous + " >= " + next);
+            previous = next;
+        }
+
+        for (long id : new long[] {0L, 1L, 42L, Long.MAX_VALUE, -1L}) {
+            assertEquals(id, GameIdGenerator.decode(GameIdGenerator.encode(id)));
+        }
+        assertEquals(GameIdGenerator.decode(previous), GameIdGenerator.decode(previous.toLowerCase()));
+        assertTrue(GameIdGenerator.encode(Long.MAX_VALUE).compareTo(GameIdGenerator.encode(-1L)) < 0);
+        assertThrows(IllegalArgumentException.class, () -> GameIdGenerator.decode("not-an-id"));
+        assertThrows(IllegalArgumentException.class, () -> new GameIdGenerator(1024));
+    }
+
+    @Test
+    void testSharedGeneratorIsOnePerProcess() {
+        // Dos servicios con generadores propios repetirían secuencia en el mismo milisegundo
+        assertSame(GameIdGenerator.shared(), GameIdGenerator.shared());
+        String first = GameIdGenerator.shared().get();
+        assertNotEquals(first, GameIdGenerator.shared().get());
+    }
+}
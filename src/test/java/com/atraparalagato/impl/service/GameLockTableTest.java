@@ -0,0 +1,63 @@
+package com.atraparalagato.impl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la tabla de bloqueos por partida.
+ */
+class GameLockTableTest {
+
+    @Test
+    void testOperationsOnOneGameAreSerialised() throws Exception {
+        GameLockTable locks = new GameLockTable(64);
+        int threads = 8;
+        int operations = 20_000;
+        int[] movesPerGame = new int[4]; // sin sincronizar: solo el bloqueo de la partida lo protege
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < operations; i++) {
+                        int game = (thread + i) % movesPerGame.length;
+                        if (i % 10 == 0) {
+                            // Lote con dos partidas en orden cualquiera: no debe interbloquearse
+                            List<String> batch = thread % 2 == 0
+                                    ? List.of("game-0", "game-" + game) : List.of("game-" + game, "game-0");
+                            locks.withLocks(batch, () -> movesPerGame[0]++);
+                        } else {
+                            locks.withLock("game-" + game, () -> movesPerGame[game]++);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int total = 0;
+        for (int moves : movesPerGame) {
+            total += moves;
+        }
+        assertEquals(threads * operations, total);
+
+        Map<String, Object> stats = locks.getStats();
+        assertEquals(64, stats.get("stripes"));
+        assertTrue((Long) stats.get("acquisitions") >= threads * operations);
+        assertFalse(((List<?>) stats.get("hotStripes")).isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+package com.atraparalagato.impl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del ranking que se mantiene al terminar las partidas.
+ */
+class LeaderboardTest {
+
+    @Test
+    void testReRecordingReplacesAndRemoveDrops() {
+        Leaderboard leaderboard = new Leaderboard(10);
+        leaderboard.record(entry("a", 300));
+        leaderboard.record(entry("b", 500));
+        leaderboard.record(entry("a", 900)); // la misma partida vuelve a terminar
+
+        List<Leaderboard.Entry> top = leaderboard.top(5);
+        assertEquals(List.of("a", "b"), top.stream().map(Leaderboard.Entry::gameId).toList());
+        assertEquals(900, top.get(0).score());
+        assertEquals(2, leaderboard.size());
+
+        leaderboard.remove("a");
+        assertEquals(List.of("b"), leaderboard.top(5).stream().map(Leaderboard.Entry::gameId).toList());
+        assertEquals(1, leaderboard.size());
+    }
+
+    @Test
+    void testConcurrentCompletionsKeepTheBestEntries() throws Exception {
+        int capacity = 100;
+        int threads = 8;
+        int gamesPerThread = 5_000;
+        Leaderboard leaderboard = new Leaderboard(capacity);
+        List<Leaderboard.Entry> all = new ArrayList<>();
+        for (int i = 0; i < threads * gamesPerThread; i++) {
+            all.add(entry(String.format("g-%06d", i), (int) ((i * 7919L) % 20_000)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                List<Leaderboard.Entry> slice = all.subList(t * gamesPerThread, (t + 1) * gamesPerThread);
+                results.add(executor.submit(() -> slice.forEach(leaderboard::record)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<String> expected = all.stream()
+                .sorted(Comparator.comparingInt(Leaderboard.Entry::score).reversed().thenComparing(Leaderboard.Entry::gameId))
+                .limit(capacity)
+                .map(Leaderboard.Entry::gameId)
+                .toList();
+        assertEquals(expected, leaderboard.top(capacity).stream().map(Leaderboard.Entry::gameId).toList());
+        assertEquals(capacity, leaderboard.size());
+    }
+
+    @Test
+    void testConcurrentReRecordsAndRemovesKeepSizeInStep() throws Exception {
+        int capacity = 20;
+        int threads = 8;
+        Leaderboard leaderboard = new Leaderboard(capacity);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    // Pocas partidas compartidas entre hilos: la misma partida se registra y se quita a la vez
+                    for (int i = 0; i < 20_000; i++) {
+                        String gameId = "g-" + (i * 31 + thread) % 40;
+                        if (i % 5 == 0) {
+                            leaderboard.remove(gameId);
+                        } else {
+                            leaderboard.record(entry(gameId, (i * 7919 + thread) % 1_000));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Leaderboard.Entry> top = leaderboard.top(Integer.MAX_VALUE);
+        assertEquals(top.size(), leaderboard.size());
+        assertTrue(top.size() <= capacity);
+        assertEquals(top.size(), top.stream().map(Leaderboard.Entry::gameId).distinct().count());
+    }
+
+    private static Leaderboard.Entry entry(String gameId, int score) {
+        return new Leaderboard.Entry(gameId, score, true, 5, 5, LocalDateTime.now(), 30);
+    }
+}
@@ -0,0 +1,68 @@
+package com.atraparalagato.impl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de las estadísticas de jugadores que se mantienen al terminar las partidas.
+ */
+class PlayerStatisticsTest {
+
+    @Test
+    void testAggregatesMatchExactValues() {
+        PlayerStatistics statistics = new PlayerStatistics();
+        int players = 20_000;
+        double sum = 0;
+        double sumSquares = 0;
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < players; i++) {
+            int score = random.nextInt(1500);
+            statistics.record("player-" + i, score, score > 750, 60);
+            sum += score;
+            sumSquares += (double) score * score;
+        }
+        statistics.record("player-0", 1200, true, 120);
+
+        Map<String, Object> player = statistics.getPlayerStats("player-0");
+        assertEquals(2L, player.get("gamesPlayed"));
+        assertEquals(1L, player.get("activeDays"));
+        assertEquals(90.0, (Double) player.get("averageDurationSeconds"), 1e-9);
+
+        Map<String, Object> global = statistics.getGlobalStats();
+        sum += 1200;
+        sumSquares += 1200.0 * 1200;
+        long games = players + 1;
+        double mean = sum / games;
+        double stdDev = Math.sqrt((sumSquares - games * mean * mean) / (games - 1));
+        assertEquals(games, global.get("gamesPlayed"));
+        assertEquals(mean, (Double) global.get("averageScore"), 1e-6);
+        assertEquals(stdDev, (Double) global.get("scoreStdDev"), 1e-6);
+        assertEquals(750, (Long) global.get("scoreP50"), 750 * 0.07);
+        long distinct = (Long) global.get("distinctPlayers");
+        assertTrue(Math.abs(distinct - players) < players * 0.03, "jugadores distintos estimados: " + distinct);
+
+        Map<String, Object> unknown = statistics.getPlayerStats("nobody");
+        assertEquals(0L, unknown.get("gamesPlayed"));
+    }
+
+    @Test
+    void testCheckpointRestoresStatistics() throws Exception {
+        Path file = Files.createTempDirectory("gato-stats").resolve("player-stats.bin");
+        PlayerStatistics statistics = new PlayerStatistics(file, 60_000);
+        statistics.record("ana", 900, true, 40);
+        statistics.record("ana", 100, false, 20);
+        statistics.record("luis", 500, true, 30);
+        statistics.shutdown();
+
+        PlayerStatistics restored = new PlayerStatistics(file, 60_000);
+        assertEquals(statistics.getPlayerStats("ana"), restored.getPlayerStats("ana"));
+        assertEquals(statistics.getGlobalStats(), restored.getGlobalStats());
+        restored.shutdown();
+    }
+}
@@ -0,0 +1,58 @@
+package com.atraparalagato.impl.service;
+
+import com.atraparalagato.impl.model.HexTopology;
+import com.atraparalagato.impl.model.PuzzleDifficulty;
+import com.atraparalagato.impl.model.PuzzleLayout;
+import com.atraparalagato.impl.strategy.EscapeAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del generador de tableros: reproducible por semilla y sin tableros triviales ni imposibles.
+ */
+class PuzzleGeneratorTest {
+
+    private static final int BOARD_SIZE = 7;
+
+    @Test
+    void testSameSeedSameLayout() {
+        PuzzleGenerator generator = new PuzzleGenerator(BOARD_SIZE);
+        for (PuzzleDifficulty difficulty : PuzzleDifficulty.values()) {
+            PuzzleLayout first = generator.generate(difficulty, 1234L);
+            PuzzleLayout again = new PuzzleGenerator(BOARD_SIZE).generate(difficulty, 1234L);
+
+            assertEquals(first.getBlockedCells(), again.getBlockedCells());
+            assertEquals(first.getMinCut(), again.getMinCut());
+            assertEquals(first.getEscapeDistance(), again.getEscapeDistance());
+            assertEquals(1234L, first.getSeed());
+        }
+    }
+
+    @Test
+    void testEveryLayoutIsSolvableAndMatchesItsDifficulty() {
+        PuzzleGenerator generator = new PuzzleGenerator(BOARD_SIZE);
+        EscapeAnalyzer analyzer = new EscapeAnalyzer(BOARD_SIZE);
+        int catIndex = HexTopology.of(BOARD_SIZE).indexOf(0, 0);
+
+        for (PuzzleDifficulty difficulty : PuzzleDifficulty.values()) {
+            for (long seed = 0; seed < 100; seed++) {
+                PuzzleLayout layout = generator.generate(difficulty, seed);
+                long[] mask = analyzer.toMask(layout.getBlockedCells());
+                int escapeDistance = analyzer.escapeDistance(mask, catIndex);
+                int minCut = analyzer.minCut(mask, catIndex);
+                String label = difficulty + "/" + seed;
+
+                // Las métricas guardadas son las del tablero entregado
+                assertEquals(escapeDistance, layout.getEscapeDistance(), label);
+                assertEquals(minCut, layout.getMinCut(), label);
+                // Ni trivial (se gana en un movimiento o el gato ya está encerrado) ni imposible
+                assertTrue(escapeDistance != EscapeAnalyzer.UNREACHABLE, label + ": gato encerrado");
+                assertTrue(minCut > 1, label + ": corte mínimo " + minCut);
+                assertTrue(minCut <= escapeDistance, label + ": corte " + minCut + " > distancia " + escapeDistance);
+                assertTrue(difficulty.accepts(minCut, escapeDistance), label);
+                assertFalse(layout.getBlockedCells().stream().anyMatch(cell -> cell.getQ() == 0 && cell.getR() == 0), label);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.atraparalagato.impl.service;
+
+import com.atraparalagato.impl.model.PuzzleDifficulty;
+import com.atraparalagato.impl.model.PuzzleLayout;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la reserva de tableros: capacidad, entrega única y reproducibilidad por semilla base.
+ */
+class PuzzlePoolTest {
+
+    private static final int CAPACITY = 8;
+
+    @Test
+    void testWarmUpFillsAndTakeHandsOutEachLayoutOnce() {
+        PuzzlePool pool = new PuzzlePool(CAPACITY, 99L);
+        try {
+            pool.warmUp(7, PuzzleDifficulty.MEDIUM);
+            assertEquals(CAPACITY, pool.available(7, PuzzleDifficulty.MEDIUM));
+            assertEquals(0, pool.available(7, PuzzleDifficulty.HARD));
+
+            Set<Long> seeds = new HashSet<>();
+            for (int i = 0; i < CAPACITY / 2; i++) {
+                PuzzleLayout layout = pool.take(7, PuzzleDifficulty.MEDIUM);
+                assertEquals(PuzzleDifficulty.MEDIUM, layout.getDifficulty());
+                assertEquals(7, layout.getBoardSize());
+                assertTrue(seeds.add(layout.getSeed()), "Tablero entregado dos veces");
+            }
+            assertEquals(CAPACITY / 2, pool.available(7, PuzzleDifficulty.MEDIUM));
+
+            // Sin reserva, el tablero se genera en el momento
+            PuzzleLayout inline = pool.take(7, PuzzleDifficulty.HARD);
+            assertEquals(PuzzleDifficulty.HARD, inline.getDifficulty());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSameBaseSeedSameLayouts() {
+        assertEquals(takeWarm(99L), takeWarm(99L));
+        assertNotEquals(takeWarm(99L), takeWarm(100L));
+    }
+
+    // Sin bajar de la mitad de la capacidad no se rellena en segundo plano: el orden es determinista
+    private static List<List<?>> takeWarm(long baseSeed) {
+        PuzzlePool pool = new PuzzlePool(CAPACITY, baseSeed);
+        try {
+            pool.warmUp(7, PuzzleDifficulty.EASY);
+            List<List<?>> layouts = new ArrayList<>();
+            for (int i = 0; i < CAPACITY / 2; i++) {
+                layouts.add(pool.take(7, PuzzleDifficulty.EASY).getBlockedCells());
+            }
+            return layouts;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
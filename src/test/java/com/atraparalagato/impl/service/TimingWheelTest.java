@@ -0,0 +1,67 @@
+package com.atraparalagato.impl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la rueda de temporizadores de los plazos de partida.
+ */
+class TimingWheelTest {
+
+    // Rueda pequeña: los plazos de más de 80 ms necesitan varias vueltas
+    private final TimingWheel wheel = new TimingWheel(10, 8, Runnable::run);
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    @Test
+    void testTimersFireAfterTheirDelayAcrossRounds() throws Exception {
+        CountDownLatch fired = new CountDownLatch(2);
+        long start = System.nanoTime();
+        long[] elapsedMillis = new long[2];
+        wheel.schedule(() -> {
+            elapsedMillis[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            fired.countDown();
+        }, 30);
+        TimingWheel.Timeout late = wheel.schedule(() -> {
+            elapsedMillis[1] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            fired.countDown();
+        }, 250);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(elapsedMillis[0] >= 30, "vencido a los " + elapsedMillis[0] + " ms");
+        assertTrue(elapsedMillis[1] >= 250, "vencido a los " + elapsedMillis[1] + " ms");
+        assertTrue(late.isExpired());
+        assertFalse(late.cancel());
+    }
+
+    @Test
+    void testCancelledTimersNeverFire() throws Exception {
+        int timers = 200_000;
+        AtomicInteger fired = new AtomicInteger();
+        List<TimingWheel.Timeout> scheduled = new ArrayList<>(timers);
+        for (int i = 0; i < timers; i++) {
+            scheduled.add(wheel.schedule(fired::incrementAndGet, 300 + i % 200));
+        }
+        for (int i = 0; i < timers; i += 2) {
+            assertTrue(scheduled.get(i).cancel());
+        }
+        CountDownLatch last = new CountDownLatch(1);
+        wheel.schedule(last::countDown, 700);
+
+        assertTrue(last.await(5, TimeUnit.SECONDS));
+        assertEquals(timers / 2, fired.get());
+        assertEquals(0L, wheel.getStats().get("pending"));
+        assertEquals((long) timers / 2, wheel.getStats().get("cancelled"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.atraparalagato.impl.simulation;
+
+import com.atraparalagato.example.strategy.SimpleCatMovement;
+import com.atraparalagato.impl.strategy.FastBFSCatMovement;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del motor de simulación: reproducible con la misma semilla, con cualquier número de hilos.
+ */
+class SimulationEngineTest {
+
+    @Test
+    void testSameSeedSameReportWithAnyParallelism() {
+        SimulationReport single = runWith(1, 42);
+        SimulationReport parallel = runWith(4, 42);
+
+        assertEquals(1_000, single.getGames());
+        assertEquals(single.getGames(), single.getPlayerWins() + single.getPlayerLosses() + single.getUnfinished());
+        assertEquals(single.getPlayerWins(), parallel.getPlayerWins());
+        assertEquals(single.getPlayerLosses(), parallel.getPlayerLosses());
+        assertEquals(single.getUnfinished(), parallel.getUnfinished());
+        assertEquals(single.getMeanMoves(), parallel.getMeanMoves());
+    }
+
+    @Test
+    void testPlayGameReproducesAGameOfTheSimulation() {
+        for (long gameIndex = 0; gameIndex < 50; gameIndex++) {
+            SimulationEngine.GameResult first = SimulationEngine.playGame(5, 7, gameIndex,
+                    BlockerPolicy.randomCell(), gameState -> new SimpleCatMovement(gameState.getGameBoard(), gameState.newMoveRandom()), 100);
+            SimulationEngine.GameResult replay = SimulationEngine.playGame(5, 7, gameIndex,
+                    BlockerPolicy.randomCell(), gameState -> new SimpleCatMovement(gameState.getGameBoard(), gameState.newMoveRandom()), 100);
+
+            assertEquals(first.getOutcome(), replay.getOutcome());
+            assertEquals(first.getMoves(), replay.getMoves());
+        }
+    }
+
+    @Test
+    void testMaxMovesLeavesGamesUnfinished() {
+        SimulationReport report = new SimulationEngine().run(5, 100, 3, BlockerPolicy.randomCell(),
+                gameState -> new FastBFSCatMovement(gameState.getGameBoard()), 1);
+
+        assertEquals(100, report.getGames());
+        assertTrue(report.getMeanMoves() <= 1.0);
+        assertEquals(100, report.getPlayerWins() + report.getPlayerLosses() + report.getUnfinished());
+    }
+
+    private static SimulationReport runWith(int threads, long seed) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return new SimulationEngine(pool).run(5, 1_000, seed, BlockerPolicy.adjacentToCat(),
+                    gameState -> new FastBFSCatMovement(gameState.getGameBoard()), 100);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
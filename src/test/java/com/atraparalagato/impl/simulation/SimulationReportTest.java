@@ -0,0 +1,52 @@
+package com.atraparalagato.impl.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del reporte agregado de una simulación.
+ */
+class SimulationReportTest {
+
+    @Test
+    void testMergeAddsUpPartialReports() {
+        SimulationReport left = new SimulationReport();
+        left.recordGame(SimulationEngine.GameOutcome.PLAYER_WON, 4, 1_000);
+        left.recordGame(SimulationEngine.GameOutcome.PLAYER_LOST, 6, 2_000);
+        SimulationReport right = new SimulationReport();
+        right.recordGame(SimulationEngine.GameOutcome.PLAYER_WON, 8, 3_000);
+        right.recordGame(SimulationEngine.GameOutcome.UNFINISHED, 2, 4_000);
+
+        SimulationReport report = left.merge(right);
+
+        assertSame(left, report);
+        assertEquals(4, report.getGames());
+        assertEquals(2, report.getPlayerWins());
+        assertEquals(1, report.getPlayerLosses());
+        assertEquals(1, report.getUnfinished());
+        assertEquals(50.0, report.getWinRate(), 1e-9);
+        assertEquals(5.0, report.getMeanMoves(), 1e-9);
+        assertEquals(4_000, report.getLatencyPercentileNanos(100));
+    }
+
+    @Test
+    void testEmptyReportAndThroughput() {
+        SimulationReport report = new SimulationReport();
+        assertEquals(0.0, report.getWinRate());
+        assertEquals(0.0, report.getMeanMoves());
+        assertEquals(0.0, report.getGamesPerSecond());
+
+        report.recordGame(SimulationEngine.GameOutcome.PLAYER_WON, 3, 500);
+        report.recordGame(SimulationEngine.GameOutcome.PLAYER_WON, 3, 500);
+        report.setElapsedNanos(1_000_000_000L);
+        assertEquals(2.0, report.getGamesPerSecond(), 1e-9);
+
+        Map<String, Object> map = report.toMap();
+        assertEquals(2L, map.get("games"));
+        assertEquals(2L, map.get("playerWins"));
+        assertEquals(1_000L, map.get("elapsedMillis"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.atraparalagato.impl.strategy;
+
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del motor por lotes: debe elegir el mismo movimiento que BFSCatMovement.
+ */
+class BatchCatMovementTest {
+    
+    @Test
+    void testSameMovesAsBfsStrategy() {
+        // Test: Tableros aleatorios, comparando con la estrategia BFS juego por juego
+        Random random = new Random(42);
+        int boardSize = 5;
+        List<HexGameState> games = new ArrayList<>();
+        
+        for (int i = 0; i < 300; i++) {
+            HexGameState gameState = new HexGameState("game-" + i, boardSize);
+            int blocks = random.nextInt(20);
+            for (int k = 0; k < blocks; k++) {
+                int q = random.nextInt(2 * boardSize - 1) - boardSize + 1;
+                int r = random.nextInt(2 * boardSize - 1) - boardSize + 1;
+                gameState.executeMove(new HexPosition(q, r));
+            }
+            if (!gameState.isGameFinished()) {
+                games.add(gameState);
+            }
+        }
+        
+        List<Optional<HexPosition>> moves = new BatchCatMovement(boardSize).computeMoves(games);
+        
+        assertEquals(games.size(), moves.size());
+        for (int i = 0; i < games.size(); i++) {
+            HexGameState gameState = games.get(i);
+            BFSCatMovement bfs = new BFSCatMovement(gameState.getGameBoard());
+            Optional<HexPosition> expected = bfs.findBestMove(gameState.getCatPosition(), new HexPosition(boardSize, 0));
+            assertEquals(expected, moves.get(i), "Movimiento distinto en " + gameState.getGameId());
+        }
+    }
+    
+    @Test
+    void testTrappedCatHasNoMove() {
+        // Test: Gato rodeado en el centro no puede moverse
+        HexGameState gameState = new HexGameState("trapped", 5);
+        int[][] ring = {{1, 0}, {1, -1}, {0, -1}, {-1, 0}, {-1, 1}, {0, 1}};
+        for (int[] cell : ring) {
+            gameState.getGameBoard().makeMove(new HexPosition(cell[0], cell[1]));
+        }
+        
+        assertEquals(Optional.empty(), new BatchCatMovement(5).computeMove(gameState));
+    }
+    
+    @Test
+    void testRejectsMixedBoardSizes() {
+        // Test: Un lote solo admite juegos del mismo tamaño
+        List<HexGameState> games = List.of(new HexGameState("a", 5), new HexGameState("b", 7));
+        
+        assertThrows(IllegalArgumentException.class, () -> new BatchCatMovement(5).computeMoves(games));
+    }
+}
@@ -0,0 +1,100 @@
+package com.atraparalagato.impl.strategy;
+
+import com.atraparalagato.impl.model.HexPosition;
+import com.atraparalagato.impl.model.HexTopology;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del análisis de escape: distancia al borde y corte mínimo de vértices.
+ */
+class EscapeAnalyzerTest {
+
+    private static final int[][] RING = {{1, 0}, {1, -1}, {0, -1}, {-1, 0}, {-1, 1}, {0, 1}};
+
+    @Test
+    void testOpenBoardAndTrappedCat() {
+        EscapeAnalyzer analyzer = new EscapeAnalyzer(5);
+        int cat = analyzer.getTopology().indexOf(0, 0);
+        long[] empty = analyzer.toMask(List.of());
+
+        assertEquals(5, analyzer.escapeDistance(empty, cat));
+        assertEquals(6, analyzer.minCut(empty, cat));
+
+        List<HexPosition> ring = new ArrayList<>();
+        for (int[] cell : RING) {
+            ring.add(new HexPosition(cell[0], cell[1]));
+        }
+        long[] trapped = analyzer.toMask(ring);
+        assertEquals(EscapeAnalyzer.UNREACHABLE, analyzer.escapeDistance(trapped, cat));
+        assertEquals(0, analyzer.minCut(trapped, cat));
+
+        long[] oneGap = analyzer.toMask(ring.subList(1, ring.size()));
+        assertEquals(1, analyzer.minCut(oneGap, cat));
+    }
+
+    @Test
+    void testCatOnBorderCannotBeCut() {
+        EscapeAnalyzer analyzer = new EscapeAnalyzer(5);
+        int border = analyzer.getTopology().indexOf(5, 0);
+
+        assertEquals(0, analyzer.escapeDistance(analyzer.toMask(List.of()), border));
+        assertEquals(EscapeAnalyzer.UNREACHABLE, analyzer.minCut(analyzer.toMask(List.of()), border));
+    }
+
+    @Test
+    void testMinCutMatchesBruteForce() {
+        int boardSize = 4;
+        EscapeAnalyzer analyzer = new EscapeAnalyzer(boardSize);
+        HexTopology topology = analyzer.getTopology();
+        int cat = topology.indexOf(0, 0);
+        SplittableRandom random = new SplittableRandom(5);
+
+        for (int trial = 0; trial < 60; trial++) {
+            long[] mask = new long[(topology.getCellCount() + 63) / 64];
+            List<Integer> free = new ArrayList<>();
+            for (int i = 0; i < topology.getCellCount(); i++) {
+                if (topology.isBorder(i) || i == cat) {
+                    continue;
+                }
+                if (random.nextInt(100) < 35) {
+                    mask[i >>> 6] |= 1L << i;
+                } else {
+                    free.add(i);
+                }
+            }
+            assertEquals(bruteForceMinCut(analyzer, mask, cat, free), analyzer.minCut(mask, cat), "Intento " + trial);
+        }
+    }
+
+    // Prueba conjuntos de celdas libres de tamaño creciente hasta encerrar al gato
+    private static int bruteForceMinCut(EscapeAnalyzer analyzer, long[] mask, int cat, List<Integer> free) {
+        for (int size = 0; size <= free.size(); size++) {
+            if (cutsWith(analyzer, mask.clone(), cat, free, 0, size)) {
+                return size;
+            }
+        }
+        return EscapeAnalyzer.UNREACHABLE;
+    }
+
+    private static boolean cutsWith(EscapeAnalyzer analyzer, long[] mask, int cat, List<Integer> free, int from, int remaining) {
+        if (remaining == 0) {
+            return analyzer.escapeDistance(mask, cat) == EscapeAnalyzer.UNREACHABLE;
+        }
+        for (int i = from; i <= free.size() - remaining; i++) {
+            int cell = free.get(i);
+            mask[cell >>> 6] |= 1L << cell;
+            boolean cut = cutsWith(analyzer, mask, cat, free, i + 1, remaining - 1);
+            mask[cell >>> 6] &= ~(1L << cell);
+            if (cut) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
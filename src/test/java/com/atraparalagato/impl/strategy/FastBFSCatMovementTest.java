@@ -0,0 +1,62 @@
+package com.atraparalagato.impl.strategy;
+
+import com.atraparalagato.impl.model.HexGameState;
+import com.atraparalagato.impl.model.HexPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la estrategia BFS por arreglos: mismos movimientos que BFSCatMovement.
+ */
+class FastBFSCatMovementTest {
+
+    @Test
+    void testSameMovesAndPathsAsBfsStrategy() {
+        Random random = new Random(7);
+        int boardSize = 5;
+        HexPosition target = new HexPosition(boardSize, 0);
+
+        for (int i = 0; i < 300; i++) {
+            HexGameState gameState = new HexGameState("game-" + i, boardSize);
+            int blocks = random.nextInt(25);
+            for (int k = 0; k < blocks; k++) {
+                int q = random.nextInt(2 * boardSize - 1) - boardSize + 1;
+                int r = random.nextInt(2 * boardSize - 1) - boardSize + 1;
+                HexPosition block = new HexPosition(q, r);
+                if (!block.equals(gameState.getCatPosition())) {
+                    gameState.executeMove(block);
+                }
+            }
+            if (gameState.isGameFinished()) {
+                continue;
+            }
+            HexPosition cat = gameState.getCatPosition();
+            BFSCatMovement bfs = new BFSCatMovement(gameState.getGameBoard());
+            FastBFSCatMovement fast = new FastBFSCatMovement(gameState.getGameBoard());
+
+            assertEquals(bfs.findBestMove(cat, target), fast.findBestMove(cat, target), "Movimiento distinto en " + i);
+            assertEquals(bfs.hasPathToGoal(cat), fast.hasPathToGoal(cat), "Camino distinto en " + i);
+            assertEquals(bfs.getFullPath(cat, target).size(), fast.getFullPath(cat, target).size(), "Longitud distinta en " + i);
+        }
+    }
+
+    @Test
+    void testTrappedCatHasNoMoveNorPath() {
+        HexGameState gameState = new HexGameState("trapped", 5);
+        int[][] ring = {{1, 0}, {1, -1}, {0, -1}, {-1, 0}, {-1, 1}, {0, 1}};
+        for (int[] cell : ring) {
+            gameState.getGameBoard().makeMove(new HexPosition(cell[0], cell[1]));
+        }
+        FastBFSCatMovement fast = new FastBFSCatMovement(gameState.getGameBoard());
+        HexPosition cat = gameState.getCatPosition();
+
+        assertEquals(Optional.empty(), fast.findBestMove(cat, new HexPosition(5, 0)));
+        assertFalse(fast.hasPathToGoal(cat));
+        assertEquals(List.of(), fast.getFullPath(cat, new HexPosition(5, 0)));
+    }
+}